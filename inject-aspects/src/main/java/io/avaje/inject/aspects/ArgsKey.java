@@ -0,0 +1,63 @@
+package io.avaje.inject.aspects;
+
+import java.util.Arrays;
+
+/**
+ * Cache key for methods with more than one argument.
+ */
+final class ArgsKey {
+
+  /**
+   * The key for methods without arguments.
+   */
+  static final Object EMPTY = new ArgsKey(new Object[0]);
+
+  /**
+   * The key for a single null argument.
+   */
+  private static final Object NULL_ARG = new ArgsKey(new Object[]{null});
+
+  private final Object[] args;
+  private final int hash;
+
+  ArgsKey(Object[] args) {
+    this.args = args;
+    this.hash = Arrays.deepHashCode(args);
+  }
+
+  /**
+   * Return the key for the arguments. A single (non-array) argument is the key itself.
+   */
+  static Object of(Object[] args) {
+    if (args == null || args.length == 0) {
+      return EMPTY;
+    }
+    if (args.length == 1) {
+      return of(args[0]);
+    }
+    return new ArgsKey(args.clone());
+  }
+
+  /**
+   * Return the key for a single argument, the argument itself unless it is null or an array.
+   */
+  static Object of(Object arg) {
+    if (arg == null) {
+      return NULL_ARG;
+    }
+    if (!arg.getClass().isArray()) {
+      return arg;
+    }
+    return new ArgsKey(new Object[]{arg});
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return this == other || (other instanceof ArgsKey && Arrays.deepEquals(args, ((ArgsKey) other).args));
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+}
@@ -0,0 +1,50 @@
+package io.avaje.inject.aspects;
+
+import io.avaje.inject.spi.Builder;
+import io.avaje.inject.spi.Module;
+
+/**
+ * Module providing the aspects of this library.
+ * <p>
+ * This is registered via service loading such that modules using the aspects only need
+ * to specify them as external dependencies, for example
+ * {@code @InjectModule(requires = CachedAspect.class)}.
+ */
+public final class AspectsModule implements Module {
+
+  private static final Class<?>[] PROVIDES = {CachedAspect.class, BulkheadAspect.class, CircuitBreakerAspect.class, HedgedAspect.class, AsyncAspect.class};
+
+  @Override
+  public Class<?>[] requires() {
+    return new Class<?>[0];
+  }
+
+  @Override
+  public Class<?>[] provides() {
+    return PROVIDES;
+  }
+
+  @Override
+  public Class<?>[] classes() {
+    return PROVIDES;
+  }
+
+  @Override
+  public void build(Builder builder) {
+    if (builder.isAddBeanFor(CachedAspect.class)) {
+      builder.register(new CachedAspect());
+    }
+    if (builder.isAddBeanFor(BulkheadAspect.class)) {
+      builder.register(new BulkheadAspect());
+    }
+    if (builder.isAddBeanFor(CircuitBreakerAspect.class)) {
+      builder.register(new CircuitBreakerAspect());
+    }
+    if (builder.isAddBeanFor(HedgedAspect.class)) {
+      builder.addPreDestroy(builder.register(new HedgedAspect()));
+    }
+    if (builder.isAddBeanFor(AsyncAspect.class)) {
+      builder.addPreDestroy(builder.register(new AsyncAspect()));
+    }
+  }
+}
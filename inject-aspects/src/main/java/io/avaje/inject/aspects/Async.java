@@ -0,0 +1,77 @@
+package io.avaje.inject.aspects;
+
+import io.avaje.inject.aop.Aspect;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Execute the method asynchronously using the executor of the {@link AsyncAspect}.
+ * <p>
+ * The method must return void or a future type (like {@code CompletableFuture} or
+ * {@code CompletionStage}). For void methods an exception thrown is logged. For future
+ * returning methods a {@code CompletableFuture} is returned that completes with the
+ * future returned by the method.
+ * <p>
+ * The number of pending calls (queued or executing) can be limited applying back-pressure
+ * to callers when the limit is reached via {@link #onFull()}.
+ *
+ * <pre>{@code
+ *
+ *   @Async(maxPending = 1000)
+ *   public void audit(AuditEvent event) {
+ *     ...
+ *   }
+ *
+ *   @Async
+ *   public CompletableFuture<Rates> refreshRates() {
+ *     ...
+ *     return CompletableFuture.completedFuture(rates);
+ *   }
+ *
+ * }</pre>
+ */
+@Aspect(target = AsyncAspect.class)
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Async {
+
+  /**
+   * The name of the queue. Methods using the same name share the limit of pending calls and must
+   * use the same settings. Defaults to the fully qualified class name, method name and parameter types.
+   */
+  String name() default "";
+
+  /**
+   * The maximum number of pending calls (0 for no limit).
+   */
+  int maxPending() default 0;
+
+  /**
+   * What to do when the maximum number of pending calls is reached.
+   */
+  Overflow onFull() default Overflow.BLOCK;
+
+  /**
+   * The action taken when the maximum number of pending calls is reached.
+   */
+  enum Overflow {
+
+    /**
+     * The caller waits until a pending call completes.
+     */
+    BLOCK,
+
+    /**
+     * The caller executes the method itself.
+     */
+    CALLER_RUNS,
+
+    /**
+     * Throw {@link AsyncQueueFullException}.
+     */
+    REJECT
+  }
+}
@@ -0,0 +1,184 @@
+package io.avaje.inject.aspects;
+
+import io.avaje.inject.aop.AspectProvider;
+import io.avaje.inject.aop.Invocation;
+import io.avaje.inject.aop.MethodInterceptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aspect for {@link Async}.
+ * <p>
+ * By default the executor uses virtual threads when supported (otherwise a cached pool of daemon
+ * threads) and is owned by the scope. When the scope is closed the executor is shut down waiting
+ * for the pending calls to complete (up to the drain timeout). An application can provide its own
+ * executor by registering an {@code AsyncAspect} bean itself.
+ *
+ * <pre>{@code
+ *
+ *   @Bean
+ *   AsyncAspect asyncAspect() {
+ *     return new AsyncAspect(Executors.newFixedThreadPool(4), Duration.ofSeconds(10));
+ *   }
+ *
+ * }</pre>
+ * <p>
+ * The interceptors {@link Invocation#detach() detach} the invocation which is then invoked by
+ * the executor after the interceptor has returned.
+ */
+public final class AsyncAspect implements AspectProvider<Async>, AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger("io.avaje.inject.aspects");
+
+  private final Registry<AsyncQueue> queues = new Registry<>(Async.class);
+  private final ExecutorService executor;
+  private final Duration drainTimeout;
+
+  /**
+   * Create using virtual threads (when supported) and a drain timeout of 30 seconds.
+   */
+  public AsyncAspect() {
+    this(TaskExecutors.newExecutor("async"), Duration.ofSeconds(30));
+  }
+
+  /**
+   * Create with the given executor and the maximum time to wait for pending calls on close.
+   */
+  public AsyncAspect(ExecutorService executor, Duration drainTimeout) {
+    this.executor = executor;
+    this.drainTimeout = drainTimeout;
+  }
+
+  @Override
+  public MethodInterceptor interceptor(Method method, Async async) {
+    AsyncQueue queue = queues.register(async.name(), method, Arrays.asList(async.maxPending(), async.onFull()),
+      n -> new AsyncQueue(n, async.maxPending(), async.onFull()));
+    Class<?> returnType = method.getReturnType();
+    if (returnType == void.class) {
+      return new VoidInterceptor(queue, method);
+    }
+    if (returnType != Object.class && returnType.isAssignableFrom(CompletableFuture.class)) {
+      return new FutureInterceptor(queue);
+    }
+    throw new IllegalStateException("@Async method " + method + " must return void, CompletableFuture or CompletionStage");
+  }
+
+  /**
+   * Return the queue by name (null when there is no queue with that name).
+   */
+  public AsyncQueue queue(String name) {
+    return queues.get(name);
+  }
+
+  /**
+   * Return all the queues.
+   */
+  public List<AsyncQueue> queues() {
+    return queues.values();
+  }
+
+  /**
+   * Shutdown the executor waiting for pending calls to complete.
+   */
+  @Override
+  public void close() {
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(drainTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+        log.warn("Async calls did not complete within {}, interrupting them", drainTimeout);
+        executor.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      executor.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Submit the task to the executor or run it when the queue is full and the caller runs.
+   */
+  private void submit(AsyncQueue queue, Runnable task) throws InterruptedException {
+    if (!queue.acquire()) {
+      if (queue.onFull() == Async.Overflow.CALLER_RUNS) {
+        task.run();
+        return;
+      }
+      throw new AsyncQueueFullException(queue.name());
+    }
+    try {
+      executor.execute(() -> {
+        try {
+          task.run();
+        } finally {
+          queue.release();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      queue.release();
+      throw e;
+    }
+  }
+
+  private final class VoidInterceptor implements MethodInterceptor {
+
+    private final AsyncQueue queue;
+    private final Method method;
+
+    VoidInterceptor(AsyncQueue queue, Method method) {
+      this.queue = queue;
+      this.method = method;
+    }
+
+    @Override
+    public void invoke(Invocation invocation) throws Throwable {
+      final Invocation detached = invocation.detach();
+      submit(queue, () -> {
+        try {
+          detached.invoke();
+        } catch (Throwable e) {
+          log.error("Error invoking @Async method " + method, e);
+        }
+      });
+    }
+  }
+
+  private final class FutureInterceptor implements MethodInterceptor {
+
+    private final AsyncQueue queue;
+
+    FutureInterceptor(AsyncQueue queue) {
+      this.queue = queue;
+    }
+
+    @Override
+    public void invoke(Invocation invocation) throws Throwable {
+      final Invocation detached = invocation.detach();
+      final CompletableFuture<Object> future = new CompletableFuture<>();
+      submit(queue, () -> {
+        CompletionStage<Object> stage = detached.invokeStage();
+        if (stage == null) {
+          future.complete(null);
+        } else {
+          stage.whenComplete((result, e) -> {
+            if (e == null) {
+              future.complete(result);
+            } else {
+              future.completeExceptionally(e);
+            }
+          });
+        }
+      });
+      invocation.result(future);
+    }
+  }
+}
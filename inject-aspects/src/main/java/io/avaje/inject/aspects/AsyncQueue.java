@@ -0,0 +1,101 @@
+package io.avaje.inject.aspects;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The pending calls of {@link Async} methods with a given name and their statistics.
+ */
+public final class AsyncQueue {
+
+  private final String name;
+  private final int maxPending;
+  private final Async.Overflow onFull;
+  private final Semaphore permits;
+  private final AtomicInteger pending = new AtomicInteger();
+  private final LongAdder submitted = new LongAdder();
+  private final LongAdder callerRuns = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+
+  AsyncQueue(String name, int maxPending, Async.Overflow onFull) {
+    this.name = name;
+    this.maxPending = Math.max(0, maxPending);
+    this.onFull = onFull;
+    this.permits = maxPending > 0 ? new Semaphore(maxPending) : null;
+  }
+
+  /**
+   * Return the queue name.
+   */
+  public String name() {
+    return name;
+  }
+
+  /**
+   * Return the maximum number of pending calls (0 for no limit).
+   */
+  public int maxPending() {
+    return maxPending;
+  }
+
+  /**
+   * Return the number of pending calls (queued or executing).
+   */
+  public int pending() {
+    return pending.get();
+  }
+
+  /**
+   * Return the number of calls submitted to the executor.
+   */
+  public long submitted() {
+    return submitted.sum();
+  }
+
+  /**
+   * Return the number of calls executed by the caller as the queue was full.
+   */
+  public long callerRuns() {
+    return callerRuns.sum();
+  }
+
+  /**
+   * Return the number of calls rejected as the queue was full.
+   */
+  public long rejected() {
+    return rejected.sum();
+  }
+
+  Async.Overflow onFull() {
+    return onFull;
+  }
+
+  /**
+   * Acquire a pending slot returning false when full and not blocking.
+   */
+  boolean acquire() throws InterruptedException {
+    if (permits != null) {
+      if (onFull == Async.Overflow.BLOCK) {
+        permits.acquire();
+      } else if (!permits.tryAcquire()) {
+        if (onFull == Async.Overflow.CALLER_RUNS) {
+          callerRuns.increment();
+        } else {
+          rejected.increment();
+        }
+        return false;
+      }
+    }
+    pending.incrementAndGet();
+    submitted.increment();
+    return true;
+  }
+
+  void release() {
+    pending.decrementAndGet();
+    if (permits != null) {
+      permits.release();
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package io.avaje.inject.aspects;
+
+import io.avaje.inject.aop.InvocationException;
+
+/**
+ * Thrown when an {@link Async} call is rejected as the queue is full (with {@link Async.Overflow#REJECT}).
+ * <p>
+ * Being an {@link InvocationException} it is thrown by the aspect proxy as is rather than wrapped.
+ */
+public class AsyncQueueFullException extends InvocationException {
+
+  /**
+   * Create with the name of the async queue.
+   */
+  public AsyncQueueFullException(String name) {
+    super("Async queue " + name + " is full", null);
+  }
+}
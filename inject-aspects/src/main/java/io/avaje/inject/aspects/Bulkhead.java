@@ -0,0 +1,56 @@
+package io.avaje.inject.aspects;
+
+import io.avaje.inject.aop.Aspect;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limit the number of concurrent calls of the method.
+ * <p>
+ * Calls over the limit wait (in fair order) up to the max wait for a permit and otherwise
+ * are rejected with {@link BulkheadFullException}. With the default max wait of 0 calls
+ * over the limit are rejected immediately. Methods using the same name share the bulkhead.
+ * <p>
+ * Waiting uses a fair {@link java.util.concurrent.Semaphore} (no {@code synchronized}) such that
+ * waiting virtual threads do not pin their carrier threads. For a method returning a
+ * {@code CompletionStage} the permit is released when the stage completes.
+ *
+ * <pre>{@code
+ *
+ *   @Bulkhead(maxConcurrent = 20, maxWait = 100)
+ *   public Quote fetchQuote(String symbol) {
+ *     ...
+ *   }
+ *
+ * }</pre>
+ */
+@Aspect(target = BulkheadAspect.class)
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Bulkhead {
+
+  /**
+   * The name of the bulkhead. Methods using the same name share the limit and must use the same
+   * settings. Defaults to the fully qualified class name, method name and parameter types.
+   */
+  String name() default "";
+
+  /**
+   * The maximum number of concurrent calls.
+   */
+  int maxConcurrent() default 10;
+
+  /**
+   * The maximum time to wait for a permit (0 to reject immediately).
+   */
+  long maxWait() default 0;
+
+  /**
+   * The unit of the max wait.
+   */
+  TimeUnit maxWaitUnit() default TimeUnit.MILLISECONDS;
+}
@@ -0,0 +1,86 @@
+package io.avaje.inject.aspects;
+
+import io.avaje.inject.aop.AspectProvider;
+import io.avaje.inject.aop.AsyncMethodInterceptor;
+import io.avaje.inject.aop.Invocation;
+import io.avaje.inject.aop.MethodInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Aspect for {@link Bulkhead} limiting concurrent calls.
+ * <p>
+ * This bean holds the limits by name such that their permit usage can be obtained.
+ */
+public final class BulkheadAspect implements AspectProvider<Bulkhead> {
+
+  private final Registry<ConcurrencyLimit> limits = new Registry<>(Bulkhead.class);
+
+  @Override
+  public MethodInterceptor interceptor(Method method, Bulkhead bulkhead) {
+    long maxWaitNanos = bulkhead.maxWaitUnit().toNanos(bulkhead.maxWait());
+    ConcurrencyLimit limit = limits.register(bulkhead.name(), method, Arrays.asList(bulkhead.maxConcurrent(), maxWaitNanos),
+      n -> new ConcurrencyLimit(n, bulkhead.maxConcurrent(), maxWaitNanos));
+    if (CompletionStage.class.isAssignableFrom(method.getReturnType())) {
+      return new AsyncInterceptor(limit);
+    }
+    return new Interceptor(limit);
+  }
+
+  /**
+   * Return the bulkhead by name (null when there is no bulkhead with that name).
+   */
+  public ConcurrencyLimit bulkhead(String name) {
+    return limits.get(name);
+  }
+
+  /**
+   * Return all the bulkheads.
+   */
+  public List<ConcurrencyLimit> bulkheads() {
+    return limits.values();
+  }
+
+  private static final class Interceptor implements MethodInterceptor {
+
+    private final ConcurrencyLimit limit;
+
+    Interceptor(ConcurrencyLimit limit) {
+      this.limit = limit;
+    }
+
+    @Override
+    public void invoke(Invocation invocation) throws Throwable {
+      limit.acquire();
+      try {
+        invocation.proceed();
+      } finally {
+        limit.release();
+      }
+    }
+  }
+
+  private static final class AsyncInterceptor implements AsyncMethodInterceptor {
+
+    private final ConcurrencyLimit limit;
+
+    AsyncInterceptor(ConcurrencyLimit limit) {
+      this.limit = limit;
+    }
+
+    @Override
+    public CompletionStage<?> invokeAsync(Invocation invocation) throws Throwable {
+      limit.acquire();
+      CompletionStage<?> stage = invocation.invokeStage();
+      if (stage == null) {
+        // the method returned null rather than a stage
+        limit.release();
+        return null;
+      }
+      return stage.whenComplete((result, e) -> limit.release());
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package io.avaje.inject.aspects;
+
+import io.avaje.inject.aop.InvocationException;
+
+/**
+ * Thrown when a call is rejected by a {@link Bulkhead} that has no permit available.
+ * <p>
+ * Being an {@link InvocationException} it is thrown by the aspect proxy as is rather than wrapped.
+ */
+public class BulkheadFullException extends InvocationException {
+
+  /**
+   * Create with the name of the bulkhead.
+   */
+  public BulkheadFullException(String name) {
+    super("Bulkhead " + name + " is full", null);
+  }
+}
@@ -0,0 +1,71 @@
+package io.avaje.inject.aspects;
+
+/**
+ * Permit usage of a {@link ConcurrencyLimit}.
+ */
+public final class BulkheadStats {
+
+  private final int maxConcurrent;
+  private final int active;
+  private final int peak;
+  private final int waiting;
+  private final long accepted;
+  private final long rejected;
+
+  BulkheadStats(int maxConcurrent, int active, int peak, int waiting, long accepted, long rejected) {
+    this.maxConcurrent = maxConcurrent;
+    this.active = active;
+    this.peak = peak;
+    this.waiting = waiting;
+    this.accepted = accepted;
+    this.rejected = rejected;
+  }
+
+  /**
+   * Return the maximum number of concurrent calls.
+   */
+  public int maxConcurrent() {
+    return maxConcurrent;
+  }
+
+  /**
+   * Return the number of permits in use.
+   */
+  public int active() {
+    return active;
+  }
+
+  /**
+   * Return the highest number of permits in use at the same time.
+   */
+  public int peak() {
+    return peak;
+  }
+
+  /**
+   * Return the (estimated) number of calls waiting for a permit.
+   */
+  public int waiting() {
+    return waiting;
+  }
+
+  /**
+   * Return the number of calls that obtained a permit.
+   */
+  public long accepted() {
+    return accepted;
+  }
+
+  /**
+   * Return the number of calls rejected.
+   */
+  public long rejected() {
+    return rejected;
+  }
+
+  @Override
+  public String toString() {
+    return "active:" + active + "/" + maxConcurrent + " peak:" + peak + " waiting:" + waiting
+      + " accepted:" + accepted + " rejected:" + rejected;
+  }
+}
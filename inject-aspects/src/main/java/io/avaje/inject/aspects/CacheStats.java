@@ -0,0 +1,60 @@
+package io.avaje.inject.aspects;
+
+/**
+ * Statistics of a {@link MethodCache}.
+ */
+public final class CacheStats {
+
+  private final long hits;
+  private final long misses;
+  private final long evictions;
+  private final long size;
+
+  CacheStats(long hits, long misses, long evictions, long size) {
+    this.hits = hits;
+    this.misses = misses;
+    this.evictions = evictions;
+    this.size = size;
+  }
+
+  /**
+   * Return the number of lookups that returned a cached value.
+   */
+  public long hits() {
+    return hits;
+  }
+
+  /**
+   * Return the number of lookups that invoked the method.
+   */
+  public long misses() {
+    return misses;
+  }
+
+  /**
+   * Return the number of entries evicted due to the max size or expired.
+   */
+  public long evictions() {
+    return evictions;
+  }
+
+  /**
+   * Return the number of entries.
+   */
+  public long size() {
+    return size;
+  }
+
+  /**
+   * Return the ratio of hits to lookups (0 when there have been no lookups).
+   */
+  public double hitRatio() {
+    long total = hits + misses;
+    return total == 0 ? 0 : (double) hits / total;
+  }
+
+  @Override
+  public String toString() {
+    return "hits:" + hits + " misses:" + misses + " evictions:" + evictions + " size:" + size;
+  }
+}
@@ -0,0 +1,58 @@
+package io.avaje.inject.aspects;
+
+import io.avaje.inject.aop.Aspect;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache the result of the method keyed by the method arguments.
+ * <p>
+ * The cache is bounded evicting the least recently used entries and optionally expires
+ * entries after a time to live. Exceptions are not cached. A {@code null} result is cached.
+ * <p>
+ * The caches are obtained by name from the {@link CachedAspect} bean to inspect their
+ * statistics and to invalidate entries.
+ *
+ * <pre>{@code
+ *
+ *   @Cached(name = "customers", maxSize = 10_000, ttl = 10, ttlUnit = TimeUnit.MINUTES)
+ *   public Customer findCustomer(long id) {
+ *     ...
+ *   }
+ *
+ * }</pre>
+ * <p>
+ * The {@link CachedAspect} is provided by this library via its module such that the module
+ * using {@code @Cached} specifies it as an external dependency with
+ * {@code @InjectModule(requires = CachedAspect.class)}.
+ */
+@Aspect(target = CachedAspect.class)
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Cached {
+
+  /**
+   * The name of the cache. Methods using the same name share the cache and must use the same
+   * settings. Defaults to the fully qualified class name, method name and parameter types.
+   */
+  String name() default "";
+
+  /**
+   * The maximum number of entries.
+   */
+  int maxSize() default 1000;
+
+  /**
+   * The time to live of an entry (0 for no expiry).
+   */
+  long ttl() default 0;
+
+  /**
+   * The unit of the time to live.
+   */
+  TimeUnit ttlUnit() default TimeUnit.SECONDS;
+}
@@ -0,0 +1,84 @@
+package io.avaje.inject.aspects;
+
+import io.avaje.inject.aop.AspectProvider;
+import io.avaje.inject.aop.Invocation;
+import io.avaje.inject.aop.MethodInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Aspect for {@link Cached} caching method results.
+ * <p>
+ * This bean holds the caches by name such that they can be inspected and invalidated.
+ *
+ * <pre>{@code
+ *
+ *   MethodCache customers = scope.get(CachedAspect.class).cache("customers");
+ *   customers.invalidate(customerId);
+ *
+ * }</pre>
+ */
+public final class CachedAspect implements AspectProvider<Cached> {
+
+  private final Registry<MethodCache> caches = new Registry<>(Cached.class);
+
+  @Override
+  public MethodInterceptor interceptor(Method method, Cached cached) {
+    long ttlNanos = cached.ttlUnit().toNanos(cached.ttl());
+    MethodCache cache = caches.register(cached.name(), method, Arrays.asList(cached.maxSize(), ttlNanos),
+      n -> new MethodCache(n, cached.maxSize(), ttlNanos));
+    return new Interceptor(cache, method.getParameterCount());
+  }
+
+  /**
+   * Return the cache by name (null when there is no cache with that name).
+   */
+  public MethodCache cache(String name) {
+    return caches.get(name);
+  }
+
+  /**
+   * Return all the caches.
+   */
+  public List<MethodCache> caches() {
+    return caches.values();
+  }
+
+  private static final class Interceptor implements MethodInterceptor {
+
+    private final MethodCache cache;
+    private final int parameterCount;
+
+    Interceptor(MethodCache cache, int parameterCount) {
+      this.cache = cache;
+      this.parameterCount = parameterCount;
+    }
+
+    @Override
+    public void invoke(Invocation invocation) throws Throwable {
+      Object key = key(invocation);
+      Object value = cache.lookup(key);
+      if (value != null) {
+        invocation.result(MethodCache.isNullValue(value) ? null : value);
+        return;
+      }
+      cache.put(key, invocation.invoke());
+    }
+
+    /**
+     * Return the cache key reading a single argument without boxing the arguments into an array.
+     */
+    private Object key(Invocation invocation) {
+      switch (parameterCount) {
+        case 0:
+          return ArgsKey.EMPTY;
+        case 1:
+          return ArgsKey.of(invocation.argument(0));
+        default:
+          return ArgsKey.of(invocation.arguments());
+      }
+    }
+  }
+}
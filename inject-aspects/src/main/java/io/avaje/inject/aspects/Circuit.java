@@ -0,0 +1,206 @@
+package io.avaje.inject.aspects;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The state of a {@link CircuitBreaker} with a ring buffer of the most recent call outcomes.
+ * <p>
+ * All state changes use atomic compare and set (no locks).
+ */
+public final class Circuit {
+
+  /**
+   * The circuit state.
+   */
+  public enum State {
+    /**
+     * Calls are permitted and their outcomes recorded.
+     */
+    CLOSED,
+    /**
+     * Calls are not permitted.
+     */
+    OPEN,
+    /**
+     * Trial calls are permitted to determine whether to close the circuit.
+     */
+    HALF_OPEN
+  }
+
+  private static final int CLOSED = 0;
+  private static final int OPEN = 1;
+  private static final int HALF_OPEN = 2;
+
+  private static final int NONE = 0;
+  private static final int SUCCESS = 1;
+  private static final int FAILURE = 2;
+
+  private final String name;
+  private final int failureRate;
+  private final int windowSize;
+  private final int minimumCalls;
+  private final long openNanos;
+  private final int halfOpenCalls;
+  private final CircuitOpenException openException;
+
+  private final AtomicInteger state = new AtomicInteger(CLOSED);
+  private volatile long openedAt;
+  private final AtomicIntegerArray window;
+  private final AtomicInteger position = new AtomicInteger();
+  private final AtomicInteger recorded = new AtomicInteger();
+  private final AtomicInteger failures = new AtomicInteger();
+  private final AtomicInteger trialPermits = new AtomicInteger();
+  private final AtomicInteger trialSuccesses = new AtomicInteger();
+  private final LongAdder notPermitted = new LongAdder();
+
+  Circuit(String name, int failureRate, int windowSize, int minimumCalls, long openNanos, int halfOpenCalls) {
+    this.name = name;
+    this.failureRate = failureRate;
+    this.windowSize = Math.max(1, windowSize);
+    this.minimumCalls = Math.max(1, Math.min(minimumCalls, this.windowSize));
+    this.openNanos = openNanos;
+    this.halfOpenCalls = Math.max(1, halfOpenCalls);
+    this.window = new AtomicIntegerArray(this.windowSize);
+    this.openException = new CircuitOpenException(name);
+  }
+
+  /**
+   * Return the circuit name.
+   */
+  public String name() {
+    return name;
+  }
+
+  /**
+   * Return the current state.
+   */
+  public State state() {
+    return State.values()[state.get()];
+  }
+
+  /**
+   * Return the failure rate percentage of the calls in the window.
+   */
+  public int failureRate() {
+    int calls = recorded.get();
+    return calls == 0 ? 0 : failures.get() * 100 / calls;
+  }
+
+  /**
+   * Return the number of calls that were not permitted.
+   */
+  public long notPermittedCount() {
+    return notPermitted.sum();
+  }
+
+  /**
+   * Close the circuit clearing the recorded outcomes.
+   */
+  public void reset() {
+    clearWindow();
+    state.set(CLOSED);
+  }
+
+  /**
+   * Return the exception used for calls that are not permitted.
+   */
+  CircuitOpenException openException() {
+    return openException;
+  }
+
+  /**
+   * Return true if the call is permitted.
+   */
+  boolean tryAcquire() {
+    while (true) {
+      int current = state.get();
+      if (current == CLOSED) {
+        return true;
+      }
+      if (current == OPEN) {
+        if (System.nanoTime() - openedAt < openNanos) {
+          notPermitted.increment();
+          return false;
+        }
+        if (state.compareAndSet(OPEN, HALF_OPEN)) {
+          trialSuccesses.set(0);
+          trialPermits.set(halfOpenCalls);
+        }
+        continue;
+      }
+      // half open, permit the trial calls only
+      int permits = trialPermits.get();
+      if (permits <= 0) {
+        notPermitted.increment();
+        return false;
+      }
+      if (trialPermits.compareAndSet(permits, permits - 1)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Record a successful call.
+   */
+  void onSuccess() {
+    int current = state.get();
+    if (current == CLOSED) {
+      record(SUCCESS);
+    } else if (current == HALF_OPEN && trialSuccesses.incrementAndGet() >= halfOpenCalls && state.compareAndSet(HALF_OPEN, CLOSED)) {
+      clearWindow();
+    }
+  }
+
+  /**
+   * Record a failed call.
+   */
+  void onFailure() {
+    int current = state.get();
+    if (current == HALF_OPEN) {
+      open(HALF_OPEN);
+      return;
+    }
+    if (current == CLOSED) {
+      record(FAILURE);
+      int calls = recorded.get();
+      if (calls >= minimumCalls && failures.get() * 100 >= failureRate * calls) {
+        open(CLOSED);
+      }
+    }
+  }
+
+  private void open(int from) {
+    openedAt = System.nanoTime();
+    if (state.compareAndSet(from, OPEN) && from == CLOSED) {
+      clearWindow();
+    }
+  }
+
+  private void record(int outcome) {
+    int slot = (position.getAndIncrement() & Integer.MAX_VALUE) % windowSize;
+    int previous = window.getAndSet(slot, outcome);
+    if (previous == NONE) {
+      recorded.incrementAndGet();
+    } else if (previous == FAILURE) {
+      failures.decrementAndGet();
+    }
+    if (outcome == FAILURE) {
+      failures.incrementAndGet();
+    }
+  }
+
+  private void clearWindow() {
+    for (int i = 0; i < windowSize; i++) {
+      int previous = window.getAndSet(i, NONE);
+      if (previous != NONE) {
+        recorded.decrementAndGet();
+        if (previous == FAILURE) {
+          failures.decrementAndGet();
+        }
+      }
+    }
+  }
+}
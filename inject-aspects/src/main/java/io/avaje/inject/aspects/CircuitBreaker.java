@@ -0,0 +1,81 @@
+package io.avaje.inject.aspects;
+
+import io.avaje.inject.aop.Aspect;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stop calling the method while it is failing.
+ * <p>
+ * The outcomes of the most recent calls are held in a sliding window. When the failure rate
+ * of the window reaches the threshold the circuit opens and calls are short-circuited (with
+ * {@link CircuitOpenException} or the fallback). After the open duration a number of trial
+ * calls are permitted (half open) and when these succeed the circuit closes again.
+ * <p>
+ * The fallback method is found via {@link io.avaje.inject.aop.Fallback#find(String, java.lang.reflect.Method)}
+ * and is used when the circuit is open and when the method throws.
+ *
+ * <pre>{@code
+ *
+ *   @CircuitBreaker(failureRate = 50, openDuration = 30, fallback = "cachedRates")
+ *   public Rates fetchRates() {
+ *     ...
+ *   }
+ *
+ *   Rates cachedRates(Throwable e) {
+ *     ...
+ *   }
+ *
+ * }</pre>
+ */
+@Aspect(target = CircuitBreakerAspect.class)
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CircuitBreaker {
+
+  /**
+   * The name of the circuit. Methods using the same name share the circuit and must use the same
+   * settings (the fallback is per method). Defaults to the fully qualified class name, method
+   * name and parameter types.
+   */
+  String name() default "";
+
+  /**
+   * The failure rate percentage at which the circuit opens.
+   */
+  int failureRate() default 50;
+
+  /**
+   * The number of most recent calls in the sliding window.
+   */
+  int windowSize() default 100;
+
+  /**
+   * The minimum number of calls in the window before the failure rate is used.
+   */
+  int minimumCalls() default 10;
+
+  /**
+   * The time the circuit stays open before permitting trial calls.
+   */
+  long openDuration() default 30;
+
+  /**
+   * The unit of the open duration.
+   */
+  TimeUnit openDurationUnit() default TimeUnit.SECONDS;
+
+  /**
+   * The number of trial calls permitted when half open.
+   */
+  int halfOpenCalls() default 3;
+
+  /**
+   * The name of the fallback method (none by default).
+   */
+  String fallback() default "";
+}
@@ -0,0 +1,136 @@
+package io.avaje.inject.aspects;
+
+import io.avaje.inject.aop.AspectProvider;
+import io.avaje.inject.aop.AsyncMethodInterceptor;
+import io.avaje.inject.aop.Fallback;
+import io.avaje.inject.aop.Invocation;
+import io.avaje.inject.aop.MethodInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Aspect for {@link CircuitBreaker}.
+ * <p>
+ * This bean holds the circuits by name such that their state can be obtained and reset.
+ */
+public final class CircuitBreakerAspect implements AspectProvider<CircuitBreaker> {
+
+  private final Registry<Circuit> circuits = new Registry<>(CircuitBreaker.class);
+
+  @Override
+  public MethodInterceptor interceptor(Method method, CircuitBreaker breaker) {
+    long openNanos = breaker.openDurationUnit().toNanos(breaker.openDuration());
+    List<Object> settings = Arrays.asList(breaker.failureRate(), breaker.windowSize(), breaker.minimumCalls(), openNanos, breaker.halfOpenCalls());
+    Circuit circuit = circuits.register(breaker.name(), method, settings, n -> new Circuit(n, breaker.failureRate(), breaker.windowSize(),
+      breaker.minimumCalls(), openNanos, breaker.halfOpenCalls()));
+    Fallback fallback = fallback(method, breaker.fallback());
+    if (CompletionStage.class.isAssignableFrom(method.getReturnType())) {
+      return new AsyncInterceptor(circuit, fallback);
+    }
+    return new Interceptor(circuit, fallback);
+  }
+
+  private static Fallback fallback(Method method, String name) {
+    if (name.isEmpty()) {
+      return null;
+    }
+    try {
+      return Fallback.find(name, method);
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException("Fallback method " + name + " not found for " + method, e);
+    }
+  }
+
+  /**
+   * Return the circuit by name (null when there is no circuit with that name).
+   */
+  public Circuit circuit(String name) {
+    return circuits.get(name);
+  }
+
+  /**
+   * Return all the circuits.
+   */
+  public List<Circuit> circuits() {
+    return circuits.values();
+  }
+
+  private static final class Interceptor implements MethodInterceptor {
+
+    private final Circuit circuit;
+    private final Fallback fallback;
+
+    Interceptor(Circuit circuit, Fallback fallback) {
+      this.circuit = circuit;
+      this.fallback = fallback;
+    }
+
+    @Override
+    public void invoke(Invocation invocation) throws Throwable {
+      if (!circuit.tryAcquire()) {
+        if (fallback == null) {
+          throw circuit.openException();
+        }
+        fallback.invoke(invocation, circuit.openException());
+        return;
+      }
+      try {
+        invocation.proceed();
+      } catch (Throwable e) {
+        circuit.onFailure();
+        if (fallback == null) {
+          throw e;
+        }
+        fallback.invoke(invocation, e);
+        return;
+      }
+      circuit.onSuccess();
+    }
+  }
+
+  private static final class AsyncInterceptor implements AsyncMethodInterceptor {
+
+    private final Circuit circuit;
+    private final Fallback fallback;
+
+    AsyncInterceptor(Circuit circuit, Fallback fallback) {
+      this.circuit = circuit;
+      this.fallback = fallback;
+    }
+
+    @Override
+    public CompletionStage<?> invokeAsync(Invocation invocation) {
+      if (!circuit.tryAcquire()) {
+        return fallback(invocation, circuit.openException());
+      }
+      CompletionStage<Object> stage = invocation.invokeStage();
+      if (stage == null) {
+        // the method returned null rather than a stage
+        circuit.onSuccess();
+        return null;
+      }
+      return stage.handle((result, e) -> {
+        if (e == null) {
+          circuit.onSuccess();
+          return CompletableFuture.completedFuture(result);
+        }
+        circuit.onFailure();
+        return fallback(invocation, e);
+      }).thenCompose(next -> next);
+    }
+
+    @SuppressWarnings("unchecked")
+    private CompletionStage<Object> fallback(Invocation invocation, Throwable e) {
+      if (fallback == null) {
+        CompletableFuture<Object> failed = new CompletableFuture<>();
+        failed.completeExceptionally(e);
+        return failed;
+      }
+      return (CompletionStage<Object>) fallback.invoke(invocation, e);
+    }
+  }
+}
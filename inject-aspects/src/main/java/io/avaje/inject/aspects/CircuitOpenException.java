@@ -0,0 +1,20 @@
+package io.avaje.inject.aspects;
+
+import io.avaje.inject.aop.InvocationException;
+
+/**
+ * Thrown when a call is not permitted as the {@link CircuitBreaker} is open.
+ * <p>
+ * One instance (without stack trace) is used per circuit such that short-circuited
+ * calls do not allocate. Being an {@link InvocationException} it is thrown by the
+ * aspect proxy as is rather than wrapped.
+ */
+public class CircuitOpenException extends InvocationException {
+
+  /**
+   * Create with the name of the circuit.
+   */
+  public CircuitOpenException(String name) {
+    super("Circuit " + name + " is open", null, false, false);
+  }
+}
@@ -0,0 +1,68 @@
+package io.avaje.inject.aspects;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The concurrency limit of a {@link Bulkhead} using a fair semaphore.
+ */
+public final class ConcurrencyLimit {
+
+  private final String name;
+  private final int maxConcurrent;
+  private final long maxWaitNanos;
+  private final Semaphore semaphore;
+  private final AtomicInteger peak = new AtomicInteger();
+  private final LongAdder accepted = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+
+  ConcurrencyLimit(String name, int maxConcurrent, long maxWaitNanos) {
+    this.name = name;
+    this.maxConcurrent = maxConcurrent;
+    this.maxWaitNanos = maxWaitNanos;
+    this.semaphore = new Semaphore(maxConcurrent, true);
+  }
+
+  /**
+   * Return the bulkhead name.
+   */
+  public String name() {
+    return name;
+  }
+
+  /**
+   * Obtain a permit waiting up to the max wait or throw BulkheadFullException.
+   */
+  void acquire() throws InterruptedException {
+    boolean acquired = maxWaitNanos > 0
+      ? semaphore.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)
+      : semaphore.tryAcquire();
+    if (!acquired) {
+      rejected.increment();
+      throw new BulkheadFullException(name);
+    }
+    accepted.increment();
+    int active = maxConcurrent - semaphore.availablePermits();
+    int max = peak.get();
+    while (active > max && !peak.compareAndSet(max, active)) {
+      max = peak.get();
+    }
+  }
+
+  /**
+   * Release the permit.
+   */
+  void release() {
+    semaphore.release();
+  }
+
+  /**
+   * Return the permit usage.
+   */
+  public BulkheadStats stats() {
+    return new BulkheadStats(maxConcurrent, maxConcurrent - semaphore.availablePermits(), peak.get(),
+      semaphore.getQueueLength(), accepted.sum(), rejected.sum());
+  }
+}
@@ -0,0 +1,142 @@
+package io.avaje.inject.aspects;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The delay and load budget of a {@link Hedged} method with its statistics.
+ */
+public final class Hedge {
+
+  private static final long COST = 100;
+  private static final long MAX_TOKENS = 10 * COST;
+
+  private final String name;
+  private final long fixedDelay;
+  private final RecentLatency latency;
+  private final int maxExtraLoad;
+  private final AtomicLong tokens = new AtomicLong();
+  private final LongAdder calls = new LongAdder();
+  private final LongAdder hedged = new LongAdder();
+  private final LongAdder hedgeWins = new LongAdder();
+
+  Hedge(String name, String delay, int maxExtraLoad) {
+    this.name = name;
+    this.maxExtraLoad = Math.max(0, Math.min(100, maxExtraLoad));
+    if (delay.startsWith("p")) {
+      this.fixedDelay = -1;
+      this.latency = new RecentLatency(percentile(delay));
+    } else {
+      this.fixedDelay = fixedNanos(delay);
+      this.latency = null;
+    }
+  }
+
+  private static double percentile(String delay) {
+    try {
+      double percentile = Double.parseDouble(delay.substring(1));
+      if (percentile > 0 && percentile < 100) {
+        return percentile;
+      }
+    } catch (NumberFormatException e) {
+      // fall through
+    }
+    throw new IllegalArgumentException("Invalid hedge delay percentile " + delay);
+  }
+
+  private static long fixedNanos(String delay) {
+    try {
+      if (delay.endsWith("ms")) {
+        return TimeUnit.MILLISECONDS.toNanos(Long.parseLong(delay.substring(0, delay.length() - 2).trim()));
+      } else if (delay.endsWith("us")) {
+        return TimeUnit.MICROSECONDS.toNanos(Long.parseLong(delay.substring(0, delay.length() - 2).trim()));
+      } else if (delay.endsWith("s")) {
+        return TimeUnit.SECONDS.toNanos(Long.parseLong(delay.substring(0, delay.length() - 1).trim()));
+      }
+      return TimeUnit.MILLISECONDS.toNanos(Long.parseLong(delay.trim()));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid hedge delay " + delay);
+    }
+  }
+
+  /**
+   * Return the hedge name.
+   */
+  public String name() {
+    return name;
+  }
+
+  /**
+   * Return the current delay before hedging in the given unit or -1 when not hedging yet
+   * (too few latencies recorded for a percentile delay).
+   */
+  public long delay(TimeUnit unit) {
+    long nanos = delayNanos();
+    return nanos < 0 ? -1 : unit.convert(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Return the number of calls.
+   */
+  public long calls() {
+    return calls.sum();
+  }
+
+  /**
+   * Return the number of additional (hedged) calls made.
+   */
+  public long hedged() {
+    return hedged.sum();
+  }
+
+  /**
+   * Return the number of times the hedged call returned first.
+   */
+  public long hedgeWins() {
+    return hedgeWins.sum();
+  }
+
+  long delayNanos() {
+    return latency == null ? fixedDelay : latency.value();
+  }
+
+  /**
+   * Register a call adding to the budget of hedged calls.
+   */
+  void onCall() {
+    calls.increment();
+    if (maxExtraLoad > 0 && tokens.get() < MAX_TOKENS) {
+      tokens.accumulateAndGet(maxExtraLoad, (current, add) -> Math.min(current + add, MAX_TOKENS));
+    }
+  }
+
+  /**
+   * Return true if the budget permits a hedged call.
+   */
+  boolean tryHedge() {
+    while (true) {
+      long current = tokens.get();
+      if (current < COST) {
+        return false;
+      }
+      if (tokens.compareAndSet(current, current - COST)) {
+        hedged.increment();
+        return true;
+      }
+    }
+  }
+
+  void onHedgeWin() {
+    hedgeWins.increment();
+  }
+
+  /**
+   * Record the latency of a first (not hedged) call.
+   */
+  void record(long nanos) {
+    if (latency != null) {
+      latency.record(nanos);
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package io.avaje.inject.aspects;
+
+import io.avaje.inject.aop.Aspect;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Hedge calls that are slow by invoking the method a second time, using whichever result
+ * arrives first and cancelling the other.
+ * <p>
+ * This reduces tail latency where it is driven by occasional slow calls (e.g. a slow replica).
+ * It must only be used on idempotent methods.
+ * <p>
+ * The delay before the second call is either fixed like {@code "50ms"} or a percentile of the
+ * recent latency of the method like {@code "p95"}. A percentile delay only hedges once enough
+ * calls have been recorded. The additional calls are limited to a percentage of the calls.
+ * <p>
+ * Both calls run on another thread (such that they do not see thread locals of the caller like a
+ * transaction) and the caller returns whichever result arrives first. The slower call is not
+ * interrupted, it completes in the background and its result is discarded.
+ *
+ * <pre>{@code
+ *
+ *   @Hedged(delay = "p95", maxExtraLoad = 5)
+ *   public Quote fetchQuote(String symbol) {
+ *     ...
+ *   }
+ *
+ * }</pre>
+ */
+@Aspect(target = HedgedAspect.class)
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Hedged {
+
+  /**
+   * The name of the hedge. Methods using the same name share the recorded latency and must use
+   * the same settings. Defaults to the fully qualified class name, method name and parameter types.
+   */
+  String name() default "";
+
+  /**
+   * The delay before the second call as a percentile of recent latency like {@code "p95"} or
+   * {@code "p99.9"} or fixed like {@code "50ms"}, {@code "200us"} or {@code "1s"}.
+   */
+  String delay() default "p95";
+
+  /**
+   * The maximum additional calls as a percentage of the calls.
+   */
+  int maxExtraLoad() default 10;
+}
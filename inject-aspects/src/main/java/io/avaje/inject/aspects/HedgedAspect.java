@@ -0,0 +1,194 @@
+package io.avaje.inject.aspects;
+
+import io.avaje.inject.aop.AspectProvider;
+import io.avaje.inject.aop.Invocation;
+import io.avaje.inject.aop.MethodInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aspect for {@link Hedged}.
+ * <p>
+ * Both calls run on the executor (virtual threads when supported) using
+ * {@link Invocation#detach() detached} invocations such that each call has its own result.
+ * The caller waits for whichever result arrives first. The other call is not interrupted
+ * (interrupting blocking I/O can break pooled connections), it runs to completion and its
+ * result is discarded. A failed hedged call leaves the outcome to the first call.
+ * <p>
+ * For methods returning a {@link CompletionStage} the hedged call is made after the delay
+ * composing on both stages.
+ * <p>
+ * This bean owns the executor and scheduler and these are shut down when the scope is closed.
+ */
+public final class HedgedAspect implements AspectProvider<Hedged>, AutoCloseable {
+
+  private final Registry<Hedge> hedges = new Registry<>(Hedged.class);
+  private final ExecutorService executor = TaskExecutors.newExecutor("hedged");
+  private final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, TaskExecutors.daemonThreads("hedged-timer"));
+
+  public HedgedAspect() {
+    scheduler.setRemoveOnCancelPolicy(true);
+  }
+
+  @Override
+  public MethodInterceptor interceptor(Method method, Hedged hedged) {
+    Hedge hedge = hedges.register(hedged.name(), method, Arrays.asList(hedged.delay(), hedged.maxExtraLoad()),
+      n -> new Hedge(n, hedged.delay(), hedged.maxExtraLoad()));
+    if (CompletionStage.class.isAssignableFrom(method.getReturnType())) {
+      return new AsyncInterceptor(hedge);
+    }
+    return new Interceptor(hedge);
+  }
+
+  /**
+   * Return the hedge by name (null when there is no hedge with that name).
+   */
+  public Hedge hedge(String name) {
+    return hedges.get(name);
+  }
+
+  /**
+   * Return all the hedges.
+   */
+  public List<Hedge> hedges() {
+    return hedges.values();
+  }
+
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+    executor.shutdownNow();
+  }
+
+  private final class Interceptor implements MethodInterceptor {
+
+    private final Hedge hedge;
+
+    Interceptor(Hedge hedge) {
+      this.hedge = hedge;
+    }
+
+    @Override
+    public void invoke(Invocation invocation) throws Throwable {
+      hedge.onCall();
+      final long delay = hedge.delayNanos();
+      final long start = System.nanoTime();
+      if (delay < 0) {
+        invocation.proceed();
+        hedge.record(System.nanoTime() - start);
+        return;
+      }
+      final Invocation primary = invocation.detach();
+      final Invocation second = invocation.detach();
+      final CompletableFuture<Object> first = new CompletableFuture<>();
+      executor.execute(() -> {
+        try {
+          first.complete(primary.invoke());
+        } catch (Throwable e) {
+          first.completeExceptionally(e);
+        }
+        hedge.record(System.nanoTime() - start);
+      });
+      ScheduledFuture<?> timer = scheduler.schedule(() -> {
+        if (!first.isDone() && hedge.tryHedge()) {
+          executor.execute(() -> hedge(second, first));
+        }
+      }, delay, TimeUnit.NANOSECONDS);
+      try {
+        invocation.result(first.get());
+      } catch (ExecutionException e) {
+        throw e.getCause();
+      } finally {
+        timer.cancel(false);
+      }
+    }
+
+    private void hedge(Invocation invocation, CompletableFuture<Object> first) {
+      if (first.isDone()) {
+        return;
+      }
+      try {
+        Object result = invocation.invoke();
+        if (first.complete(result)) {
+          hedge.onHedgeWin();
+        }
+      } catch (Throwable e) {
+        // a failed hedged call leaves the outcome to the first call
+      }
+    }
+  }
+
+  private final class AsyncInterceptor implements MethodInterceptor {
+
+    private final Hedge hedge;
+
+    AsyncInterceptor(Hedge hedge) {
+      this.hedge = hedge;
+    }
+
+    @Override
+    public void invoke(Invocation invocation) {
+      hedge.onCall();
+      final long delay = hedge.delayNanos();
+      final long start = System.nanoTime();
+      final CompletionStage<Object> stage = invocation.invokeStage();
+      if (stage == null) {
+        // the method returned null rather than a stage
+        hedge.record(System.nanoTime() - start);
+        invocation.result(null);
+        return;
+      }
+      final CompletableFuture<Object> primary = stage.toCompletableFuture();
+      primary.whenComplete((result, e) -> hedge.record(System.nanoTime() - start));
+      if (delay < 0 || primary.isDone()) {
+        invocation.result(primary);
+        return;
+      }
+      final Invocation second = invocation.detach();
+      final CompletableFuture<Object> first = new CompletableFuture<>();
+      primary.whenComplete((result, e) -> {
+        if (e == null) {
+          first.complete(result);
+        } else {
+          first.completeExceptionally(e);
+        }
+      });
+      ScheduledFuture<?> timer = scheduler.schedule(() -> {
+        if (!first.isDone() && hedge.tryHedge()) {
+          executor.execute(() -> hedge(second, first));
+        }
+      }, delay, TimeUnit.NANOSECONDS);
+      first.whenComplete((result, e) -> {
+        timer.cancel(false);
+        primary.cancel(true);
+      });
+      invocation.result(first);
+    }
+
+    private void hedge(Invocation invocation, CompletableFuture<Object> first) {
+      if (first.isDone()) {
+        return;
+      }
+      CompletionStage<Object> stage = invocation.invokeStage();
+      if (stage == null) {
+        return;
+      }
+      CompletableFuture<Object> second = stage.toCompletableFuture();
+      second.whenComplete((result, e) -> {
+        if (e == null && first.complete(result)) {
+          hedge.onHedgeWin();
+        }
+      });
+      first.whenComplete((result, e) -> second.cancel(true));
+    }
+  }
+}
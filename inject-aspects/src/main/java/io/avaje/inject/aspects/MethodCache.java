@@ -0,0 +1,210 @@
+package io.avaje.inject.aspects;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded cache of method results evicting the least recently used entries.
+ * <p>
+ * The cache is split into segments by key hash, each an access ordered map guarded by its
+ * own lock (held only for the map operation and never while invoking the method). The max
+ * size is split across the segments such that eviction is least recently used per segment.
+ */
+public final class MethodCache {
+
+  private static final int MAX_SEGMENTS = 16;
+  private static final Object NULL = new Object();
+
+  private final String name;
+  private final long ttlNanos;
+  private final Segment[] segments;
+  private final int mask;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  MethodCache(String name, int maxSize, long ttlNanos) {
+    this.name = name;
+    this.ttlNanos = ttlNanos;
+    int count = Math.min(MAX_SEGMENTS, Integer.highestOneBit(Math.max(1, Math.min(maxSize, Runtime.getRuntime().availableProcessors() * 2))));
+    this.segments = new Segment[count];
+    int segmentSize = Math.max(1, (maxSize + count - 1) / count);
+    for (int i = 0; i < count; i++) {
+      segments[i] = new Segment(segmentSize);
+    }
+    this.mask = count - 1;
+  }
+
+  /**
+   * Return the cache name.
+   */
+  public String name() {
+    return name;
+  }
+
+  /**
+   * Return the cached value for the key (null when not cached or expired).
+   * <p>
+   * A cached null value is returned as {@link #isNullValue(Object) NULL}.
+   */
+  Object lookup(Object key) {
+    Object value = segment(key).get(key, System.nanoTime());
+    if (value == null) {
+      misses.increment();
+    } else {
+      hits.increment();
+    }
+    return value;
+  }
+
+  /**
+   * Return true if the value returned by lookup represents a cached null.
+   */
+  static boolean isNullValue(Object value) {
+    return value == NULL;
+  }
+
+  /**
+   * Put the value into the cache.
+   */
+  void put(Object key, Object value) {
+    long expiresAt = ttlNanos > 0 ? System.nanoTime() + ttlNanos : 0;
+    segment(key).put(key, value == null ? NULL : value, expiresAt);
+  }
+
+  /**
+   * Invalidate the entry for the given method argument (for single argument methods).
+   */
+  public void invalidate(Object argument) {
+    Object key = ArgsKey.of(new Object[]{argument});
+    segment(key).remove(key);
+  }
+
+  /**
+   * Invalidate the entry for the given method arguments.
+   */
+  public void invalidate(Object... arguments) {
+    Object key = ArgsKey.of(arguments);
+    segment(key).remove(key);
+  }
+
+  /**
+   * Invalidate all the entries.
+   */
+  public void invalidateAll() {
+    for (Segment segment : segments) {
+      segment.clear();
+    }
+  }
+
+  /**
+   * Return the number of entries (including expired entries not yet evicted).
+   */
+  public long size() {
+    long size = 0;
+    for (Segment segment : segments) {
+      size += segment.size();
+    }
+    return size;
+  }
+
+  /**
+   * Return the statistics of the cache.
+   */
+  public CacheStats stats() {
+    return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), size());
+  }
+
+  private Segment segment(Object key) {
+    int hash = key.hashCode();
+    return segments[(hash ^ (hash >>> 16)) & mask];
+  }
+
+  private static final class Entry {
+
+    final Object value;
+    final long expiresAt;
+
+    Entry(Object value, long expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+  private final class Segment {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final int maxSize;
+    private final LinkedHashMap<Object, Entry> map;
+
+    Segment(int maxSize) {
+      this.maxSize = maxSize;
+      this.map = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    Object get(Object key, long now) {
+      lock.lock();
+      try {
+        Entry entry = map.get(key);
+        if (entry == null) {
+          return null;
+        }
+        if (entry.expiresAt != 0 && now - entry.expiresAt >= 0) {
+          map.remove(key);
+          evictions.increment();
+          return null;
+        }
+        return entry.value;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void put(Object key, Object value, long expiresAt) {
+      lock.lock();
+      try {
+        map.put(key, new Entry(value, expiresAt));
+        if (map.size() > maxSize) {
+          Iterator<Map.Entry<Object, Entry>> it = map.entrySet().iterator();
+          while (map.size() > maxSize && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.increment();
+          }
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void remove(Object key) {
+      lock.lock();
+      try {
+        map.remove(key);
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void clear() {
+      lock.lock();
+      try {
+        map.clear();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    int size() {
+      lock.lock();
+      try {
+        return map.size();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+}
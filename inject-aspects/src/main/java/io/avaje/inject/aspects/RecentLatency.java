@@ -0,0 +1,55 @@
+package io.avaje.inject.aspects;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A percentile of the most recent latencies held in a ring buffer.
+ * <p>
+ * The percentile is recomputed (by the recording thread) every {@code RECOMPUTE} samples such
+ * that reading it is a volatile read.
+ */
+final class RecentLatency {
+
+  private static final int SIZE = 256;
+  private static final int MASK = SIZE - 1;
+  private static final int RECOMPUTE = 32;
+
+  private final double percentile;
+  private final AtomicLongArray samples = new AtomicLongArray(SIZE);
+  private final AtomicLong count = new AtomicLong();
+  private volatile long value = -1;
+
+  RecentLatency(double percentile) {
+    this.percentile = percentile;
+  }
+
+  /**
+   * Record a latency in nanos.
+   */
+  void record(long nanos) {
+    long index = count.getAndIncrement();
+    samples.set((int) (index & MASK), nanos);
+    if ((index + 1) % RECOMPUTE == 0) {
+      value = compute((int) Math.min(index + 1, SIZE));
+    }
+  }
+
+  /**
+   * Return the percentile in nanos or -1 when too few latencies have been recorded.
+   */
+  long value() {
+    return value;
+  }
+
+  private long compute(int size) {
+    long[] sorted = new long[size];
+    for (int i = 0; i < size; i++) {
+      sorted[i] = samples.get(i);
+    }
+    Arrays.sort(sorted);
+    int rank = (int) Math.ceil(percentile / 100 * size) - 1;
+    return sorted[Math.max(0, Math.min(rank, size - 1))];
+  }
+}
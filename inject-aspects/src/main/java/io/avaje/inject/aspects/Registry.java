@@ -0,0 +1,91 @@
+package io.avaje.inject.aspects;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Holds the caches, circuits, queues etc by name for an aspect.
+ * <p>
+ * Methods using the same explicit name share the value and must use the same settings,
+ * otherwise the settings of the later method would be silently ignored.
+ */
+final class Registry<T> {
+
+  private final Map<String, Entry<T>> entries = new ConcurrentHashMap<>();
+  private final String annotation;
+
+  Registry(Class<?> annotation) {
+    this.annotation = "@" + annotation.getSimpleName();
+  }
+
+  /**
+   * Return the value for the method creating it if needed.
+   *
+   * @param name     The explicit name or empty to use the default name of the method
+   * @param method   The annotated method
+   * @param settings The settings of the annotation that are used to create the value
+   * @param create   Create the value given the name
+   */
+  T register(String name, Method method, List<Object> settings, Function<String, T> create) {
+    String key = name.isEmpty() ? defaultName(method) : name;
+    Entry<T> entry = entries.computeIfAbsent(key, n -> new Entry<>(method, settings, create.apply(n)));
+    if (!entry.settings.equals(settings)) {
+      throw new IllegalStateException(annotation + " name " + key + " on " + method
+        + " has settings " + settings + " differing from " + entry.settings + " on " + entry.method);
+    }
+    return entry.value;
+  }
+
+  /**
+   * Return the value by name (null when there is no value with that name).
+   */
+  T get(String name) {
+    Entry<T> entry = entries.get(name);
+    return entry == null ? null : entry.value;
+  }
+
+  /**
+   * Return all the values.
+   */
+  List<T> values() {
+    List<T> values = new ArrayList<>(entries.size());
+    for (Entry<T> entry : entries.values()) {
+      values.add(entry.value);
+    }
+    return values;
+  }
+
+  /**
+   * Return the default name being the fully qualified class name, method name and
+   * parameter types such that overloaded methods do not share.
+   */
+  static String defaultName(Method method) {
+    StringBuilder sb = new StringBuilder(method.getDeclaringClass().getName())
+      .append('.').append(method.getName()).append('(');
+    Class<?>[] types = method.getParameterTypes();
+    for (int i = 0; i < types.length; i++) {
+      if (i > 0) {
+        sb.append(',');
+      }
+      sb.append(types[i].getTypeName());
+    }
+    return sb.append(')').toString();
+  }
+
+  private static final class Entry<T> {
+
+    final Method method;
+    final List<Object> settings;
+    final T value;
+
+    Entry(Method method, List<Object> settings, T value) {
+      this.method = method;
+      this.settings = settings;
+      this.value = value;
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package io.avaje.inject.aspects;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the executors used by the aspects.
+ * <p>
+ * Virtual threads are used when the runtime supports them (Java 21+), otherwise a cached
+ * pool of daemon threads.
+ */
+final class TaskExecutors {
+
+  private static final MethodHandle VIRTUAL_EXECUTOR = virtualExecutor();
+
+  private TaskExecutors() {
+  }
+
+  private static MethodHandle virtualExecutor() {
+    try {
+      return MethodHandles.publicLookup()
+        .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Return true if virtual threads are used.
+   */
+  static boolean isVirtual() {
+    return VIRTUAL_EXECUTOR != null;
+  }
+
+  /**
+   * Return a new executor with a thread per task (virtual threads when supported).
+   */
+  static ExecutorService newExecutor(String name) {
+    if (VIRTUAL_EXECUTOR != null) {
+      try {
+        return (ExecutorService) VIRTUAL_EXECUTOR.invokeExact();
+      } catch (Throwable e) {
+        throw new IllegalStateException("Unable to create virtual thread executor", e);
+      }
+    }
+    return Executors.newCachedThreadPool(daemonThreads(name));
+  }
+
+  /**
+   * Return a factory of daemon threads named with the given prefix.
+   */
+  static ThreadFactory daemonThreads(String name) {
+    AtomicInteger counter = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+}
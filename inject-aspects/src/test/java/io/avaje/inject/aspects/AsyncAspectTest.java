@@ -0,0 +1,151 @@
+package io.avaje.inject.aspects;
+
+import io.avaje.inject.aop.Invocation;
+import io.avaje.inject.aop.MethodInterceptor;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AsyncAspectTest {
+
+  private final AsyncAspect aspect = new AsyncAspect();
+  private final AtomicReference<Thread> ranOn = new AtomicReference<>();
+  private final AtomicInteger completed = new AtomicInteger();
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @Async
+  public void audit() {
+    ranOn.set(Thread.currentThread());
+    completed.incrementAndGet();
+  }
+
+  @Async
+  public CompletableFuture<String> refresh() {
+    return CompletableFuture.completedFuture("refreshed " + (Thread.currentThread() != ranOn.get()));
+  }
+
+  @Async(name = "callerRuns", maxPending = 1, onFull = Async.Overflow.CALLER_RUNS)
+  public void callerRuns() {
+  }
+
+  @Async(name = "reject", maxPending = 1, onFull = Async.Overflow.REJECT)
+  public void reject() {
+  }
+
+  @Async(name = "reject", maxPending = 2, onFull = Async.Overflow.REJECT)
+  public void rejectOther() {
+  }
+
+  public String notSupported() {
+    return "";
+  }
+
+  private void blocking() throws InterruptedException {
+    release.await();
+    ranOn.set(Thread.currentThread());
+  }
+
+  @Test
+  void voidMethod() throws Throwable {
+    Invocation.Build<Void> call = new Invocation.Run(this::audit);
+    call.chain(new MethodInterceptor[]{interceptor("audit")});
+    call.invoke();
+    aspect.close();
+
+    assertThat(completed.get()).isEqualTo(1);
+    assertThat(ranOn.get()).isNotSameAs(Thread.currentThread());
+    assertThat(aspect.queue("io.avaje.inject.aspects.AsyncAspectTest.audit()").pending()).isEqualTo(0);
+  }
+
+  @Test
+  void futureMethod() throws Throwable {
+    ranOn.set(Thread.currentThread());
+    Invocation.Build<CompletableFuture<String>> call = new Invocation.Call<>(this::refresh);
+    call.chain(new MethodInterceptor[]{interceptor("refresh")});
+    call.invoke();
+    assertThat(call.finalResult().get(1, TimeUnit.SECONDS)).isEqualTo("refreshed true");
+  }
+
+  @Test
+  void callerRunsWhenFull() throws Throwable {
+    MethodInterceptor interceptor = interceptor("callerRuns");
+    Invocation.Build<Void> first = new Invocation.Run(this::blocking);
+    first.chain(new MethodInterceptor[]{interceptor});
+    first.invoke();
+
+    Invocation.Build<Void> second = new Invocation.Run(this::audit);
+    second.chain(new MethodInterceptor[]{interceptor});
+    second.invoke();
+    assertThat(ranOn.get()).isSameAs(Thread.currentThread());
+
+    AsyncQueue queue = aspect.queue("callerRuns");
+    assertThat(queue.callerRuns()).isEqualTo(1L);
+    assertThat(queue.pending()).isEqualTo(1);
+    release.countDown();
+    aspect.close();
+    assertThat(queue.pending()).isEqualTo(0);
+  }
+
+  @Test
+  void rejectWhenFull() throws Throwable {
+    MethodInterceptor interceptor = interceptor("reject");
+    Invocation.Build<Void> first = new Invocation.Run(this::blocking);
+    first.chain(new MethodInterceptor[]{interceptor});
+    first.invoke();
+    try {
+      Invocation.Build<Void> second = new Invocation.Run(this::audit);
+      second.chain(new MethodInterceptor[]{interceptor});
+      second.invoke();
+      throw new AssertionError("expected AsyncQueueFullException");
+    } catch (AsyncQueueFullException e) {
+      assertThat(e.getMessage()).contains("reject");
+    }
+    assertThat(aspect.queue("reject").rejected()).isEqualTo(1L);
+    release.countDown();
+    aspect.close();
+  }
+
+  @Test
+  void closeDrainsPendingCalls() throws Throwable {
+    Invocation.Build<Void> call = new Invocation.Run(() -> {
+      Thread.sleep(50);
+      audit();
+    });
+    call.chain(new MethodInterceptor[]{interceptor("audit")});
+    call.invoke();
+    assertThat(completed.get()).isEqualTo(0);
+    aspect.close();
+    assertThat(completed.get()).isEqualTo(1);
+  }
+
+  @Test
+  void unsupportedReturnType() throws Throwable {
+    Method method = AsyncAspectTest.class.getMethod("notSupported");
+    try {
+      aspect.interceptor(method, AsyncAspectTest.class.getMethod("audit").getAnnotation(Async.class));
+      throw new AssertionError("expected IllegalStateException");
+    } catch (IllegalStateException e) {
+      assertThat(e.getMessage()).contains("must return void");
+    }
+  }
+
+  @Test
+  void sharedName_when_settingsDiffer_expect_rejected() throws Throwable {
+    interceptor("reject");
+    IllegalStateException e = assertThrows(IllegalStateException.class, () -> interceptor("rejectOther"));
+    assertThat(e.getMessage()).contains("@Async name reject", "rejectOther");
+  }
+
+  private MethodInterceptor interceptor(String methodName) throws NoSuchMethodException {
+    Method method = AsyncAspectTest.class.getMethod(methodName);
+    return aspect.interceptor(method, method.getAnnotation(Async.class));
+  }
+}
@@ -0,0 +1,139 @@
+package io.avaje.inject.aspects;
+
+import io.avaje.inject.aop.Invocation;
+import io.avaje.inject.aop.MethodInterceptor;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BulkheadAspectTest {
+
+  private final BulkheadAspect aspect = new BulkheadAspect();
+  private final CountDownLatch entered = new CountDownLatch(1);
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @Bulkhead(name = "reject", maxConcurrent = 1)
+  public String reject() throws InterruptedException {
+    return work();
+  }
+
+  @Bulkhead(name = "wait", maxConcurrent = 1, maxWait = 5, maxWaitUnit = TimeUnit.SECONDS)
+  public String waiting() throws InterruptedException {
+    return work();
+  }
+
+  @Bulkhead(name = "async", maxConcurrent = 1)
+  public CompletableFuture<String> async() {
+    return null;
+  }
+
+  @Bulkhead(name = "reject", maxConcurrent = 2)
+  public String rejectOther() {
+    return "done";
+  }
+
+  @Bulkhead
+  public String unnamed() {
+    return "done";
+  }
+
+  private String work() throws InterruptedException {
+    entered.countDown();
+    release.await();
+    return "done";
+  }
+
+  @Test
+  void rejectsWhenFull() throws Throwable {
+    MethodInterceptor interceptor = interceptor("reject");
+    Thread holder = new Thread(() -> call(interceptor));
+    holder.start();
+    entered.await();
+
+    try {
+      interceptor.invoke(new Invocation.Call<>(() -> "second"));
+      throw new AssertionError("expected BulkheadFullException");
+    } catch (BulkheadFullException e) {
+      assertThat(e.getMessage()).contains("reject");
+    }
+    BulkheadStats stats = aspect.bulkhead("reject").stats();
+    assertThat(stats.active()).isEqualTo(1);
+    assertThat(stats.rejected()).isEqualTo(1L);
+
+    release.countDown();
+    holder.join();
+    stats = aspect.bulkhead("reject").stats();
+    assertThat(stats.active()).isEqualTo(0);
+    assertThat(stats.accepted()).isEqualTo(1L);
+    assertThat(stats.peak()).isEqualTo(1);
+  }
+
+  @Test
+  void waitsForPermit() throws Throwable {
+    MethodInterceptor interceptor = interceptor("waiting");
+    Thread holder = new Thread(() -> call(interceptor));
+    holder.start();
+    entered.await();
+
+    Thread releaser = new Thread(() -> {
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      release.countDown();
+    });
+    releaser.start();
+
+    Invocation.Build<String> call = new Invocation.Call<>(() -> "second");
+    interceptor.invoke(call);
+    assertThat(call.finalResult()).isEqualTo("second");
+    holder.join();
+    assertThat(aspect.bulkhead("wait").stats().accepted()).isEqualTo(2L);
+  }
+
+  @Test
+  void asyncNullStage_releasesPermit() throws Throwable {
+    MethodInterceptor interceptor = interceptor("async");
+    for (int i = 0; i < 2; i++) {
+      Invocation.Build<CompletableFuture<String>> call = new Invocation.Call<>(this::async);
+      interceptor.invoke(call);
+      assertThat(call.finalResult()).isNull();
+    }
+    BulkheadStats stats = aspect.bulkhead("async").stats();
+    assertThat(stats.active()).isEqualTo(0);
+    assertThat(stats.accepted()).isEqualTo(2L);
+  }
+
+  @Test
+  void defaultName() throws Throwable {
+    interceptor("unnamed");
+    assertThat(aspect.bulkhead("io.avaje.inject.aspects.BulkheadAspectTest.unnamed()")).isNotNull();
+  }
+
+  @Test
+  void sharedName_when_settingsDiffer_expect_rejected() throws Throwable {
+    interceptor("reject");
+    IllegalStateException e = assertThrows(IllegalStateException.class, () -> interceptor("rejectOther"));
+    assertThat(e.getMessage()).contains("@Bulkhead name reject", "rejectOther");
+  }
+
+  private MethodInterceptor interceptor(String methodName) throws NoSuchMethodException {
+    Method method = BulkheadAspectTest.class.getMethod(methodName);
+    return aspect.interceptor(method, method.getAnnotation(Bulkhead.class));
+  }
+
+  private void call(MethodInterceptor interceptor) {
+    try {
+      interceptor.invoke(new Invocation.Call<>(this::work));
+    } catch (Throwable e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
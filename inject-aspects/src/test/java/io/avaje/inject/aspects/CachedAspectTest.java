@@ -0,0 +1,84 @@
+package io.avaje.inject.aspects;
+
+import io.avaje.inject.aop.Invocation;
+import io.avaje.inject.aop.MethodInterceptor;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CachedAspectTest {
+
+  private final CachedAspect aspect = new CachedAspect();
+  private int calls;
+
+  @Cached(name = "lookup", maxSize = 10)
+  public String lookup(String key) {
+    calls++;
+    return "value-" + key;
+  }
+
+  @Cached(name = "lookup", maxSize = 20)
+  public String lookupOther(String key) {
+    return key;
+  }
+
+  @Cached
+  public String unnamed(String key) {
+    return key;
+  }
+
+  @Cached
+  public String unnamed(String key, int size) {
+    return key;
+  }
+
+  @Test
+  void cachesResult() throws Throwable {
+    Method method = CachedAspectTest.class.getMethod("lookup", String.class);
+    MethodInterceptor interceptor = aspect.interceptor(method, method.getAnnotation(Cached.class));
+
+    assertThat(call(interceptor, method, "a")).isEqualTo("value-a");
+    assertThat(call(interceptor, method, "a")).isEqualTo("value-a");
+    assertThat(call(interceptor, method, "b")).isEqualTo("value-b");
+    assertThat(calls).isEqualTo(2);
+
+    MethodCache cache = aspect.cache("lookup");
+    assertThat(aspect.caches()).hasSize(1);
+    assertThat(cache.stats().hits()).isEqualTo(1L);
+    assertThat(cache.stats().misses()).isEqualTo(2L);
+
+    cache.invalidate("a");
+    assertThat(call(interceptor, method, "a")).isEqualTo("value-a");
+    assertThat(calls).isEqualTo(3);
+  }
+
+  @Test
+  void defaultName() throws Throwable {
+    register("unnamed", String.class);
+    register("unnamed", String.class, int.class);
+    assertThat(aspect.cache("io.avaje.inject.aspects.CachedAspectTest.unnamed(java.lang.String)")).isNotNull();
+    assertThat(aspect.cache("io.avaje.inject.aspects.CachedAspectTest.unnamed(java.lang.String,int)")).isNotNull();
+    assertThat(aspect.caches()).hasSize(2);
+  }
+
+  @Test
+  void sharedName_when_settingsDiffer_expect_rejected() throws Throwable {
+    register("lookup", String.class);
+    IllegalStateException e = assertThrows(IllegalStateException.class, () -> register("lookupOther", String.class));
+    assertThat(e.getMessage()).contains("@Cached name lookup", "lookupOther");
+  }
+
+  private void register(String name, Class<?>... types) throws NoSuchMethodException {
+    Method method = CachedAspectTest.class.getMethod(name, types);
+    aspect.interceptor(method, method.getAnnotation(Cached.class));
+  }
+
+  private String call(MethodInterceptor interceptor, Method method, String key) throws Throwable {
+    Invocation.Build<String> call = new Invocation.Call<>(() -> lookup(key)).with(this, method, key);
+    interceptor.invoke(call);
+    return call.finalResult();
+  }
+}
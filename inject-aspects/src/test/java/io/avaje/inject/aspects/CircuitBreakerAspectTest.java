@@ -0,0 +1,139 @@
+package io.avaje.inject.aspects;
+
+import io.avaje.inject.aop.Invocation;
+import io.avaje.inject.aop.MethodInterceptor;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CircuitBreakerAspectTest {
+
+  private final CircuitBreakerAspect aspect = new CircuitBreakerAspect();
+  private boolean failing;
+  private int calls;
+
+  @CircuitBreaker(name = "rates", failureRate = 50, windowSize = 4, minimumCalls = 4, openDuration = 50, openDurationUnit = TimeUnit.MILLISECONDS, halfOpenCalls = 2)
+  public String rates() {
+    calls++;
+    if (failing) {
+      throw new IllegalStateException("down");
+    }
+    return "rates";
+  }
+
+  @CircuitBreaker(name = "fallback", windowSize = 2, minimumCalls = 2, fallback = "cachedRates")
+  public String ratesWithFallback() {
+    return rates();
+  }
+
+  public String cachedRates(Throwable e) {
+    return "cached " + e.getClass().getSimpleName();
+  }
+
+  @CircuitBreaker(name = "rates", windowSize = 10)
+  public String ratesOther() {
+    return "rates";
+  }
+
+  @CircuitBreaker
+  public String unnamed() {
+    return "rates";
+  }
+
+  @Test
+  void opensAfterFailureRateThenCloses() throws Throwable {
+    MethodInterceptor interceptor = interceptor("rates");
+    Circuit circuit = aspect.circuit("rates");
+
+    assertThat(invoke(interceptor)).isEqualTo("rates");
+    assertThat(invoke(interceptor)).isEqualTo("rates");
+    failing = true;
+    invokeFailing(interceptor, IllegalStateException.class);
+    assertThat(circuit.state()).isEqualTo(Circuit.State.CLOSED);
+    invokeFailing(interceptor, IllegalStateException.class);
+    assertThat(circuit.state()).isEqualTo(Circuit.State.OPEN);
+
+    // short-circuited, the method is not called
+    int before = calls;
+    invokeFailing(interceptor, CircuitOpenException.class);
+    invokeFailing(interceptor, CircuitOpenException.class);
+    assertThat(calls).isEqualTo(before);
+    assertThat(circuit.notPermittedCount()).isEqualTo(2L);
+
+    Thread.sleep(60);
+    failing = false;
+    assertThat(invoke(interceptor)).isEqualTo("rates");
+    assertThat(circuit.state()).isEqualTo(Circuit.State.HALF_OPEN);
+    assertThat(invoke(interceptor)).isEqualTo("rates");
+    assertThat(circuit.state()).isEqualTo(Circuit.State.CLOSED);
+    assertThat(circuit.failureRate()).isEqualTo(0);
+  }
+
+  @Test
+  void halfOpenFailureReopens() throws Throwable {
+    MethodInterceptor interceptor = interceptor("rates");
+    Circuit circuit = aspect.circuit("rates");
+    failing = true;
+    for (int i = 0; i < 4; i++) {
+      invokeFailing(interceptor, IllegalStateException.class);
+    }
+    assertThat(circuit.state()).isEqualTo(Circuit.State.OPEN);
+
+    Thread.sleep(60);
+    invokeFailing(interceptor, IllegalStateException.class);
+    assertThat(circuit.state()).isEqualTo(Circuit.State.OPEN);
+    invokeFailing(interceptor, CircuitOpenException.class);
+
+    circuit.reset();
+    failing = false;
+    assertThat(invoke(interceptor)).isEqualTo("rates");
+  }
+
+  @Test
+  void fallback() throws Throwable {
+    MethodInterceptor interceptor = interceptor("ratesWithFallback");
+    failing = true;
+    assertThat(invoke(interceptor)).isEqualTo("cached IllegalStateException");
+    assertThat(invoke(interceptor)).isEqualTo("cached IllegalStateException");
+    assertThat(aspect.circuit("fallback").state()).isEqualTo(Circuit.State.OPEN);
+    assertThat(invoke(interceptor)).isEqualTo("cached CircuitOpenException");
+  }
+
+  @Test
+  void defaultName() throws Throwable {
+    interceptor("unnamed");
+    assertThat(aspect.circuit("io.avaje.inject.aspects.CircuitBreakerAspectTest.unnamed()")).isNotNull();
+  }
+
+  @Test
+  void sharedName_when_settingsDiffer_expect_rejected() throws Throwable {
+    interceptor("rates");
+    IllegalStateException e = assertThrows(IllegalStateException.class, () -> interceptor("ratesOther"));
+    assertThat(e.getMessage()).contains("@CircuitBreaker name rates", "ratesOther");
+  }
+
+  private String invoke(MethodInterceptor interceptor) throws Throwable {
+    Method method = CircuitBreakerAspectTest.class.getMethod("rates");
+    Invocation.Build<String> call = new Invocation.Call<>(this::rates).with(this, method);
+    interceptor.invoke(call);
+    return call.finalResult();
+  }
+
+  private void invokeFailing(MethodInterceptor interceptor, Class<?> expected) throws Throwable {
+    try {
+      invoke(interceptor);
+      throw new AssertionError("expected " + expected.getSimpleName());
+    } catch (RuntimeException e) {
+      assertThat(e).isInstanceOf(expected);
+    }
+  }
+
+  private MethodInterceptor interceptor(String methodName) throws NoSuchMethodException {
+    Method method = CircuitBreakerAspectTest.class.getMethod(methodName);
+    return aspect.interceptor(method, method.getAnnotation(CircuitBreaker.class));
+  }
+}
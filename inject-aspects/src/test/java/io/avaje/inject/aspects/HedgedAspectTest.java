@@ -0,0 +1,228 @@
+package io.avaje.inject.aspects;
+
+import io.avaje.inject.aop.Invocation;
+import io.avaje.inject.aop.MethodInterceptor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HedgedAspectTest {
+
+  private final HedgedAspect aspect = new HedgedAspect();
+  private final AtomicInteger calls = new AtomicInteger();
+  private final ThreadLocal<String> context = new ThreadLocal<>();
+  private final List<String> contexts = new CopyOnWriteArrayList<>();
+
+  @Hedged(name = "fixed", delay = "20ms", maxExtraLoad = 100)
+  public String fixed() throws InterruptedException {
+    return quote();
+  }
+
+  @Hedged(name = "p90", delay = "p90", maxExtraLoad = 100)
+  public String percentile() throws InterruptedException {
+    return quote();
+  }
+
+  @Hedged(name = "async", delay = "20ms", maxExtraLoad = 100)
+  public CompletionStage<String> async() {
+    return null;
+  }
+
+  @Hedged(name = "fixed", delay = "50ms", maxExtraLoad = 100)
+  public String fixedOther() throws InterruptedException {
+    return quote();
+  }
+
+  @Hedged
+  public String unnamed() throws InterruptedException {
+    return quote();
+  }
+
+  /**
+   * The first call is slow and the second call fast.
+   */
+  private String quote() throws InterruptedException {
+    contexts.add(String.valueOf(context.get()));
+    int call = calls.incrementAndGet();
+    if (call == 1) {
+      Thread.sleep(2_000);
+      return "slow";
+    }
+    return "fast";
+  }
+
+  @AfterEach
+  void close() {
+    aspect.close();
+  }
+
+  @Test
+  void hedgedCallReturnsFirst() throws Throwable {
+    MethodInterceptor interceptor = interceptor("fixed");
+    long start = System.nanoTime();
+    assertThat(invoke(interceptor)).isEqualTo("fast");
+    assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(1));
+
+    Hedge hedge = aspect.hedge("fixed");
+    assertThat(hedge.calls()).isEqualTo(1L);
+    assertThat(hedge.hedged()).isEqualTo(1L);
+    assertThat(hedgeWins(hedge)).isEqualTo(1L);
+    assertThat(Thread.currentThread().isInterrupted()).isFalse();
+
+    // fast first call, no hedge
+    assertThat(invoke(interceptor)).isEqualTo("fast");
+    assertThat(hedge.hedged()).isEqualTo(1L);
+  }
+
+  @Test
+  void callsOffCaller() throws Throwable {
+    calls.set(1);
+    MethodInterceptor interceptor = interceptor("fixed");
+    context.set("caller");
+    try {
+      assertThat(invoke(interceptor)).isEqualTo("fast");
+      assertThat(invoke(interceptor)).isEqualTo("fast");
+    } finally {
+      context.remove();
+    }
+    assertThat(contexts).containsExactly("null", "null");
+    assertThat(aspect.hedge("fixed").hedged()).isEqualTo(0L);
+  }
+
+  @Test
+  void slowCallIgnoringInterrupt() throws Throwable {
+    MethodInterceptor interceptor = interceptor("fixed");
+    Invocation.Build<String> call = new Invocation.Call<>(() -> {
+      if (calls.incrementAndGet() == 1) {
+        long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (System.nanoTime() < until) {
+          try {
+            Thread.sleep(50);
+          } catch (InterruptedException e) {
+            // ignore the interrupt and keep going
+          }
+        }
+        return "slow";
+      }
+      return "fast";
+    });
+    call.chain(new MethodInterceptor[]{interceptor});
+
+    long start = System.nanoTime();
+    call.invoke();
+    assertThat(call.finalResult()).isEqualTo("fast");
+    assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(1));
+    assertThat(Thread.currentThread().isInterrupted()).isFalse();
+  }
+
+  @Test
+  void hedgedCallOwnResult() throws Throwable {
+    MethodInterceptor interceptor = interceptor("fixed");
+    MethodInterceptor inner = invocation -> invocation.result("inner-" + invocation.invoke());
+    Invocation.Build<String> call = new Invocation.Call<>(this::quote);
+    call.chain(new MethodInterceptor[]{interceptor, inner});
+    call.invoke();
+    assertThat(call.finalResult()).isEqualTo("inner-fast");
+    assertThat(contexts).containsExactly("null", "null");
+  }
+
+  @Test
+  void extraLoadLimited() {
+    Hedge hedge = new Hedge("limited", "20ms", 10);
+    for (int i = 0; i < 9; i++) {
+      hedge.onCall();
+      assertThat(hedge.tryHedge()).isFalse();
+    }
+    hedge.onCall();
+    assertThat(hedge.tryHedge()).isTrue();
+    assertThat(hedge.tryHedge()).isFalse();
+    assertThat(hedge.hedged()).isEqualTo(1L);
+  }
+
+  @Test
+  void percentileDelay() throws Throwable {
+    calls.set(1);
+    MethodInterceptor interceptor = interceptor("percentile");
+    Hedge hedge = aspect.hedge("p90");
+    assertThat(hedge.delay(TimeUnit.NANOSECONDS)).isEqualTo(-1L);
+    for (int i = 0; i < 32; i++) {
+      assertThat(invoke(interceptor)).isEqualTo("fast");
+    }
+    assertThat(hedge.hedged()).isEqualTo(0L);
+    assertThat(hedge.delay(TimeUnit.NANOSECONDS)).isGreaterThan(0L);
+  }
+
+  @Test
+  void fixedDelays() {
+    assertThat(new Hedge("a", "50ms", 10).delay(TimeUnit.MILLISECONDS)).isEqualTo(50L);
+    assertThat(new Hedge("a", "200us", 10).delay(TimeUnit.MICROSECONDS)).isEqualTo(200L);
+    assertThat(new Hedge("a", "2s", 10).delay(TimeUnit.SECONDS)).isEqualTo(2L);
+    assertThat(new Hedge("a", "p99.9", 10).delay(TimeUnit.SECONDS)).isEqualTo(-1L);
+  }
+
+  @Test
+  void asyncHedgedCallCompletesFirst() throws Throwable {
+    MethodInterceptor interceptor = interceptor("async");
+    Executor executor = runnable -> new Thread(runnable).start();
+    Invocation.Build<CompletionStage<String>> call = new Invocation.Call<>(() -> CompletableFuture.supplyAsync(() -> {
+      try {
+        return quote();
+      } catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+    }, executor));
+    call.chain(new MethodInterceptor[]{interceptor});
+    call.invoke();
+
+    long start = System.nanoTime();
+    assertThat(call.finalResult().toCompletableFuture().get(1, TimeUnit.SECONDS)).isEqualTo("fast");
+    assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(1));
+    assertThat(hedgeWins(aspect.hedge("async"))).isEqualTo(1L);
+  }
+
+  @Test
+  void defaultName() throws Throwable {
+    interceptor("unnamed");
+    assertThat(aspect.hedge("io.avaje.inject.aspects.HedgedAspectTest.unnamed()")).isNotNull();
+  }
+
+  @Test
+  void sharedName_when_settingsDiffer_expect_rejected() throws Throwable {
+    interceptor("fixed");
+    IllegalStateException e = assertThrows(IllegalStateException.class, () -> interceptor("fixedOther"));
+    assertThat(e.getMessage()).contains("@Hedged name fixed", "fixedOther");
+  }
+
+  /**
+   * The win is counted after the result is completed so allow for the caller getting there first.
+   */
+  private long hedgeWins(Hedge hedge) throws InterruptedException {
+    for (int i = 0; i < 100 && hedge.hedgeWins() == 0; i++) {
+      Thread.sleep(5);
+    }
+    return hedge.hedgeWins();
+  }
+
+  private String invoke(MethodInterceptor interceptor) throws Throwable {
+    Invocation.Build<String> call = new Invocation.Call<>(this::quote);
+    call.chain(new MethodInterceptor[]{interceptor});
+    call.invoke();
+    return call.finalResult();
+  }
+
+  private MethodInterceptor interceptor(String methodName) throws NoSuchMethodException {
+    Method method = HedgedAspectTest.class.getMethod(methodName);
+    return aspect.interceptor(method, method.getAnnotation(Hedged.class));
+  }
+}
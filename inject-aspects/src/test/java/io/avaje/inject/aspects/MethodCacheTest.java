@@ -0,0 +1,77 @@
+package io.avaje.inject.aspects;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MethodCacheTest {
+
+  @Test
+  void lookup_put_stats() {
+    MethodCache cache = new MethodCache("test", 100, 0);
+    assertThat(cache.lookup("a")).isNull();
+    cache.put("a", "A");
+    cache.put("b", null);
+
+    assertThat(cache.lookup("a")).isEqualTo("A");
+    assertThat(MethodCache.isNullValue(cache.lookup("b"))).isTrue();
+
+    CacheStats stats = cache.stats();
+    assertThat(stats.hits()).isEqualTo(2L);
+    assertThat(stats.misses()).isEqualTo(1L);
+    assertThat(stats.size()).isEqualTo(2L);
+  }
+
+  @Test
+  void evictsLeastRecentlyUsed() {
+    MethodCache cache = new MethodCache("test", 1, 0);
+    cache.put("a", "A");
+    cache.put("b", "B");
+
+    assertThat(cache.lookup("a")).isNull();
+    assertThat(cache.lookup("b")).isEqualTo("B");
+    assertThat(cache.stats().evictions()).isEqualTo(1L);
+  }
+
+  @Test
+  void bounded() {
+    MethodCache cache = new MethodCache("test", 64, 0);
+    for (int i = 0; i < 1000; i++) {
+      cache.put(i, i);
+    }
+    assertThat(cache.size() <= 64).isTrue();
+    assertThat(cache.stats().evictions() >= 1000 - 64).isTrue();
+  }
+
+  @Test
+  void expires() {
+    MethodCache cache = new MethodCache("test", 10, 1);
+    cache.put("a", "A");
+    assertThat(cache.lookup("a")).isNull();
+    assertThat(cache.stats().evictions()).isEqualTo(1L);
+  }
+
+  @Test
+  void invalidate() {
+    MethodCache cache = new MethodCache("test", 10, 0);
+    cache.put("a", "A");
+    cache.put(ArgsKey.of(new Object[]{"x", 1}), "X1");
+    cache.put("c", "C");
+
+    cache.invalidate("a");
+    cache.invalidate("x", 1);
+    assertThat(cache.size()).isEqualTo(1L);
+
+    cache.invalidateAll();
+    assertThat(cache.size()).isEqualTo(0L);
+  }
+
+  @Test
+  void argsKey() {
+    Object single = "a";
+    assertThat(ArgsKey.of(new Object[]{single})).isSameAs(single);
+    assertThat(ArgsKey.of(new Object[0])).isSameAs(ArgsKey.EMPTY);
+    assertThat(ArgsKey.of(new Object[]{"a", 1})).isEqualTo(ArgsKey.of(new Object[]{"a", 1}));
+    assertThat(ArgsKey.of(new Object[]{new int[]{1}})).isEqualTo(ArgsKey.of(new Object[]{new int[]{1}}));
+  }
+}
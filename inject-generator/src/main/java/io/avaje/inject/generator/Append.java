@@ -45,9 +45,35 @@ class Append {
 
   /**
    * Append content with formatted arguments.
+   * <p>
+   * Formats that only use <code>%s</code> (and <code>%%</code>) are appended directly
+   * without going through String.format().
    */
   Append append(String format, Object... args) {
-    return append(String.format(format, args));
+    try {
+      int start = 0;
+      int argIndex = 0;
+      int pos;
+      while ((pos = format.indexOf('%', start)) != -1) {
+        char next = pos + 1 < format.length() ? format.charAt(pos + 1) : 0;
+        if (next == 's' && argIndex < args.length) {
+          writer.append(format, start, pos).append(String.valueOf(args[argIndex++]));
+        } else if (next == '%') {
+          writer.append(format, start, pos + 1);
+        } else {
+          // other format specifiers, use String.format for the remaining content
+          Object[] remaining = new Object[args.length - argIndex];
+          System.arraycopy(args, argIndex, remaining, 0, remaining.length);
+          writer.append(String.format(format.substring(start), remaining));
+          return this;
+        }
+        start = pos + 2;
+      }
+      writer.append(format, start, format.length());
+      return this;
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
   }
 
   void resetNextName() {
@@ -1,6 +1,7 @@
 package io.avaje.inject.generator;
 
 import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeParameterElement;
 import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.TypeMirror;
 import java.util.*;
@@ -14,8 +15,10 @@ class AspectMethod {
   private final String simpleName;
   private final List<? extends TypeMirror> thrownTypes;
   private final String localName;
+  private final List<String> erasedParamTypes;
+  private final List<String> paramTypes;
 
-  AspectMethod(int nameIndex, List<AspectPair> aspectPairs, ExecutableElement method) {
+  AspectMethod(ProcessingContext context, int nameIndex, List<AspectPair> aspectPairs, ExecutableElement method) {
     this.aspectPairs = sort(aspectPairs);
     this.method = method;
     this.simpleName = method.getSimpleName().toString();
@@ -23,6 +26,50 @@ class AspectMethod {
     this.rawReturn = method.getReturnType().toString();
     this.thrownTypes = method.getThrownTypes();
     this.localName = simpleName + nameIndex;
+    this.erasedParamTypes = initErasedParamTypes(context, method.getParameters());
+    this.paramTypes = initParamTypes(method.getParameters());
+  }
+
+  /**
+   * The declared parameter types (fully qualified like the return type) such that generic
+   * parameters including method type variables and wildcards override the proxied method.
+   */
+  private static List<String> initParamTypes(List<? extends VariableElement> parameters) {
+    List<String> types = new ArrayList<>(parameters.size());
+    for (VariableElement var : parameters) {
+      types.add(var.asType().toString());
+    }
+    return types;
+  }
+
+  private void writeParam(Append writer, int index) {
+    writer.append("%s %s", paramTypes.get(index), params.get(index).simpleName());
+  }
+
+  /**
+   * The erased parameter types for generic parameter types and type variables (null otherwise).
+   */
+  private static List<String> initErasedParamTypes(ProcessingContext context, List<? extends VariableElement> parameters) {
+    List<String> erased = new ArrayList<>(parameters.size());
+    for (VariableElement var : parameters) {
+      TypeMirror type = var.asType();
+      String erasedType = context.erasure(type).toString();
+      erased.add(erasedType.equals(type.toString()) ? null : erasedType);
+    }
+    return erased;
+  }
+
+  private void writeParamClasses(Append writer) {
+    for (int i = 0, size = params.size(); i < size; i++) {
+      writer.append(", ");
+      String erasedType = erasedParamTypes.get(i);
+      if (erasedType != null) {
+        writer.append(erasedType);
+      } else {
+        params.get(i).writeMethodParamType(writer);
+      }
+      writer.append(".class");
+    }
   }
 
   private List<AspectPair> sort(List<AspectPair> aspectPairs) {
@@ -57,28 +104,91 @@ class AspectMethod {
     }
   }
 
-  void writeMethod(Append writer) {
+  /**
+   * Return true if the invocation is a generated Invocation.Target class (holding the arguments
+   * unboxed). Generic methods use Invocation.Call with a lambda (the class would need the method
+   * type parameters).
+   */
+  private boolean targetClass() {
+    return method.getTypeParameters().isEmpty();
+  }
+
+  private boolean isPrimitiveReturn() {
+    return !isVoid() && method.getReturnType().getKind().isPrimitive();
+  }
+
+  void writeMethod(Append writer, boolean lazy) {
     writer.eol().append("  @Override").eol();
-    writer.append("  public %s %s(", rawReturn, simpleName);
+    writer.append("  public ");
+    writeTypeParameters(writer);
+    writer.append("%s %s(", rawReturn, simpleName);
     for (int i = 0, size = params.size(); i < size; i++) {
       if (i > 0) {
         writer.append(", ");
       }
-      params.get(i).writeMethodParam(writer);
+      writeParam(writer, i);
     }
     writer.append(")");
     writeThrowsClause(writer);
 
     writer.append(" {").eol();
-
-    String type = isVoid() ? "Run" : "Call<>";
-    writer.append("    var call = new Invocation.%s(() ->", type);
-    invokeSuper(writer, simpleName);
-    writer.append(")").eol();
-    writeArgs(writer);
+    String ref = "";
+    if (lazy) {
+      writer.append("    Aspects$%s $aspects = %s$aspects();", localName, localName).eol();
+      ref = "$aspects.";
+    }
+    if (targetClass()) {
+      writer.append("    var call = new Invoke$%s(%s%s, %s%s$chain", localName, ref, localName, ref, localName);
+      if (!params.isEmpty()) {
+        writer.append(", ");
+        writeParamNames(writer);
+      }
+      writer.append(");").eol();
+      writer.append("    try {").eol();
+      writer.append("      call.proceed();").eol();
+      if (isPrimitiveReturn()) {
+        writer.append("      return call.$result;").eol();
+      } else if (!isVoid()) {
+        writer.append("      return call.finalResult();").eol();
+      }
+    } else {
+      String type = isVoid() ? "Run" : "Call<>";
+      writer.append("    var call = new Invocation.%s(() ->", type);
+      invokeSuper(writer, simpleName);
+      writer.append(")").eol();
+      writeArgs(writer, ref);
+    }
+    writeThrowsCatch(writer);
+    writer.append("    } catch (Throwable e) {").eol();
+    writer.append("      throw new InvocationException(e);").eol();
+    writer.append("    }").eol();
     writer.append("  }").eol();
   }
 
+  private void writeTypeParameters(Append writer) {
+    List<? extends TypeParameterElement> typeParameters = method.getTypeParameters();
+    if (typeParameters.isEmpty()) {
+      return;
+    }
+    writer.append("<");
+    for (int i = 0; i < typeParameters.size(); i++) {
+      if (i > 0) {
+        writer.append(", ");
+      }
+      TypeParameterElement typeParameter = typeParameters.get(i);
+      writer.append(typeParameter.getSimpleName().toString());
+      List<? extends TypeMirror> bounds = typeParameter.getBounds();
+      for (int j = 0; j < bounds.size(); j++) {
+        String bound = bounds.get(j).toString();
+        if (j == 0 && bound.equals("java.lang.Object")) {
+          continue;
+        }
+        writer.append(j == 0 ? " extends " : " & ").append(bound);
+      }
+    }
+    writer.append("> ");
+  }
+
   private void writeThrowsClause(Append writer) {
     if (!thrownTypes.isEmpty()) {
       writer.append(" throws ");
@@ -91,40 +201,177 @@ class AspectMethod {
     }
   }
 
+  /**
+   * Write the Invocation.Target class that holds the arguments and invokes the super method.
+   * <p>
+   * Arguments are only boxed into an array when requested (a single argument can be read
+   * without the array) and a primitive result is held in a primitive field.
+   */
+  void writeTargetClass(Append writer, String proxyShortName) {
+    if (!targetClass()) {
+      return;
+    }
+    String className = "Invoke$" + localName;
+    String resultType = isVoid() ? "Void" : Util.boxedType(rawReturn);
+    writer.eol();
+    writer.append("  private final class %s extends Invocation.Target<%s> {", className, resultType).eol();
+    for (int i = 0, size = params.size(); i < size; i++) {
+      writer.append("    private final ");
+      writeParam(writer, i);
+      writer.append(";").eol();
+    }
+    if (isPrimitiveReturn()) {
+      writer.append("    private %s $result;", rawReturn).eol();
+    }
+    writer.append("    %s(Method $method, MethodInterceptor[] $chain", className);
+    for (int i = 0, size = params.size(); i < size; i++) {
+      writer.append(", ");
+      writeParam(writer, i);
+    }
+    writer.append(") {").eol();
+    writer.append("      super(%s.this, $method, $chain);", proxyShortName).eol();
+    for (MethodReader.MethodParam param : params) {
+      writer.append("      this.%s = %s;", param.simpleName(), param.simpleName()).eol();
+    }
+    writer.append("    }").eol();
+    writer.append("    @Override").eol();
+    writer.append("    protected void invokeTarget() throws Throwable {").eol();
+    if (isVoid()) {
+      writer.append("     ");
+    } else if (isPrimitiveReturn()) {
+      writer.append("      $result =");
+    } else {
+      writer.append("      result =");
+    }
+    writer.append(" %s.super.%s(", proxyShortName, simpleName);
+    writeParamNames(writer);
+    writer.append(");").eol();
+    writer.append("    }").eol();
+    writer.append("    @Override").eol();
+    writer.append("    protected %s copy() {", className).eol();
+    writer.append("      return new %s(method, null", className);
+    if (!params.isEmpty()) {
+      writer.append(", ");
+      writeParamNames(writer);
+    }
+    writer.append(");").eol();
+    writer.append("    }").eol();
+    writer.append("    @Override").eol();
+    writer.append("    protected Object[] boxArguments() {").eol();
+    writer.append("      return new Object[]{");
+    writeParamNames(writer);
+    writer.append("};").eol();
+    writer.append("    }").eol();
+    if (!params.isEmpty()) {
+      writer.append("    @Override").eol();
+      writer.append("    protected Object boxArgument(int index) {").eol();
+      writer.append("      switch (index) {").eol();
+      for (int i = 0, size = params.size(); i < size; i++) {
+        writer.append("        case %s: return %s;", i, params.get(i).simpleName()).eol();
+      }
+      writer.append("        default: return super.boxArgument(index);").eol();
+      writer.append("      }").eol();
+      writer.append("    }").eol();
+    }
+    if (isPrimitiveReturn()) {
+      writer.append("    @Override").eol();
+      writer.append("    public Object invoke() throws Throwable {").eol();
+      writer.append("      proceed();").eol();
+      writer.append("      return $result;").eol();
+      writer.append("    }").eol();
+      writer.append("    @Override").eol();
+      writer.append("    public void result(Object result) {").eol();
+      writer.append("      $result = (%s) result;", resultType).eol();
+      writer.append("    }").eol();
+      writer.append("    @Override").eol();
+      writer.append("    public %s finalResult() {", resultType).eol();
+      writer.append("      return $result;").eol();
+      writer.append("    }").eol();
+    }
+    writer.append("  }").eol();
+  }
+
   private void invokeSuper(Append writer, String simpleName) {
     writer.append(" super.%s(", simpleName);
+    writeParamNames(writer);
+    writer.append(")");
+  }
+
+  private void writeParamNames(Append writer) {
     for (int i = 0, size = params.size(); i < size; i++) {
       if (i > 0) {
         writer.append(", ");
       }
       writer.append(params.get(i).simpleName());
     }
-    writer.append(")");
   }
 
-  void writeSetupFields(Append writer) {
-    writer.append("  private Method %s;", localName).eol();
-    for (AspectPair aspectPair : aspectPairs) {
-      String sn = aspectPair.annotationShortName();
-      writer.append("  private MethodInterceptor %s%s;", localName, sn).eol();
+  void writeSetupFields(Append writer, boolean lazy) {
+    if (lazy) {
+      writer.append("  private volatile Aspects$%s %s$aspects;", localName, localName).eol();
+      return;
     }
+    writer.append("  private Method %s;", localName).eol();
+    writer.append("  private MethodInterceptor[] %s$chain;", localName).eol();
   }
 
   void writeSetupForMethods(Append writer, String shortName) {
     writer.append("      %s = %s.class.getDeclaredMethod(\"%s\"", localName, shortName, simpleName);
-    for (MethodReader.MethodParam param : params) {
-      writer.append(", ");
-      param.writeMethodParamType(writer);
-      writer.append(".class");
-    }
+    writeParamClasses(writer);
     writer.append(");").eol();
-    for (AspectPair aspect : aspectPairs) {
-      String target = aspect.target();
-      String name = aspectTargetShortName(target);
+    writeChain(writer, "      ");
+    writer.eol();
+  }
+
+  /**
+   * Write the interceptor chain with the outer-most aspect (based on ordering attribute) first.
+   */
+  private void writeChain(Append writer, String indent) {
+    writer.append(indent).append("%s$chain = new MethodInterceptor[]{", localName);
+    for (int i = aspectPairs.size() - 1; i >= 0; i--) {
+      AspectPair aspect = aspectPairs.get(i);
+      String name = aspectTargetShortName(aspect.target());
       String sn = aspect.annotationShortName();
-      writer.append("      %s%s = %s.interceptor(%s, %s.getAnnotation(%s.class));", localName, sn, name, localName, localName, sn).eol();
+      writer.eol().append(indent).append("  %s.interceptor(%s, %s.getAnnotation(%s.class))", name, localName, localName, sn);
+      if (i > 0) {
+        writer.append(",");
+      }
     }
+    writer.append("};").eol();
+  }
+
+  /**
+   * Write the holder of the Method and interceptors that is created on first invocation (lazy aspects).
+   * <p>
+   * The holder is immutable and published via a volatile field without locking. Concurrent first
+   * invocations can each create a holder (and interceptors) with one of them being retained.
+   */
+  void writeLazySetup(Append writer, String shortName) {
+    String holder = "Aspects$" + localName;
     writer.eol();
+    writer.append("  private %s %s$aspects() {", holder, localName).eol();
+    writer.append("    %s aspects = %s$aspects;", holder, localName).eol();
+    writer.append("    if (aspects == null) {").eol();
+    writer.append("      aspects = new %s();", holder).eol();
+    writer.append("      %s$aspects = aspects;", localName).eol();
+    writer.append("    }").eol();
+    writer.append("    return aspects;").eol();
+    writer.append("  }").eol();
+    writer.eol();
+    writer.append("  private final class %s {", holder).eol();
+    writer.append("    private final Method %s;", localName).eol();
+    writer.append("    private final MethodInterceptor[] %s$chain;", localName).eol();
+    writer.append("    %s() {", holder).eol();
+    writer.append("      try {").eol();
+    writer.append("        %s = %s.class.getDeclaredMethod(\"%s\"", localName, shortName, simpleName);
+    writeParamClasses(writer);
+    writer.append(");").eol();
+    writer.append("      } catch (NoSuchMethodException e) {").eol();
+    writer.append("        throw new IllegalStateException(e);").eol();
+    writer.append("      }").eol();
+    writeChain(writer, "      ");
+    writer.append("    }").eol();
+    writer.append("  }").eol();
   }
 
   static String aspectTargetShortName(String target) {
@@ -132,8 +379,8 @@ class AspectMethod {
     return Util.initLower(type);
   }
 
-  void writeArgs(Append writer) {
-    writer.append("      .with(this, %s", localName);
+  private void writeArgs(Append writer, String ref) {
+    writer.append("      .with(this, %s%s", ref, localName);
     if (!params.isEmpty()) {
       writer.append(", ");
       for (int i = 0, size = params.size(); i < size; i++) {
@@ -143,42 +390,13 @@ class AspectMethod {
         writer.append(params.get(i).simpleName());
       }
     }
-    writer.append(")");
-    int aspectCount = aspectPairs.size();
-    if (aspectCount < 2) {
-      writer.append(";").eol();
-    } else {
-      // nesting all but last aspect
-      writer.eol();
-      writer.append("      // wrapping inner nested aspects based on ordering attribute").eol();
-      int nesting = aspectCount - 1;
-      for (int i = 0; i < nesting; i++) {
-        AspectPair aspect = aspectPairs.get(i);
-        String sn = aspect.annotationShortName();
-        writer.append("      .wrap(%s%s)", localName, sn);
-        if (i < nesting -1) {
-          writer.eol();
-        } else {
-          writer.append(";").eol();
-        }
-      }
-    }
+    writer.append(")").eol();
+    writer.append("      .chain(%s%s$chain);", ref, localName).eol();
     writer.append("    try {").eol();
-    if (aspectCount > 1) {
-      writer.append("      // outer-most aspect").eol();
-    }
-    AspectPair outerAspect = aspectPairs.get(aspectCount - 1);
-    String sn = outerAspect.annotationShortName();
-    writer.append("      %s%s.invoke(call);", localName, sn).eol();
-
+    writer.append("      call.invoke();").eol();
     if (!isVoid()) {
       writer.append("      return call.finalResult();").eol();
     }
-
-    writeThrowsCatch(writer);
-    writer.append("    } catch (Throwable e) {").eol();
-    writer.append("      throw new InvocationException(e);").eol();
-    writer.append("    }").eol();
   }
 
   private void writeThrowsCatch(Append writer) {
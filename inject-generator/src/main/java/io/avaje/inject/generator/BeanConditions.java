@@ -0,0 +1,186 @@
+package io.avaje.inject.generator;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The conditions of a bean from <code>@RequiresProperty</code>, <code>@RequiresBean</code>
+ * and <code>@Profile</code>.
+ * <p>
+ * The conditions are held in <code>@DependencyMeta(conditions)</code> encoded as strings
+ * like <code>property:email.provider=smtp</code>, <code>profile:dev,test</code> and
+ * <code>bean:org.example.Foo</code>. These are turned into the guard expression of the
+ * module build method.
+ */
+class BeanConditions {
+
+  private static final String REQUIRES_PROPERTY = "io.avaje.inject.RequiresProperty";
+  private static final String REQUIRES_BEAN = "io.avaje.inject.RequiresBean";
+  private static final String PROFILE = "io.avaje.inject.Profile";
+
+  private static final String PROPERTY_PREFIX = "property:";
+  private static final String PROFILE_PREFIX = "profile:";
+  private static final String BEAN_PREFIX = "bean:";
+  private static final String MISSING_PREFIX = "missing:";
+
+  private final List<String> conditions = new ArrayList<>();
+  private final List<String> softDependsOn = new ArrayList<>();
+
+  /**
+   * Read the conditions of the given bean type or factory method.
+   */
+  BeanConditions read(Element element) {
+    for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+      String annotationType = annotation.getAnnotationType().toString();
+      if (REQUIRES_PROPERTY.equals(annotationType)) {
+        readProperty(annotation);
+      } else if (REQUIRES_BEAN.equals(annotationType)) {
+        readBeans(annotation);
+      } else if (PROFILE.equals(annotationType)) {
+        conditions.add(PROFILE_PREFIX + String.join(",", values(annotation, "value")));
+      }
+    }
+    return this;
+  }
+
+  private void readProperty(AnnotationMirror annotation) {
+    String property = value(annotation, "value");
+    String equalTo = value(annotation, "equalTo");
+    String notEqualTo = value(annotation, "notEqualTo");
+    if (!equalTo.isEmpty()) {
+      conditions.add(PROPERTY_PREFIX + property + "=" + equalTo);
+    } else if (!notEqualTo.isEmpty()) {
+      conditions.add(PROPERTY_PREFIX + property + "!=" + notEqualTo);
+    } else {
+      conditions.add(PROPERTY_PREFIX + property);
+    }
+  }
+
+  private void readBeans(AnnotationMirror annotation) {
+    for (String type : values(annotation, "value")) {
+      conditions.add(BEAN_PREFIX + type);
+      softDependsOn.add(Util.SOFT_PREFIX + type);
+    }
+    for (String type : values(annotation, "missing")) {
+      conditions.add(MISSING_PREFIX + type);
+      softDependsOn.add(Util.SOFT_PREFIX + type);
+    }
+  }
+
+  private static String value(AnnotationMirror annotation, String attribute) {
+    for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotation.getElementValues().entrySet()) {
+      if (entry.getKey().getSimpleName().contentEquals(attribute)) {
+        return entry.getValue().getValue().toString();
+      }
+    }
+    return "";
+  }
+
+  private static List<String> values(AnnotationMirror annotation, String attribute) {
+    List<String> values = new ArrayList<>();
+    for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotation.getElementValues().entrySet()) {
+      if (entry.getKey().getSimpleName().contentEquals(attribute)) {
+        Object value = entry.getValue().getValue();
+        if (value instanceof List) {
+          for (Object element : (List<?>) value) {
+            // class literal values are TypeMirror
+            values.add(((AnnotationValue) element).getValue().toString());
+          }
+        } else {
+          values.add(value.toString());
+        }
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Return the encoded conditions.
+   */
+  List<String> conditions() {
+    return conditions;
+  }
+
+  /**
+   * Return the soft dependencies on the required (or missing) beans such that these are built first.
+   */
+  List<String> softDependsOn() {
+    return softDependsOn;
+  }
+
+  /**
+   * Return the guard expression for the conditions (null when there are no conditions).
+   */
+  static String expression(List<String> conditions) {
+    if (conditions.isEmpty()) {
+      return null;
+    }
+    StringBuilder sb = new StringBuilder();
+    for (String condition : conditions) {
+      if (sb.length() > 0) {
+        sb.append(" && ");
+      }
+      sb.append(expression(condition));
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Return the guard expression of the property and profile conditions only (null when none).
+   * <p>
+   * These do not depend on the order beans are built and so can also guard the dependencies.
+   */
+  static String staticExpression(List<String> conditions) {
+    List<String> staticConditions = new ArrayList<>(conditions.size());
+    for (String condition : conditions) {
+      if (condition.startsWith(PROPERTY_PREFIX) || condition.startsWith(PROFILE_PREFIX)) {
+        staticConditions.add(condition);
+      }
+    }
+    return expression(staticConditions);
+  }
+
+  private static String expression(String condition) {
+    if (condition.startsWith(PROPERTY_PREFIX)) {
+      String property = condition.substring(PROPERTY_PREFIX.length());
+      int notEqual = property.indexOf("!=");
+      if (notEqual > -1) {
+        String value = quote(property.substring(notEqual + 2));
+        String get = "builder.property(" + quote(property.substring(0, notEqual)) + ")";
+        return "(" + get + " != null && !" + value + ".equals(" + get + "))";
+      }
+      int equal = property.indexOf('=');
+      if (equal > -1) {
+        return quote(property.substring(equal + 1)) + ".equals(builder.property(" + quote(property.substring(0, equal)) + "))";
+      }
+      return "builder.property(" + quote(property) + ") != null";
+    }
+    if (condition.startsWith(PROFILE_PREFIX)) {
+      StringBuilder sb = new StringBuilder("builder.isProfileActive(");
+      String[] profiles = condition.substring(PROFILE_PREFIX.length()).split(",");
+      for (int i = 0; i < profiles.length; i++) {
+        if (i > 0) {
+          sb.append(", ");
+        }
+        sb.append(quote(profiles[i]));
+      }
+      return sb.append(")").toString();
+    }
+    if (condition.startsWith(BEAN_PREFIX)) {
+      return "builder.contains(" + condition.substring(BEAN_PREFIX.length()) + ".class)";
+    }
+    if (condition.startsWith(MISSING_PREFIX)) {
+      return "!builder.contains(" + condition.substring(MISSING_PREFIX.length()) + ".class)";
+    }
+    throw new IllegalStateException("Unknown bean condition " + condition);
+  }
+
+  private static String quote(String value) {
+    return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+  }
+}
@@ -5,6 +5,8 @@ import io.avaje.inject.Secondary;
 import io.avaje.inject.spi.Proxy;
 
 import javax.lang.model.element.Element;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
 import javax.lang.model.element.TypeElement;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -12,6 +14,7 @@ import java.util.stream.Collectors;
 class BeanReader {
 
   private final TypeElement beanType;
+  private final ProcessingContext context;
   private final String shortName;
   private final String type;
   private final String name;
@@ -30,10 +33,12 @@ class BeanReader {
   private final boolean secondary;
   private final boolean proxy;
   private final BeanAspects aspects;
+  private final BeanConditions conditions;
   private boolean writtenToFile;
 
   BeanReader(TypeElement beanType, ProcessingContext context, boolean factory) {
     this.beanType = beanType;
+    this.context = context;
     this.type = beanType.getQualifiedName().toString();
     this.shortName = shortName(beanType);
     this.primary = (beanType.getAnnotation(Primary.class) != null);
@@ -51,6 +56,7 @@ class BeanReader {
     this.postConstructMethod = typeReader.getPostConstructMethod();
     this.preDestroyMethod = typeReader.getPreDestroyMethod();
     this.constructor = typeReader.getConstructor();
+    this.conditions = new BeanConditions().read(beanType);
   }
 
   @Override
@@ -92,9 +98,17 @@ class BeanReader {
         list.add(param.getDependsOn());
       }
     }
+    list.addAll(conditions.softDependsOn());
     return list;
   }
 
+  /**
+   * Return the encoded conditions of the bean.
+   */
+  List<String> conditions() {
+    return conditions.conditions();
+  }
+
   List<MethodReader> getFactoryMethods() {
     return factoryMethods;
   }
@@ -176,12 +190,22 @@ class BeanReader {
     writer.append("builder.register%s(bean);", flags).eol();
   }
 
-  void addLifecycleCallbacks(Append writer) {
+  void addLifecycleCallbacks(Append writer, Callbacks callbacks) {
     if (postConstructMethod != null) {
-      writer.append("      builder.addPostConstruct($bean::%s);", postConstructMethod.getSimpleName()).eol();
+      String method = postConstructMethod.getSimpleName().toString();
+      if (callbacks != null) {
+        writer.append("      builder.addPostConstruct(%s);", callbacks.postConstruct(shortName, method)).eol();
+      } else {
+        writer.append("      builder.addPostConstruct($bean::%s);", method).eol();
+      }
     }
     if (preDestroyMethod != null) {
-      writer.append("      builder.addPreDestroy($bean::%s);", preDestroyMethod.getSimpleName()).eol();
+      String method = preDestroyMethod.getSimpleName().toString();
+      if (callbacks != null) {
+        writer.append("      builder.addPreDestroy(%s);", callbacks.preDestroy(shortName, method)).eol();
+      } else {
+        writer.append("      builder.addPreDestroy($bean::%s);", method).eol();
+      }
     } else if (typeReader.isClosable()) {
       writer.append("      builder.addPreDestroy($bean);").eol();
     }
@@ -228,6 +252,87 @@ class BeanReader {
     return constructor;
   }
 
+  /**
+   * Return true if construction, registration and lifecycle wiring of this bean can be
+   * written inline in the module. That is a simple bean (not a factory, no generic providers,
+   * not proxied or request scoped) where the bean, its members and dependency types are
+   * accessible from the module package.
+   */
+  boolean isInlineable(String modulePackage) {
+    if (constructor == null || !factoryMethods.isEmpty() || isGenerateProxy() || isRequestScopedController()
+      || !getGenericTypes().isEmpty() || beanType.getNestingKind() != NestingKind.TOP_LEVEL) {
+      return false;
+    }
+    if (hasGenericParam(constructor)) {
+      return false;
+    }
+    boolean samePackage = modulePackage.equals(Util.packageOf(type));
+    if (!accessible(beanType.getModifiers(), samePackage) || !accessible(constructor, samePackage)) {
+      return false;
+    }
+    for (FieldReader field : injectFields) {
+      if (samePackage ? !field.isNotPrivate() : !field.isPublic()) {
+        return false;
+      }
+    }
+    for (MethodReader method : injectMethods) {
+      if (hasGenericParam(method) || !accessible(method, samePackage)) {
+        return false;
+      }
+    }
+    if (postConstructMethod != null && !accessible(postConstructMethod.getModifiers(), samePackage)
+      || preDestroyMethod != null && !accessible(preDestroyMethod.getModifiers(), samePackage)) {
+      return false;
+    }
+    for (String importType : importTypes()) {
+      TypeElement element = context.element(importType);
+      if (element != null && !accessibleType(element, modulePackage)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean hasGenericParam(MethodReader method) {
+    for (MethodReader.MethodParam param : method.getParams()) {
+      if (param.isGenericParam()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean accessible(MethodReader method, boolean samePackage) {
+    return samePackage ? method.isNotPrivate() : method.isPublic();
+  }
+
+  private static boolean accessible(Set<Modifier> modifiers, boolean samePackage) {
+    return samePackage ? !modifiers.contains(Modifier.PRIVATE) : modifiers.contains(Modifier.PUBLIC);
+  }
+
+  private static boolean accessibleType(TypeElement element, String modulePackage) {
+    if (element.getNestingKind() == NestingKind.TOP_LEVEL) {
+      String packageName = Util.packageOf(element.getQualifiedName().toString());
+      return accessible(element.getModifiers(), modulePackage.equals(packageName));
+    }
+    Element enclosing = element.getEnclosingElement();
+    return element.getModifiers().contains(Modifier.PUBLIC)
+      && (!(enclosing instanceof TypeElement) || accessibleType((TypeElement) enclosing, modulePackage));
+  }
+
+  /**
+   * Return the types to import when the bean is written inline in the module.
+   */
+  Set<String> inlineImportTypes() {
+    Set<String> types = new TreeSet<>();
+    for (String importType : importTypes()) {
+      if (Util.validImportType(importType)) {
+        types.add(importType);
+      }
+    }
+    return types;
+  }
+
   boolean isWrittenToFile() {
     return writtenToFile;
   }
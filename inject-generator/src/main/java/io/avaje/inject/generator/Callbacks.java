@@ -0,0 +1,122 @@
+package io.avaje.inject.generator;
+
+import java.io.StringWriter;
+
+/**
+ * Lifecycle and injection callbacks written as a nested class using switch dispatch
+ * rather than lambdas / method references (-Aavaje.inject.lambdaFree).
+ * <p>
+ * Each lambda site otherwise bootstraps via LambdaMetafactory (spinning a hidden class)
+ * the first time it runs. With this there is one callback class per generated class.
+ */
+class Callbacks {
+
+  static final String CLASS_NAME = "$Callback";
+
+  private final StringWriter runCases = new StringWriter();
+  private final StringWriter closeCases = new StringWriter();
+  private final StringWriter acceptCases = new StringWriter();
+  private final Append run = new Append(runCases);
+  private final Append close = new Append(closeCases);
+  private final Append accept = new Append(acceptCases);
+  private int nextId;
+
+  /**
+   * Return the callback expression to invoke the postConstruct method on the bean.
+   */
+  String postConstruct(String shortType, String method) {
+    int id = nextId++;
+    run.append("      case %s:", id).eol();
+    run.append("        ((%s) bean).%s();", shortType, method).eol();
+    run.append("        break;").eol();
+    return "new " + CLASS_NAME + "(" + id + ", $bean)";
+  }
+
+  /**
+   * Return the callback expression to invoke the preDestroy method on the bean.
+   */
+  String preDestroy(String shortType, String method) {
+    int id = nextId++;
+    close.append("        case %s:", id).eol();
+    close.append("          ((%s) bean).%s();", shortType, method).eol();
+    close.append("          break;").eol();
+    return "new " + CLASS_NAME + "(" + id + ", $bean)";
+  }
+
+  /**
+   * Start an injector callback returning the id. The injection code is then written using
+   * {@link #injector()} with <code>$bean</code> and builder <code>b</code> followed by {@link #injectorEnd()}.
+   */
+  int injectorStart(String shortType) {
+    int id = nextId++;
+    accept.append("      case %s: {", id).eol();
+    accept.append("        %s $bean = (%s) bean;", shortType, shortType).eol();
+    return id;
+  }
+
+  Append injector() {
+    return accept;
+  }
+
+  void injectorEnd() {
+    accept.append("        break;").eol();
+    accept.append("      }").eol();
+  }
+
+  boolean isEmpty() {
+    return nextId == 0;
+  }
+
+  /**
+   * Write the nested callback class.
+   */
+  void write(Append writer) {
+    writer.append("  private static final class %s implements Runnable, AutoCloseable, java.util.function.Consumer<Builder> {", CLASS_NAME).eol().eol();
+    writer.append("    private final int id;").eol();
+    writer.append("    private final Object bean;").eol().eol();
+    writer.append("    %s(int id, Object bean) {", CLASS_NAME).eol();
+    writer.append("      this.id = id;").eol();
+    writer.append("      this.bean = bean;").eol();
+    writer.append("    }").eol().eol();
+    writeMethod(writer, "public void run()", runCases);
+    writeClose(writer);
+    writeMethod(writer, "public void accept(Builder b)", acceptCases);
+    writer.append("  }").eol().eol();
+  }
+
+  /**
+   * Write close() without a throws clause (such that -Xlint:try does not warn about a
+   * close() that may throw InterruptedException) wrapping checked exceptions of preDestroy methods.
+   * An InterruptedException restores the interrupt status of the thread before being wrapped.
+   */
+  private void writeClose(Append writer) {
+    writer.append("    @Override").eol();
+    writer.append("    public void close() {").eol();
+    writer.append("      try {").eol();
+    writer.append("        switch (id) {").eol();
+    writer.append(closeCases.toString());
+    writer.append("        default:").eol();
+    writer.append("          throw new IllegalStateException(\"Unexpected callback \" + id);").eol();
+    writer.append("        }").eol();
+    writer.append("      } catch (RuntimeException e) {").eol();
+    writer.append("        throw e;").eol();
+    writer.append("      } catch (Exception e) {").eol();
+    writer.append("        if (e instanceof InterruptedException) {").eol();
+    writer.append("          Thread.currentThread().interrupt();").eol();
+    writer.append("        }").eol();
+    writer.append("        throw new IllegalStateException(e);").eol();
+    writer.append("      }").eol();
+    writer.append("    }").eol().eol();
+  }
+
+  private void writeMethod(Append writer, String signature, StringWriter cases) {
+    writer.append("    @Override").eol();
+    writer.append("    ").append(signature).append(" {").eol();
+    writer.append("      switch (id) {").eol();
+    writer.append(cases.toString());
+    writer.append("      default:").eol();
+    writer.append("        throw new IllegalStateException(\"Unexpected callback \" + id);").eol();
+    writer.append("      }").eol();
+    writer.append("    }").eol().eol();
+  }
+}
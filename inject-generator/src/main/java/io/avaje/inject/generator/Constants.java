@@ -26,6 +26,16 @@ class Constants {
   static final String META_INF_MODULE = "META-INF/services/io.avaje.inject.spi.Module";
   static final String META_INF_TESTMODULE = "META-INF/services/io.avaje.inject.test.TestModule";
   static final String META_INF_CUSTOM = "META-INF/services/io.avaje.inject.spi.Module.Custom";
+  static final String META_INF_CLASSLIST = "META-INF/avaje-inject/%s.classlist";
+  static final String META_INF_GRAPH = "META-INF/avaje-inject/%s-graph.%s";
+  static final String META_INF_NATIVE_IMAGE = "META-INF/native-image/%s/%s/%s";
+
+  static final String OPTION_TIMINGS = "avaje.inject.timings";
+  static final String OPTION_INLINE_BEANS = "avaje.inject.inlineBeans";
+  static final String OPTION_LAMBDA_FREE = "avaje.inject.lambdaFree";
+  static final String OPTION_ROOTS = "avaje.inject.roots";
+  static final String OPTION_LAZY_ASPECTS = "avaje.inject.lazyAspects";
+  static final String OPTION_GUARD_DEPENDENCIES = "avaje.inject.guardDependencies";
 
   static final String BEANSCOPE = "io.avaje.inject.BeanScope";
   static final String INJECTMODULE = "io.avaje.inject.InjectModule";
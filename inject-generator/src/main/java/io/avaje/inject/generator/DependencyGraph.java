@@ -0,0 +1,267 @@
+package io.avaje.inject.generator;
+
+import io.avaje.inject.aop.Aspect;
+import io.avaje.inject.spi.Proxy;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import java.util.*;
+
+/**
+ * The bean dependency graph of a module written as JSON and DOT (graphviz).
+ * <p>
+ * Includes for each bean the dependencies, factory method, aspects applied and depth.
+ * The depth is the length of the longest chain of (non-provider) dependencies to the
+ * bean, beans with the same depth do not depend on each other. Also includes the
+ * longest dependency chain (critical path) of the module. Beans that are not built
+ * as they are unreachable from the module roots (tree shaking) are marked as such.
+ */
+class DependencyGraph {
+
+  private final ProcessingContext context;
+  private final String moduleName;
+  private final List<Node> nodes = new ArrayList<>();
+  private final List<Node> longestChain = new ArrayList<>();
+
+  DependencyGraph(ProcessingContext context, String moduleName, MetaDataOrdering ordering) {
+    this.context = context;
+    this.moduleName = moduleName;
+    Map<MetaData, Node> nodeMap = new IdentityHashMap<>();
+    for (MetaData metaData : ordering.ordered()) {
+      Node node = new Node(nodes.size(), metaData);
+      nodes.add(node);
+      nodeMap.put(metaData, node);
+    }
+    for (Node node : nodes) {
+      node.initDependencies(ordering, nodeMap);
+    }
+    initLongestChain();
+  }
+
+  /**
+   * Depth of each bean in build order (providers are before the beans that depend on them).
+   */
+  private void initLongestChain() {
+    Node deepest = null;
+    for (Node node : nodes) {
+      for (Dependency dependency : node.dependencies) {
+        if (!dependency.provider) {
+          for (Node provider : dependency.providers) {
+            if (provider.id < node.id && provider.depth + 1 > node.depth) {
+              node.depth = provider.depth + 1;
+              node.previous = provider;
+            }
+          }
+        }
+      }
+      if (deepest == null || node.depth > deepest.depth) {
+        deepest = node;
+      }
+    }
+    for (Node node = deepest; node != null; node = node.previous) {
+      longestChain.add(0, node);
+    }
+  }
+
+  List<String> longestChain() {
+    List<String> chain = new ArrayList<>(longestChain.size());
+    for (Node node : longestChain) {
+      chain.add(node.label());
+    }
+    return chain;
+  }
+
+  String json() {
+    StringBuilder sb = new StringBuilder(200 + nodes.size() * 200);
+    sb.append("{\n  \"module\": ").append(quote(moduleName)).append(",\n");
+    sb.append("  \"longestChain\": ");
+    appendIds(sb, longestChain);
+    sb.append(",\n  \"beans\": [");
+    for (int i = 0; i < nodes.size(); i++) {
+      sb.append(i == 0 ? "\n" : ",\n");
+      nodes.get(i).json(sb);
+    }
+    return sb.append("\n  ]\n}\n").toString();
+  }
+
+  String dot() {
+    Set<Node> chain = Collections.newSetFromMap(new IdentityHashMap<>());
+    chain.addAll(longestChain);
+    StringBuilder sb = new StringBuilder(200 + nodes.size() * 100);
+    sb.append("digraph ").append(quote(moduleName)).append(" {\n");
+    sb.append("  rankdir=LR;\n");
+    sb.append("  node [shape=box];\n");
+    for (Node node : nodes) {
+      sb.append("  n").append(node.id).append(" [label=").append(quote(node.label()));
+      if (chain.contains(node)) {
+        sb.append(", color=red");
+      }
+      if (node.metaData.isUnreachable()) {
+        sb.append(", style=dotted");
+      }
+      sb.append("];\n");
+    }
+    for (Node node : nodes) {
+      for (Dependency dependency : node.dependencies) {
+        for (Node provider : dependency.providers) {
+          sb.append("  n").append(node.id).append(" -> n").append(provider.id);
+          if (dependency.provider) {
+            sb.append(" [style=dashed]");
+          } else if (chain.contains(node) && node.previous == provider) {
+            sb.append(" [color=red]");
+          }
+          sb.append(";\n");
+        }
+      }
+    }
+    return sb.append("}\n").toString();
+  }
+
+  private static void appendIds(StringBuilder sb, List<Node> list) {
+    sb.append('[');
+    for (int i = 0; i < list.size(); i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append(list.get(i).id);
+    }
+    sb.append(']');
+  }
+
+  private static void appendStrings(StringBuilder sb, Collection<String> values) {
+    sb.append('[');
+    boolean first = true;
+    for (String value : values) {
+      if (!first) {
+        sb.append(", ");
+      }
+      first = false;
+      sb.append(quote(value));
+    }
+    sb.append(']');
+  }
+
+  private static String quote(String value) {
+    return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+  }
+
+  /**
+   * Return the aspect annotations applied to methods of the proxied bean.
+   */
+  private Set<String> aspects(MetaData metaData) {
+    if (metaData.hasMethod()) {
+      return Collections.emptySet();
+    }
+    TypeElement element = context.element(metaData.getType());
+    if (element == null || element.getAnnotation(Proxy.class) == null || element.getSuperclass().getKind() != TypeKind.DECLARED) {
+      return Collections.emptySet();
+    }
+    Set<String> aspects = new TreeSet<>();
+    TypeElement target = (TypeElement) ((DeclaredType) element.getSuperclass()).asElement();
+    addAspects(aspects, target);
+    for (Element member : target.getEnclosedElements()) {
+      if (member.getKind() == ElementKind.METHOD) {
+        addAspects(aspects, member);
+      }
+    }
+    return aspects;
+  }
+
+  private void addAspects(Set<String> aspects, Element element) {
+    for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+      Element annotationType = annotation.getAnnotationType().asElement();
+      if (annotationType.getAnnotation(Aspect.class) != null) {
+        aspects.add(annotationType.toString());
+      }
+    }
+  }
+
+  private static final class Dependency {
+
+    private final String type;
+    private final boolean provider;
+    private final List<Node> providers = new ArrayList<>(1);
+
+    Dependency(String type) {
+      this.type = type;
+      this.provider = Util.isProvider(type);
+    }
+  }
+
+  private final class Node {
+
+    private final int id;
+    private final MetaData metaData;
+    private final Set<String> aspects;
+    private final List<Dependency> dependencies = new ArrayList<>();
+    private int depth;
+    private Node previous;
+
+    Node(int id, MetaData metaData) {
+      this.id = id;
+      this.metaData = metaData;
+      this.aspects = aspects(metaData);
+    }
+
+    void initDependencies(MetaDataOrdering ordering, Map<MetaData, Node> nodeMap) {
+      for (String dependsOn : metaData.getDependsOn()) {
+        Dependency dependency = new Dependency(dependsOn);
+        for (MetaData provider : ordering.providersOf(Util.dependencyType(dependsOn))) {
+          Node node = nodeMap.get(provider);
+          if (node != null) {
+            dependency.providers.add(node);
+          }
+        }
+        dependencies.add(dependency);
+      }
+    }
+
+    String label() {
+      return metaData.toString();
+    }
+
+    void json(StringBuilder sb) {
+      sb.append("    {\"id\": ").append(id);
+      sb.append(", \"type\": ").append(quote(metaData.getType()));
+      if (metaData.getName() != null) {
+        sb.append(", \"name\": ").append(quote(metaData.getName()));
+      }
+      if (metaData.hasMethod()) {
+        sb.append(", \"method\": ").append(quote(metaData.getMethod()));
+      }
+      sb.append(", \"depth\": ").append(depth);
+      if (metaData.isUnreachable()) {
+        sb.append(", \"unreachable\": true");
+      }
+      if (!metaData.getProvides().isEmpty()) {
+        sb.append(", \"provides\": ");
+        appendStrings(sb, metaData.getProvides());
+      }
+      if (!aspects.isEmpty()) {
+        sb.append(", \"aspects\": ");
+        appendStrings(sb, aspects);
+      }
+      sb.append(", \"dependsOn\": [");
+      for (int i = 0; i < dependencies.size(); i++) {
+        Dependency dependency = dependencies.get(i);
+        sb.append(i == 0 ? "" : ", ");
+        sb.append("{\"type\": ").append(quote(dependency.type));
+        if (dependency.provider) {
+          sb.append(", \"provider\": true");
+        }
+        if (dependency.providers.isEmpty()) {
+          sb.append(", \"external\": true");
+        } else {
+          sb.append(", \"beans\": ");
+          appendIds(sb, dependency.providers);
+        }
+        sb.append('}');
+      }
+      sb.append("]}");
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package io.avaje.inject.generator;
 
 import javax.lang.model.element.Element;
+import javax.lang.model.element.Modifier;
 import java.util.Set;
 
 class FieldReader {
@@ -21,6 +22,14 @@ class FieldReader {
     this.fieldType = Util.unwrapProvider(type.rawType());
   }
 
+  boolean isPublic() {
+    return element.getModifiers().contains(Modifier.PUBLIC);
+  }
+
+  boolean isNotPrivate() {
+    return !element.getModifiers().contains(Modifier.PRIVATE);
+  }
+
   String getFieldName() {
     return element.getSimpleName().toString();
   }
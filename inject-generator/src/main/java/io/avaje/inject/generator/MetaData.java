@@ -1,6 +1,11 @@
 package io.avaje.inject.generator;
 
 import io.avaje.inject.spi.DependencyMeta;
+import io.avaje.inject.spi.Proxy;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -19,6 +24,24 @@ class MetaData {
   private final String name;
   private String method;
   private boolean wired;
+  private BeanReader beanReader;
+  private boolean inlined;
+  private boolean unreachable;
+
+  /**
+   * The encoded conditions of the bean (RequiresProperty, RequiresBean, Profile).
+   */
+  private List<String> conditions;
+
+  /**
+   * The guard expression of the build method (own conditions and those of the dependents).
+   */
+  private String guard;
+
+  /**
+   * The property and profile conditions that hold when this bean is built.
+   */
+  private String staticGuard;
 
   /**
    * The interfaces and class annotations the bean has (to register into lists).
@@ -37,6 +60,7 @@ class MetaData {
     this.method = meta.method();
     this.provides = asList(meta.provides());
     this.dependsOn = asList(meta.dependsOn());
+    this.conditions = asList(meta.conditions());
   }
 
   MetaData(String type, String name) {
@@ -45,6 +69,7 @@ class MetaData {
     this.shortType = Util.shortName(type);
     this.provides = new ArrayList<>();
     this.dependsOn = new ArrayList<>();
+    this.conditions = new ArrayList<>();
   }
 
   @Override
@@ -100,14 +125,93 @@ class MetaData {
   }
 
   void update(BeanReader beanReader) {
+    this.beanReader = beanReader;
     this.provides = beanReader.getProvides();
     this.dependsOn = beanReader.getDependsOn();
+    this.conditions = beanReader.conditions();
+  }
+
+  /**
+   * Return the bean reader when the bean was read in this compilation (otherwise null).
+   */
+  BeanReader beanReader() {
+    return beanReader;
+  }
+
+  /**
+   * Set when the bean is built inline in the module (rather than via $DI).
+   */
+  void setInlined() {
+    this.inlined = true;
+  }
+
+  boolean isInlined() {
+    return inlined;
+  }
+
+  void setUnreachable() {
+    this.unreachable = true;
+  }
+
+  /**
+   * Return true if the bean is not reachable from the module roots (and is not built).
+   */
+  boolean isUnreachable() {
+    return unreachable;
+  }
+
+  List<String> conditions() {
+    return conditions;
+  }
+
+  void setConditions(List<String> conditions) {
+    this.conditions = conditions;
+  }
+
+  /**
+   * Set the guard of the build method given the property and profile conditions of the
+   * beans that depend on this bean (null when some dependents are unconditional).
+   */
+  void initGuard(String dependentsGuard) {
+    String own = BeanConditions.expression(conditions);
+    String ownStatic = BeanConditions.staticExpression(conditions);
+    this.guard = and(own, dependentsGuard);
+    this.staticGuard = and(ownStatic, dependentsGuard);
+  }
+
+  private static String and(String guard, String other) {
+    if (guard == null) {
+      return other;
+    }
+    return other == null ? guard : guard + " && (" + other + ")";
+  }
+
+  /**
+   * Return the guard expression of the build method (null when unconditional).
+   */
+  String guard() {
+    return guard;
+  }
+
+  /**
+   * Return the property and profile conditions that hold when this bean is built (null when none).
+   */
+  String staticGuard() {
+    return staticGuard;
   }
 
   String getType() {
     return type;
   }
 
+  String getName() {
+    return name;
+  }
+
+  String getMethod() {
+    return method;
+  }
+
   List<String> getProvides() {
     return provides;
   }
@@ -131,6 +235,8 @@ class MetaData {
     if (hasMethod()) {
       importTypes.add(Util.classOfMethod(method));
 
+    } else if (inlined) {
+      importTypes.add(type);
     } else {
       importTypes.add(type + Constants.DI);
     }
@@ -144,8 +250,49 @@ class MetaData {
     }
   }
 
-  String buildMethod(MetaDataOrdering ordering) {
+  /**
+   * Add the generated and wired classes in the order they are loaded when building this bean.
+   * <p>
+   * For a proxy this includes its nested classes (the Invoke$ targets and lazy Aspects$ holders)
+   * that are loaded on the first call of an intercepted method.
+   */
+  void addClassList(Set<String> classes, ProcessingContext context) {
+    if (hasMethod()) {
+      classes.add(Util.classOfMethod(method));
+      if (!Util.isVoid(type)) {
+        classes.add(GenericType.parse(type).topType());
+      }
+    } else {
+      if (!inlined) {
+        classes.add(type + Constants.DI);
+      }
+      classes.add(type);
+      addProxyClasses(classes, context);
+    }
+  }
+
+  private void addProxyClasses(Set<String> classes, ProcessingContext context) {
+    TypeElement element = context.element(type);
+    if (element == null || element.getAnnotation(Proxy.class) == null) {
+      return;
+    }
+    for (Element member : element.getEnclosedElements()) {
+      if (member.getKind() == ElementKind.CLASS) {
+        classes.add(((TypeElement) member).getQualifiedName().toString());
+      }
+    }
+  }
+
+  /**
+   * Return the DependencyMeta annotation and start of the build method.
+   */
+  String buildMethodStart() {
     StringBuilder sb = new StringBuilder(200);
+    buildMethodStart(sb);
+    return sb.toString();
+  }
+
+  private void buildMethodStart(StringBuilder sb) {
     sb.append("  @DependencyMeta(type=\"").append(type).append("\"");
     if (name != null) {
       sb.append(", name=\"").append(name).append("\"");
@@ -159,8 +306,21 @@ class MetaData {
     if (!dependsOn.isEmpty()) {
       appendProvides(sb, "dependsOn", dependsOn);
     }
+    if (!conditions.isEmpty()) {
+      appendProvides(sb, "conditions", conditions);
+    }
     sb.append(")").append(NEWLINE);
     sb.append("  protected void build_").append(getBuildName()).append("() {").append(NEWLINE);
+    if (guard != null) {
+      sb.append("    if (!(").append(guard).append(")) {").append(NEWLINE);
+      sb.append("      return;").append(NEWLINE);
+      sb.append("    }").append(NEWLINE);
+    }
+  }
+
+  String buildMethod(MetaDataOrdering ordering) {
+    StringBuilder sb = new StringBuilder(200);
+    buildMethodStart(sb);
     if (hasMethod()) {
       sb.append("    ").append(Util.shortMethod(method)).append("(builder");
     } else {
@@ -186,7 +346,7 @@ class MetaData {
     return ordering.findProviderOf(depend);
   }
 
-  private boolean hasMethod() {
+  boolean hasMethod() {
     return method != null && !method.isEmpty();
   }
 
@@ -197,7 +357,7 @@ class MetaData {
         sb.append(",");
       }
       sb.append("\"");
-      sb.append(types.get(i));
+      sb.append(types.get(i).replace("\\", "\\\\").replace("\"", "\\\""));
       sb.append("\"");
     }
     sb.append("}");
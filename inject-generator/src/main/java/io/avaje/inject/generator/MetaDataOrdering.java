@@ -10,9 +10,15 @@ class MetaDataOrdering {
       "rather than constructor injection on one of the dependencies. " +
       "\n See https://avaje.io/inject/#circular";
 
+  /**
+   * Maximum number of distinct dependent guards combined into the guard of a dependency.
+   */
+  private static final int MAX_DEPENDENT_GUARDS = 4;
+
   private final ProcessingContext context;
   private final ScopeInfo scopeInfo;
   private final List<MetaData> orderedList = new ArrayList<>();
+  private List<MetaData> reachableList = orderedList;
   private final List<MetaData> queue = new ArrayList<>();
   private final Map<String, ProviderList> providers = new HashMap<>();
   private final List<DependencyLink> circularDependencies = new ArrayList<>();
@@ -47,11 +53,7 @@ class MetaDataOrdering {
   }
 
   int processQueue() {
-    int count;
-    do {
-      count = processQueueRound();
-    } while (count > 0);
-
+    orderQueue();
     int remaining = queue.size();
     if (remaining != 0) {
       missingDependencies();
@@ -60,6 +62,92 @@ class MetaDataOrdering {
     return remaining;
   }
 
+  /**
+   * Order the queued beans by their dependencies in linear time (Kahn's algorithm).
+   * <p>
+   * This gives the same order as repeatedly looping the queue adding the beans that
+   * have all their dependencies wired. A bean that becomes ready with a queue position
+   * after the bean just wired is added in the current loop, otherwise it is deferred
+   * to the next loop. Beans with unsatisfied dependencies remain in the queue.
+   */
+  private void orderQueue() {
+    final int size = queue.size();
+    final Map<MetaData, Integer> position = new IdentityHashMap<>(size * 2);
+    for (int i = 0; i < size; i++) {
+      position.put(queue.get(i), i);
+    }
+    final int[] unwired = new int[size];
+    final List<List<Integer>> dependents = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      dependents.add(new ArrayList<>(2));
+    }
+    PriorityQueue<Integer> ready = new PriorityQueue<>();
+    for (int i = 0; i < size; i++) {
+      for (String dependency : new LinkedHashSet<>(queue.get(i).getDependsOn())) {
+        if (Util.isSoftDependency(dependency)) {
+          // wait for the other providers in this module (if any)
+          ProviderList providerList = providers.get(Util.dependencyType(dependency));
+          if (providerList != null) {
+            for (MetaData provider : providerList.list) {
+              Integer providerPosition = position.get(provider);
+              if (providerPosition != null && providerPosition != i) {
+                unwired[i]++;
+                dependents.get(providerPosition).add(i);
+              }
+            }
+          }
+        } else if (!Util.isProvider(dependency)) {
+          // non-provider dependency must be satisfied
+          ProviderList providerList = providers.get(dependency);
+          if (providerList == null) {
+            if (!scopeInfo.providedByOtherModule(dependency)) {
+              // never satisfied
+              unwired[i]++;
+            }
+          } else {
+            for (MetaData provider : providerList.list) {
+              Integer providerPosition = position.get(provider);
+              if (providerPosition != null) {
+                unwired[i]++;
+                dependents.get(providerPosition).add(i);
+              }
+            }
+          }
+        }
+      }
+      if (unwired[i] == 0) {
+        ready.add(i);
+      }
+    }
+    final boolean[] wired = new boolean[size];
+    PriorityQueue<Integer> nextLoop = new PriorityQueue<>();
+    while (!ready.isEmpty()) {
+      int current = ready.poll();
+      MetaData metaData = queue.get(current);
+      orderedList.add(metaData);
+      metaData.setWired();
+      wired[current] = true;
+      for (int dependent : dependents.get(current)) {
+        if (--unwired[dependent] == 0) {
+          (dependent > current ? ready : nextLoop).add(dependent);
+        }
+      }
+      if (ready.isEmpty()) {
+        PriorityQueue<Integer> swap = ready;
+        ready = nextLoop;
+        nextLoop = swap;
+      }
+    }
+    final List<MetaData> remaining = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      if (!wired[i]) {
+        remaining.add(queue.get(i));
+      }
+    }
+    queue.clear();
+    queue.addAll(remaining);
+  }
+
   /**
    * Try to detect circular dependency given the remaining beans
    * in the queue with unsatisfied dependencies.
@@ -121,7 +209,7 @@ class MetaDataOrdering {
 
   private void checkMissingDependencies(MetaData metaData) {
     for (String dependency : metaData.getDependsOn()) {
-      if (providers.get(dependency) == null && !scopeInfo.providedByOtherModule(dependency)) {
+      if (!Util.isSoftDependency(dependency) && providers.get(dependency) == null && !scopeInfo.providedByOtherModule(dependency)) {
         TypeElement element = context.elementMaybe(metaData.getType());
         context.logError(element, "No dependency provided for " + dependency + " on " + metaData.getType());
         missingDependencyTypes.add(dependency);
@@ -153,43 +241,143 @@ class MetaDataOrdering {
     }
   }
 
-  private int processQueueRound() {
-    // loop queue looking for entry that has all provides marked as included
-    int count = 0;
-    Iterator<MetaData> iterator = queue.iterator();
-    while (iterator.hasNext()) {
-      MetaData queuedMeta = iterator.next();
-      if (allDependenciesWired(queuedMeta)) {
-        orderedList.add(queuedMeta);
-        queuedMeta.setWired();
-        iterator.remove();
-        count++;
+  List<MetaData> ordered() {
+    return orderedList;
+  }
+
+  /**
+   * Return the ordered beans that are built (excludes beans that are unreachable from the roots).
+   */
+  List<MetaData> reachable() {
+    return reachableList;
+  }
+
+  /**
+   * Mark the beans that are not reachable from the given root types as unreachable.
+   * <p>
+   * Walks the dependencies from the beans that provide the roots. Returns the unreachable beans.
+   */
+  List<MetaData> treeShake(Collection<String> roots) {
+    Set<MetaData> reachable = Collections.newSetFromMap(new IdentityHashMap<>());
+    Deque<MetaData> pending = new ArrayDeque<>();
+    for (String root : roots) {
+      List<MetaData> rootProviders = providersOf(root);
+      if (rootProviders.isEmpty()) {
+        context.logWarn("Root %s is not provided by any bean in module %s", root, scopeInfo.name());
+      }
+      pending.addAll(rootProviders);
+    }
+    while (!pending.isEmpty()) {
+      MetaData metaData = pending.pop();
+      if (reachable.add(metaData)) {
+        for (String dependency : metaData.getDependsOn()) {
+          pending.addAll(providersOf(Util.dependencyType(dependency)));
+        }
+      }
+    }
+    List<MetaData> unreachable = new ArrayList<>();
+    reachableList = new ArrayList<>(reachable.size());
+    for (MetaData metaData : orderedList) {
+      if (reachable.contains(metaData)) {
+        reachableList.add(metaData);
+      } else {
+        metaData.setUnreachable();
+        unreachable.add(metaData);
       }
     }
-    return count;
+    if (!unreachable.isEmpty()) {
+      context.logDebug("tree shaking removed %s of %s beans unreachable from roots %s in module %s %s",
+        unreachable.size(), orderedList.size(), roots, scopeInfo.name(), unreachable);
+    }
+    return unreachable;
   }
 
-  private boolean allDependenciesWired(MetaData queuedMeta) {
-    for (String dependency : queuedMeta.getDependsOn()) {
-      if (!Util.isProvider(dependency)) {
-        // check non-provider dependency is satisfied
-        ProviderList providerList = providers.get(dependency);
-        if (providerList == null) {
-          if (!scopeInfo.providedByOtherModule(dependency)) {
-            return false;
-          }
-        } else {
-          if (!providerList.isAllWired()) {
-            return false;
+  /**
+   * Initialise the build method guards of conditional beans.
+   * <p>
+   * With <code>-Aavaje.inject.guardDependencies</code> a bean that is only depended on by beans
+   * with property or profile conditions is only built when one of those dependents is built.
+   * For example, with a bean with <code>@RequiresProperty("feature")</code> the beans that it
+   * alone depends on are not built when the property is not set. As these beans are then also
+   * missing from the scope (and for other modules) this is opt-in and each guarded bean is
+   * reported. Conditions on other beans (<code>@RequiresBean</code>) depend on the build order
+   * and are not applied to dependencies.
+   */
+  void initGuards() {
+    if (!context.guardDependencies()) {
+      for (MetaData metaData : orderedList) {
+        metaData.initGuard(null);
+      }
+      return;
+    }
+    Map<MetaData, List<MetaData>> dependents = new IdentityHashMap<>();
+    Set<MetaData> softDepended = Collections.newSetFromMap(new IdentityHashMap<>());
+    boolean conditional = false;
+    for (MetaData metaData : orderedList) {
+      conditional |= !metaData.conditions().isEmpty();
+      for (String dependency : metaData.getDependsOn()) {
+        for (MetaData provider : providersOf(Util.dependencyType(dependency))) {
+          if (Util.isSoftDependency(dependency)) {
+            softDepended.add(provider);
+          } else {
+            dependents.computeIfAbsent(provider, m -> new ArrayList<>()).add(metaData);
           }
         }
       }
     }
-    return true;
+    if (!conditional) {
+      return;
+    }
+    Set<MetaData> initialised = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (int i = orderedList.size() - 1; i >= 0; i--) {
+      MetaData metaData = orderedList.get(i);
+      String dependentsGuard = softDepended.contains(metaData) ? null : dependentsGuard(dependents.get(metaData), initialised);
+      metaData.initGuard(dependentsGuard);
+      if (dependentsGuard != null) {
+        context.logDebug("bean %s in module %s is only built when %s (as only its conditional dependents use it)",
+          metaData, scopeInfo.name(), dependentsGuard);
+      }
+      initialised.add(metaData);
+    }
   }
 
-  List<MetaData> ordered() {
-    return orderedList;
+  /**
+   * Return the guard when all the dependents have property or profile conditions (otherwise null).
+   */
+  private static String dependentsGuard(List<MetaData> dependents, Set<MetaData> initialised) {
+    if (dependents == null) {
+      return null;
+    }
+    Set<String> guards = new LinkedHashSet<>();
+    for (MetaData dependent : dependents) {
+      // a dependent not yet initialised is via a Provider (built later)
+      if (!initialised.contains(dependent) || dependent.staticGuard() == null) {
+        return null;
+      }
+      guards.add(dependent.staticGuard());
+    }
+    if (guards.size() > MAX_DEPENDENT_GUARDS) {
+      return null;
+    }
+    if (guards.size() == 1) {
+      return guards.iterator().next();
+    }
+    StringBuilder sb = new StringBuilder();
+    for (String guard : guards) {
+      if (sb.length() > 0) {
+        sb.append(" || ");
+      }
+      sb.append('(').append(guard).append(')');
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Return the beans in this module that provide the given dependency.
+   */
+  List<MetaData> providersOf(String dependency) {
+    ProviderList providerList = providers.get(dependency);
+    return providerList == null ? Collections.emptyList() : providerList.list;
   }
 
   Set<String> importTypes() {
@@ -232,15 +420,6 @@ class MetaDataOrdering {
     void add(MetaData beanMeta) {
       list.add(beanMeta);
     }
-
-    boolean isAllWired() {
-      for (MetaData metaData : list) {
-        if (!metaData.isWired()) {
-          return false;
-        }
-      }
-      return true;
-    }
   }
 
   private static class DependencyLink {
@@ -31,6 +31,7 @@ class MethodReader {
   private final String name;
   private final TypeReader typeReader;
   private final boolean optionalType;
+  private final BeanConditions conditions;
 
   MethodReader(ProcessingContext context, ExecutableElement element, TypeElement beanType) {
     this(context, element, beanType, null, null);
@@ -49,7 +50,7 @@ class MethodReader {
       optionalType = false;
       returnTypeRaw = GenericType.trimWildcard(raw);
     }
-    this.genericType = GenericType.parse(returnTypeRaw);
+    this.genericType = context.genericType(returnTypeRaw);
     String topType = genericType.topType();
     this.shortName = Util.shortName(topType);
     this.factoryType = beanType.getQualifiedName().toString();
@@ -58,6 +59,8 @@ class MethodReader {
     String initMethod = (bean == null) ? null : bean.initMethod();
     String destroyMethod = (bean == null) ? null : bean.destroyMethod();
     this.name = (named == null) ? null : named.value().toLowerCase();
+    // a factory bean method has the conditions of the factory and the method
+    this.conditions = isFactory ? new BeanConditions().read(beanType).read(element) : null;
     TypeElement returnElement = context.element(topType);
     if (returnElement == null) {
       this.typeReader = null;
@@ -97,6 +100,10 @@ class MethodReader {
     for (MethodParam param : params) {
       dependsOn.add(GenericType.trimWildcard(param.paramType));
     }
+    if (conditions != null) {
+      dependsOn.addAll(conditions.softDependsOn());
+      metaData.setConditions(conditions.conditions());
+    }
     metaData.setDependsOn(dependsOn);
     metaData.setProvides(new ArrayList<>());
     return metaData;
@@ -131,7 +138,7 @@ class MethodReader {
     return sb.toString();
   }
 
-  void builderBuildAddBean(Append writer) {
+  void builderBuildAddBean(Append writer, Callbacks callbacks) {
     if (!isVoid) {
       String indent = optionalType ? "        " : "      ";
       if (optionalType) {
@@ -144,12 +151,24 @@ class MethodReader {
       }
       writer.append("builder.register(bean);").eol();
       if (notEmpty(initMethod)) {
-        writer.append(indent).append("builder.addPostConstruct($bean::%s);", initMethod).eol();
+        if (callbacks != null) {
+          writer.append(indent).append("builder.addPostConstruct(%s);", callbacks.postConstruct(shortName, initMethod)).eol();
+        } else {
+          writer.append(indent).append("builder.addPostConstruct($bean::%s);", initMethod).eol();
+        }
       }
       if (notEmpty(destroyMethod)) {
-        writer.append(indent).append("builder.addPreDestroy($bean::%s);", destroyMethod).eol();
+        if (callbacks != null) {
+          writer.append(indent).append("builder.addPreDestroy(%s);", callbacks.preDestroy(shortName, destroyMethod)).eol();
+        } else {
+          writer.append(indent).append("builder.addPreDestroy($bean::%s);", destroyMethod).eol();
+        }
       } else if (typeReader.isClosable()) {
-        writer.append(indent).append("builder.addPreDestroy($bean::close);", destroyMethod).eol();
+        if (callbacks != null) {
+          writer.append(indent).append("builder.addPreDestroy($bean);").eol();
+        } else {
+          writer.append(indent).append("builder.addPreDestroy($bean::close);", destroyMethod).eol();
+        }
       }
       if (optionalType) {
         writer.append("      }").eol();
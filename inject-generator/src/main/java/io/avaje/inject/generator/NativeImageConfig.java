@@ -0,0 +1,113 @@
+package io.avaje.inject.generator;
+
+import io.avaje.inject.spi.Proxy;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * GraalVM native-image reflection configuration for a module.
+ * <p>
+ * Registers the types that are accessed reflectively at runtime, these being the
+ * targets of generated proxies (aspect methods and fallback methods looked up via
+ * {@code getDeclaredMethod}) and beans with a {@code @Priority} annotation.
+ */
+class NativeImageConfig {
+
+  private static final String AVAJE_PRIORITY = "io.avaje.inject.Priority";
+
+  private final ProcessingContext context;
+
+  /**
+   * Reflection entries keyed by binary name (sorted for stable output).
+   */
+  private final Map<String, Entry> entries = new TreeMap<>();
+
+  NativeImageConfig(ProcessingContext context) {
+    this.context = context;
+  }
+
+  /**
+   * Read the reflection requirements of the given bean type.
+   */
+  void read(String rawType) {
+    TypeElement element = context.element(rawType);
+    if (element == null) {
+      return;
+    }
+    if (element.getAnnotation(Proxy.class) != null) {
+      TypeMirror superclass = element.getSuperclass();
+      if (superclass.getKind() == TypeKind.DECLARED) {
+        TypeElement target = (TypeElement) ((DeclaredType) superclass).asElement();
+        entry(target).allDeclaredMethods = true;
+      }
+    }
+    for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+      TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+      if (annotationType.getSimpleName().contentEquals("Priority")) {
+        entry(element);
+        if (!annotationType.getQualifiedName().contentEquals(AVAJE_PRIORITY)) {
+          // other Priority annotations have value() read reflectively
+          entry(annotationType).valueMethod = true;
+        }
+      }
+    }
+  }
+
+  private Entry entry(TypeElement element) {
+    return entries.computeIfAbsent(context.binaryName(element.getQualifiedName().toString()), Entry::new);
+  }
+
+  boolean isEmpty() {
+    return entries.isEmpty();
+  }
+
+  /**
+   * Return the content for reflect-config.json.
+   */
+  String reflectConfig() {
+    StringBuilder sb = new StringBuilder(100 + entries.size() * 80);
+    sb.append("[");
+    boolean first = true;
+    for (Entry entry : entries.values()) {
+      sb.append(first ? "\n" : ",\n");
+      first = false;
+      entry.append(sb);
+    }
+    return sb.append("\n]\n").toString();
+  }
+
+  /**
+   * Return the content for native-image.properties.
+   */
+  static String nativeImageProperties(String moduleFullName) {
+    return "Args = --initialize-at-build-time=" + moduleFullName + "\n";
+  }
+
+  private static class Entry {
+
+    private final String name;
+    private boolean allDeclaredMethods;
+    private boolean valueMethod;
+
+    Entry(String name) {
+      this.name = name;
+    }
+
+    void append(StringBuilder sb) {
+      sb.append("  {\n    \"name\": \"").append(name).append('"');
+      if (allDeclaredMethods) {
+        sb.append(",\n    \"allDeclaredMethods\": true");
+      }
+      if (valueMethod) {
+        sb.append(",\n    \"methods\": [{\"name\": \"value\", \"parameterTypes\": []}]");
+      }
+      sb.append("\n  }");
+    }
+  }
+}
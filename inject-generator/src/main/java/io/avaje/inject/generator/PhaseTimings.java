@@ -0,0 +1,43 @@
+package io.avaje.inject.generator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per phase annotation processor timings (enabled via <code>-Aavaje.inject.timings</code>).
+ */
+final class PhaseTimings {
+
+  private final Map<String, Phase> phases = new LinkedHashMap<>();
+
+  void add(String phase, long nanos) {
+    phases.computeIfAbsent(phase, s -> new Phase()).add(nanos);
+  }
+
+  String report() {
+    StringBuilder sb = new StringBuilder(50 + phases.size() * 50);
+    sb.append("avaje-inject processor timings");
+    long total = 0;
+    for (Map.Entry<String, Phase> entry : phases.entrySet()) {
+      Phase phase = entry.getValue();
+      total += phase.nanos;
+      sb.append("\n  ").append(entry.getKey()).append(": ").append(phase.nanos / 1000_000).append("ms");
+      if (phase.count > 1) {
+        sb.append(" (").append(phase.count).append(" times)");
+      }
+    }
+    sb.append("\n  total: ").append(total / 1000_000).append("ms");
+    return sb.toString();
+  }
+
+  private static final class Phase {
+
+    private long nanos;
+    private int count;
+
+    void add(long nanos) {
+      this.nanos += nanos;
+      this.count++;
+    }
+  }
+}
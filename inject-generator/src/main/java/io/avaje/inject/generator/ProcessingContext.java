@@ -28,6 +28,14 @@ class ProcessingContext {
   private final Elements elementUtils;
   private final Types typeUtils;
   private final Set<String> uniqueModuleNames = new HashSet<>();
+  private final Map<String, TypeElement> elements = new HashMap<>();
+  private final Map<String, GenericType> genericTypes = new HashMap<>();
+  private final PhaseTimings timings;
+  private final boolean inlineBeans;
+  private final boolean lambdaFree;
+  private final boolean lazyAspects;
+  private final boolean guardDependencies;
+  private final List<String> roots;
 
   ProcessingContext(ProcessingEnvironment processingEnv) {
     this.processingEnv = processingEnv;
@@ -35,6 +43,92 @@ class ProcessingContext {
     this.filer = processingEnv.getFiler();
     this.elementUtils = processingEnv.getElementUtils();
     this.typeUtils = processingEnv.getTypeUtils();
+    this.timings = processingEnv.getOptions().containsKey(Constants.OPTION_TIMINGS) ? new PhaseTimings() : null;
+    this.inlineBeans = processingEnv.getOptions().containsKey(Constants.OPTION_INLINE_BEANS);
+    this.lambdaFree = processingEnv.getOptions().containsKey(Constants.OPTION_LAMBDA_FREE);
+    this.lazyAspects = processingEnv.getOptions().containsKey(Constants.OPTION_LAZY_ASPECTS);
+    this.guardDependencies = processingEnv.getOptions().containsKey(Constants.OPTION_GUARD_DEPENDENCIES);
+    this.roots = roots(processingEnv.getOptions().get(Constants.OPTION_ROOTS));
+  }
+
+  private static List<String> roots(String option) {
+    List<String> roots = new ArrayList<>();
+    if (option != null) {
+      for (String root : option.split(",")) {
+        if (!root.trim().isEmpty()) {
+          roots.add(root.trim());
+        }
+      }
+    }
+    return roots;
+  }
+
+  /**
+   * Return the root types of the default module used to tree shake unreachable beans.
+   */
+  List<String> roots() {
+    return roots;
+  }
+
+  /**
+   * Return true if proxies resolve the Method and interceptors on first invocation (rather than in the constructor).
+   */
+  boolean lazyAspects() {
+    return lazyAspects;
+  }
+
+  /**
+   * Return true if beans only depended on by conditional beans get the conditions of their dependents.
+   */
+  boolean guardDependencies() {
+    return guardDependencies;
+  }
+
+  /**
+   * Return true if generated wiring code should not use lambdas or method references.
+   */
+  boolean lambdaFree() {
+    return lambdaFree;
+  }
+
+  /**
+   * Return true if simple beans should be built inline in the module (rather than via $DI).
+   */
+  boolean inlineBeans() {
+    return inlineBeans;
+  }
+
+  /**
+   * Clear the per round caches of type elements and generic types.
+   */
+  void nextRound() {
+    elements.clear();
+    genericTypes.clear();
+  }
+
+  /**
+   * Return the start time of a phase (when timings are enabled).
+   */
+  long timerStart() {
+    return timings == null ? 0 : System.nanoTime();
+  }
+
+  /**
+   * Add the time taken for the given phase (when timings are enabled).
+   */
+  void timerEnd(String phase, long start) {
+    if (timings != null) {
+      timings.add(phase, System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Log the per phase timings (when timings are enabled).
+   */
+  void logTimings() {
+    if (timings != null) {
+      messager.printMessage(Diagnostic.Kind.NOTE, timings.report());
+    }
   }
 
   /**
@@ -97,32 +191,65 @@ class ProcessingContext {
 
   /**
    * Create a file writer for the given class name.
+   * <p>
+   * The originating elements are the source types the file is generated from and
+   * are used by incremental builds (Gradle) to know when to regenerate or delete it.
    */
-  JavaFileObject createWriter(String cls) throws IOException {
-    return filer.createSourceFile(cls);
+  JavaFileObject createWriter(String cls, Element... originatingElements) throws IOException {
+    return filer.createSourceFile(cls, originatingElements);
   }
 
-  FileObject createMetaInfWriter(ScopeInfo.Type scopeType) throws IOException {
+  FileObject createMetaInfWriter(ScopeInfo.Type scopeType, Element... originatingElements) throws IOException {
     String serviceName = scopeType == ScopeInfo.Type.DEFAULT ? Constants.META_INF_MODULE : Constants.META_INF_TESTMODULE;
-    return createMetaInfWriterFor(serviceName);
+    return createMetaInfWriterFor(serviceName, originatingElements);
   }
 
-  private FileObject createMetaInfWriterFor(String interfaceType) throws IOException {
-    return filer.createResource(StandardLocation.CLASS_OUTPUT, "", interfaceType);
+  FileObject createMetaInfWriterFor(String interfaceType, Element... originatingElements) throws IOException {
+    return filer.createResource(StandardLocation.CLASS_OUTPUT, "", interfaceType, originatingElements);
   }
 
+  /**
+   * Return the type element for the given type (memoised for the round).
+   */
   TypeElement element(String rawType) {
-    return elementUtils.getTypeElement(rawType);
+    TypeElement element = elements.get(rawType);
+    if (element == null && !elements.containsKey(rawType)) {
+      element = elementUtils.getTypeElement(rawType);
+      elements.put(rawType, element);
+    }
+    return element;
   }
 
   TypeElement elementMaybe(String rawType) {
     if (rawType == null) {
       return null;
     } else {
-      return elementUtils.getTypeElement(rawType);
+      return element(rawType);
     }
   }
 
+  /**
+   * Return the parsed generic type (memoised for the round).
+   */
+  GenericType genericType(String rawType) {
+    return genericTypes.computeIfAbsent(rawType, GenericType::parse);
+  }
+
+  /**
+   * Return the binary name (with $ for nested types) of the type if known.
+   */
+  String binaryName(String rawType) {
+    TypeElement element = element(rawType);
+    return element == null ? rawType : elementUtils.getBinaryName(element).toString();
+  }
+
+  /**
+   * Return the erasure of the type (e.g. for class literals of generic types and type variables).
+   */
+  TypeMirror erasure(TypeMirror type) {
+    return typeUtils.erasure(type);
+  }
+
   Element asElement(TypeMirror returnType) {
     return typeUtils.asElement(returnType);
   }
@@ -39,6 +39,18 @@ public class Processor extends AbstractProcessor {
     this.defaultScope = allScopes.defaultScope();
   }
 
+  @Override
+  public Set<String> getSupportedOptions() {
+    Set<String> options = new LinkedHashSet<>();
+    options.add(Constants.OPTION_TIMINGS);
+    options.add(Constants.OPTION_INLINE_BEANS);
+    options.add(Constants.OPTION_LAMBDA_FREE);
+    options.add(Constants.OPTION_ROOTS);
+    options.add(Constants.OPTION_LAZY_ASPECTS);
+    options.add(Constants.OPTION_GUARD_DEPENDENCIES);
+    return options;
+  }
+
   @Override
   public Set<String> getSupportedAnnotationTypes() {
     Set<String> annotations = new LinkedHashSet<>();
@@ -53,6 +65,8 @@ public class Processor extends AbstractProcessor {
 
   @Override
   public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    context.nextRound();
+    long start = context.timerStart();
     Set<? extends Element> controllers = Collections.emptySet();
     TypeElement typeElement = elementUtils.getTypeElement(Constants.CONTROLLER);
     if (typeElement != null) {
@@ -70,8 +84,12 @@ public class Processor extends AbstractProcessor {
     readChangedBeans(controllers, false);
     readChangedBeans(proxies, false);
     allScopes.readBeans(roundEnv);
+    context.timerEnd("read beans", start);
     defaultScope.write(roundEnv.processingOver());
     allScopes.write(roundEnv.processingOver());
+    if (roundEnv.processingOver()) {
+      context.logTimings();
+    }
     return false;
   }
 
@@ -44,9 +44,11 @@ class ScopeInfo {
   private final Map<String, String> constructorDependencies = new LinkedHashMap<>();
   private final List<BeanReader> beanReaders = new ArrayList<>();
   private final Set<String> readBeans = new HashSet<>();
+  private final Set<Element> originatingElements = new LinkedHashSet<>();
   private final ProcessingContext context;
   private final Set<String> requires = new LinkedHashSet<>();
   private final Set<String> provides = new LinkedHashSet<>();
+  private final Set<String> roots = new LinkedHashSet<>();
   private final boolean defaultScope;
   private final TypeElement annotationType;
   private final AllScopes scopes;
@@ -87,7 +89,15 @@ class ScopeInfo {
       '}';
   }
 
+  /**
+   * Read the details from the source element (<code>@InjectModule</code> or scope annotation).
+   */
   void details(String name, Element contextElement) {
+    originatingElements.add(contextElement);
+    moduleDetails(name, contextElement);
+  }
+
+  private void moduleDetails(String name, Element contextElement) {
     if (name == null || name.isEmpty()) {
       final String simpleName = contextElement.getSimpleName().toString();
       this.name = ScopeUtil.name(simpleName);
@@ -100,6 +110,7 @@ class ScopeInfo {
   private void read(Element element) {
     requires(ScopeUtil.readRequires(element));
     provides(ScopeUtil.readProvides(element));
+    roots.addAll(ScopeUtil.readRoots(element));
   }
 
   private String initName(String topPackage) {
@@ -116,10 +127,17 @@ class ScopeInfo {
       final String name = initName(modulePackage);
       moduleShortName = name + "Module";
       moduleFullName = modulePackage + "." + moduleShortName;
-      moduleFile = context.createWriter(moduleFullName);
+      moduleFile = context.createWriter(moduleFullName, originatingElements());
     }
   }
 
+  /**
+   * Return the source elements the module is generated from (for incremental builds).
+   */
+  Element[] originatingElements() {
+    return originatingElements.toArray(new Element[0]);
+  }
+
   TypeElement annotationType() {
     return annotationType;
   }
@@ -164,6 +182,18 @@ class ScopeInfo {
     return provides;
   }
 
+  /**
+   * Return the root types used to tree shake unreachable beans (empty for no tree shaking).
+   */
+  Set<String> roots() {
+    if (!defaultScope || context.roots().isEmpty()) {
+      return roots;
+    }
+    Set<String> allRoots = new LinkedHashSet<>(roots);
+    allRoots.addAll(context.roots());
+    return allRoots;
+  }
+
   void writeBeanHelpers() {
     for (BeanReader beanReader : beanReaders) {
       try {
@@ -222,14 +252,23 @@ class ScopeInfo {
       }
       return;
     }
+    long start = context.timerStart();
     MetaDataOrdering ordering = new MetaDataOrdering(meta, context, this);
     int remaining = ordering.processQueue();
     if (remaining > 0) {
       ordering.logWarnings();
     }
+    Set<String> roots = roots();
+    if (!roots.isEmpty()) {
+      ordering.treeShake(roots);
+    }
+    ordering.initGuards();
+    context.timerEnd("order beans", start);
     try {
+      start = context.timerStart();
       SimpleModuleWriter factoryWriter = new SimpleModuleWriter(ordering, context, this);
       factoryWriter.write(type());
+      context.timerEnd("write module", start);
       moduleWritten = true;
     } catch (FilerException e) {
       context.logWarn("FilerException trying to write factory " + e.getMessage());
@@ -288,6 +327,7 @@ class ScopeInfo {
       return;
     }
     beanReaders.add(new BeanReader(typeElement, context, factory).read());
+    originatingElements.add(typeElement);
   }
 
   void readBuildMethodDependencyMeta(Element element) {
@@ -313,8 +353,12 @@ class ScopeInfo {
   }
 
   void write(boolean processingOver) {
+    long start = context.timerStart();
     mergeMetaData();
+    context.timerEnd("merge meta data", start);
+    start = context.timerStart();
     writeBeanHelpers();
+    context.timerEnd("write $DI", start);
     initialiseModule();
     if (processingOver && !metaData.isEmpty()) {
       writeModule();
@@ -333,6 +377,10 @@ class ScopeInfo {
       attributeClasses(leadingComma, writer, "requires", requires);
       leadingComma = true;
     }
+    if (!roots.isEmpty()) {
+      attributeClasses(leadingComma, writer, "roots", roots);
+      leadingComma = true;
+    }
     if (annotationType != null) {
       if (leadingComma) {
         writer.append(", ");
@@ -373,10 +421,10 @@ class ScopeInfo {
   }
 
   void buildFields(Append writer) {
-    writer.append("  private final Class<?>[] provides = ");
+    writer.append("  private static final Class<?>[] provides = ");
     buildClassArray(writer, provides);
     writer.append(";").eol();
-    writer.append("  private final Class<?>[] requires = ");
+    writer.append("  private static final Class<?>[] requires = ");
     buildClassArray(writer, requires);
     writer.append(";").eol();
     writer.append("  private Builder builder;").eol().eol();
@@ -385,7 +433,7 @@ class ScopeInfo {
   void readModuleMetaData(TypeElement moduleType) {
     context.logDebug("Reading module info for " + moduleType);
     InjectModule module = moduleType.getAnnotation(InjectModule.class);
-    details(module.name(), moduleType);
+    moduleDetails(module.name(), moduleType);
     readFactoryMetaData(moduleType);
   }
 
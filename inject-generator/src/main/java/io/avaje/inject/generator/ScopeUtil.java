@@ -18,6 +18,10 @@ class ScopeUtil {
     return readClasses(element, "requires");
   }
 
+  static List<String> readRoots(Element element) {
+    return readClasses(element, "roots");
+  }
+
   static List<String> readClasses(Element element, String attributeName) {
     if (element == null) {
       return Collections.emptyList();
@@ -14,6 +14,7 @@ class SimpleBeanProxyWriter {
   private final String shortName;
   private final String packageName;
   private final BeanAspects aspects;
+  private final boolean lazy;
   private Append writer;
 
   SimpleBeanProxyWriter(BeanReader beanReader, ProcessingContext context) {
@@ -26,6 +27,7 @@ class SimpleBeanProxyWriter {
     this.packageName = Util.packageOf(originName);
     this.suffix = "$Proxy";
     this.aspects = beanReader.aspects();
+    this.lazy = context.lazyAspects();
   }
 
   void write() throws IOException {
@@ -42,14 +44,18 @@ class SimpleBeanProxyWriter {
 
   private void writeMethods() {
     for (AspectMethod method : aspects.methods()) {
-      method.writeMethod(writer);
+      method.writeMethod(writer, lazy);
+      method.writeTargetClass(writer, shortName + suffix);
+      if (lazy) {
+        method.writeLazySetup(writer, shortName);
+      }
     }
   }
 
   private void writeFields() {
     aspects.writeFields(writer);
     for (AspectMethod method : aspects.methods()) {
-      method.writeSetupFields(writer);
+      method.writeSetupFields(writer, lazy);
     }
     writer.eol();
   }
@@ -72,7 +78,9 @@ class SimpleBeanProxyWriter {
       String name = AspectMethod.aspectTargetShortName(target);
       writer.append("    this.%s = %s;", name, name).eol();
     }
-    writeSetupForMethods();
+    if (!lazy) {
+      writeSetupForMethods();
+    }
     writer.append("  }").eol();
   }
 
@@ -112,7 +120,7 @@ class SimpleBeanProxyWriter {
   }
 
   private Writer createFileWriter() throws IOException {
-    JavaFileObject jfo = context.createWriter(originName + suffix);
+    JavaFileObject jfo = context.createWriter(originName + suffix, beanReader.getBeanType());
     return jfo.openWriter();
   }
 
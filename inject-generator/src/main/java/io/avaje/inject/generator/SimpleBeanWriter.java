@@ -25,6 +25,7 @@ class SimpleBeanWriter {
   private final String suffix;
   private final boolean proxied;
   private Append writer;
+  private Callbacks callbacks;
 
   SimpleBeanWriter(BeanReader beanReader, ProcessingContext context) {
     this.beanReader = beanReader;
@@ -40,6 +41,7 @@ class SimpleBeanWriter {
     }
     this.suffix = beanReader.suffix();
     this.proxied = beanReader.isGenerateProxy();
+    this.callbacks = context.lambdaFree() ? new Callbacks() : null;
   }
 
   private Writer createFileWriter() throws IOException {
@@ -47,7 +49,7 @@ class SimpleBeanWriter {
     if (beanReader.getBeanType().getNestingKind().isNested()) {
       originName = originName.replace(shortName, shortName.replace(".", "$"));
     }
-    JavaFileObject jfo = context.createWriter(originName + suffix);
+    JavaFileObject jfo = context.createWriter(originName + suffix, beanReader.getBeanType());
     return jfo.openWriter();
   }
 
@@ -63,11 +65,23 @@ class SimpleBeanWriter {
       writeGenericProviders();
       writeStaticFactoryMethod();
       writeStaticFactoryBeanMethods();
+      if (callbacks != null && !callbacks.isEmpty()) {
+        callbacks.write(writer);
+      }
     }
     writeClassEnd();
     writer.close();
   }
 
+  /**
+   * Write the construction, registration and lifecycle wiring of the bean inline (in the module).
+   */
+  void writeInline(Append writer, Callbacks callbacks) {
+    this.writer = writer;
+    this.callbacks = callbacks;
+    writeAddFor(beanReader.getConstructor());
+  }
+
   private void writeGenericProviders() {
     final Set<GenericType> genericTypes = beanReader.getGenericTypes();
     if (genericTypes != null && !genericTypes.isEmpty()) {
@@ -124,7 +138,7 @@ class SimpleBeanWriter {
     method.buildAddFor(writer);
     writer.append(method.builderGetFactory()).eol();
     writer.append(method.builderBuildBean()).eol();
-    method.builderBuildAddBean(writer);
+    method.builderBuildAddBean(writer, callbacks);
     writer.append("    }").eol();
     writer.append("  }").eol().eol();
   }
@@ -148,7 +162,7 @@ class SimpleBeanWriter {
     beanReader.buildAddFor(writer);
     writeCreateBean(constructor);
     beanReader.buildRegister(writer);
-    beanReader.addLifecycleCallbacks(writer);
+    beanReader.addLifecycleCallbacks(writer, callbacks);
     if (beanReader.isExtraInjectionRequired()) {
       writeExtraInjection();
     }
@@ -181,6 +195,10 @@ class SimpleBeanWriter {
   }
 
   private void writeExtraInjection() {
+    if (callbacks != null && !hasProviderParams()) {
+      writeExtraInjectionCallback();
+      return;
+    }
     writer.append("      builder.addInjector(b -> {").eol();
     writer.append("        // field and method injection").eol();
     injectFields();
@@ -188,6 +206,34 @@ class SimpleBeanWriter {
     writer.append("      });").eol();
   }
 
+  /**
+   * Field and method injection via the callback class rather than a lambda.
+   */
+  private void writeExtraInjectionCallback() {
+    Append builderWriter = writer;
+    int id = callbacks.injectorStart(shortName);
+    writer = callbacks.injector();
+    injectFields();
+    injectMethods();
+    callbacks.injectorEnd();
+    writer = builderWriter;
+    writer.append("      builder.addInjector(new %s(%s, $bean));", Callbacks.CLASS_NAME, id).eol();
+  }
+
+  /**
+   * Generic method injection parameters are passed as providers to the build method (captured by the lambda).
+   */
+  private boolean hasProviderParams() {
+    for (MethodReader methodReader : beanReader.getInjectMethods()) {
+      for (MethodReader.MethodParam param : methodReader.getParams()) {
+        if (param.isGenericParam()) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
   private void injectFields() {
     for (FieldReader fieldReader : beanReader.getInjectFields()) {
       String fieldName = fieldReader.getFieldName();
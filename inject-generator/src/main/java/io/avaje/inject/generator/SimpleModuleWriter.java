@@ -5,7 +5,10 @@ import javax.lang.model.element.TypeElement;
 import javax.tools.FileObject;
 import java.io.IOException;
 import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
@@ -43,6 +46,31 @@ class SimpleModuleWriter {
       "   * field injection, method injection and lifecycle support.\n" +
       "   */";
 
+  /**
+   * Estimated bytecode size of a call to a build method (aload_0, invokevirtual).
+   */
+  private static final int BUILD_CALL_BYTES = 4;
+
+  /**
+   * Estimated bytecode size of setting a class array element (aload, sipush, ldc_w, aastore).
+   */
+  private static final int CLASS_ELEMENT_BYTES = 8;
+
+  /**
+   * Maximum estimated bytecode size of a generated method. Keeps methods below the 8000 byte
+   * limit above which HotSpot does not JIT compile them (DontCompileHugeMethods) and well
+   * below the 64KB method size limit.
+   */
+  private static final int MAX_METHOD_BYTES = 7000;
+
+  /**
+   * Marks a simple name used by more than one type (with inline beans).
+   */
+  private static final String CLASHING = "";
+
+  static final int BUILD_CHUNK = MAX_METHOD_BYTES / BUILD_CALL_BYTES;
+  static final int CLASSES_CHUNK = MAX_METHOD_BYTES / CLASS_ELEMENT_BYTES;
+
   private final ProcessingContext context;
   private final String modulePackage;
   private final String shortName;
@@ -50,6 +78,8 @@ class SimpleModuleWriter {
   private final ScopeInfo scopeInfo;
   private final MetaDataOrdering ordering;
 
+  private final Set<String> inlineImports = new TreeSet<>();
+  private final Callbacks callbacks;
   private Append writer;
 
   SimpleModuleWriter(MetaDataOrdering ordering, ProcessingContext context, ScopeInfo scopeInfo) {
@@ -59,25 +89,104 @@ class SimpleModuleWriter {
     this.modulePackage = scopeInfo.modulePackage();
     this.shortName = scopeInfo.moduleShortName();
     this.fullName = scopeInfo.moduleFullName();
+    this.callbacks = context.lambdaFree() ? new Callbacks() : null;
   }
 
   void write(ScopeInfo.Type scopeType) throws IOException {
+    if (context.inlineBeans()) {
+      initInlineBeans();
+    }
     writer = new Append(createFileWriter());
     writePackage();
     writeStartClass();
     writeClassesMethod();
     writeBuildMethod();
     writeBuildMethods();
+    if (callbacks != null && !callbacks.isEmpty()) {
+      callbacks.write(writer);
+    }
     writeEndClass();
     writer.close();
     if (scopeType != ScopeInfo.Type.CUSTOM) {
       writeServicesFile(scopeType);
     }
+    writeClassList();
+    writeNativeImageConfig();
+    writeDependencyGraph();
+  }
+
+  /**
+   * Write the bean dependency graph as JSON and DOT.
+   */
+  private void writeDependencyGraph() {
+    DependencyGraph graph = new DependencyGraph(context, fullName, ordering);
+    context.logDebug("longest dependency chain " + graph.longestChain());
+    writeResource(String.format(Constants.META_INF_GRAPH, fullName, "json"), graph.json());
+    writeResource(String.format(Constants.META_INF_GRAPH, fullName, "dot"), graph.dot());
+  }
+
+  /**
+   * Write GraalVM native-image reflect-config.json and native-image.properties for the module.
+   */
+  private void writeNativeImageConfig() {
+    NativeImageConfig config = new NativeImageConfig(context);
+    for (MetaData metaData : ordering.reachable()) {
+      if (!metaData.hasMethod()) {
+        config.read(metaData.getType());
+      }
+    }
+    writeResource(nativeImageResource("native-image.properties"), NativeImageConfig.nativeImageProperties(fullName));
+    if (!config.isEmpty()) {
+      writeResource(nativeImageResource("reflect-config.json"), config.reflectConfig());
+    }
+  }
+
+  private String nativeImageResource(String fileName) {
+    return String.format(Constants.META_INF_NATIVE_IMAGE, modulePackage, shortName, fileName);
+  }
+
+  private void writeResource(String resourceName, String content) {
+    try {
+      FileObject jfo = context.createMetaInfWriterFor(resourceName, scopeInfo.originatingElements());
+      if (jfo != null) {
+        Writer writer = jfo.openWriter();
+        writer.write(content);
+        writer.close();
+      }
+    } catch (IOException e) {
+      e.printStackTrace();
+      context.logError("Failed to write " + resourceName + " " + e.getMessage());
+    }
+  }
+
+  /**
+   * Write the list of generated and wired classes in load order (AppCDS class list format).
+   */
+  private void writeClassList() {
+    Set<String> classes = new LinkedHashSet<>();
+    classes.add(fullName);
+    for (MetaData metaData : ordering.reachable()) {
+      metaData.addClassList(classes, context);
+    }
+    try {
+      FileObject jfo = context.createMetaInfWriterFor(String.format(Constants.META_INF_CLASSLIST, fullName), scopeInfo.originatingElements());
+      if (jfo != null) {
+        Writer writer = jfo.openWriter();
+        for (String cls : classes) {
+          writer.write(context.binaryName(cls).replace('.', '/'));
+          writer.write("\n");
+        }
+        writer.close();
+      }
+    } catch (IOException e) {
+      e.printStackTrace();
+      context.logError("Failed to write class list file " + e.getMessage());
+    }
   }
 
   private void writeServicesFile(ScopeInfo.Type scopeType) {
     try {
-      FileObject jfo = context.createMetaInfWriter(scopeType);
+      FileObject jfo = context.createMetaInfWriter(scopeType, scopeInfo.originatingElements());
       if (jfo != null) {
         Writer writer = jfo.openWriter();
         writer.write(fullName);
@@ -91,6 +200,10 @@ class SimpleModuleWriter {
 
   private void writeClassesMethod() {
     Set<String> allClasses = distinctPublicClasses();
+    if (allClasses.size() > CLASSES_CHUNK) {
+      writeClassesChunks(new ArrayList<>(allClasses));
+      return;
+    }
     writer.append("  @Override").eol();
     writer.append("  public Class<?>[] classes() {").eol();
     writer.append("    return new Class<?>[]{").eol();
@@ -101,15 +214,42 @@ class SimpleModuleWriter {
     writer.append("  }").eol().eol();
   }
 
+  /**
+   * Large modules populate the classes array using chunk methods of bounded size.
+   */
+  private void writeClassesChunks(List<String> allClasses) {
+    int chunks = chunks(allClasses.size(), CLASSES_CHUNK);
+    writer.append("  @Override").eol();
+    writer.append("  public Class<?>[] classes() {").eol();
+    writer.append("    Class<?>[] classes = new Class<?>[%s];", allClasses.size()).eol();
+    for (int i = 0; i < chunks; i++) {
+      writer.append("    classesChunk%s(classes);", i).eol();
+    }
+    writer.append("    return classes;").eol();
+    writer.append("  }").eol().eol();
+    for (int i = 0; i < chunks; i++) {
+      writer.append("  private static void classesChunk%s(Class<?>[] classes) {", i).eol();
+      int end = Math.min(allClasses.size(), (i + 1) * CLASSES_CHUNK);
+      for (int j = i * CLASSES_CHUNK; j < end; j++) {
+        writer.append("    classes[%s] = %s.class;", j, allClasses.get(j)).eol();
+      }
+      writer.append("  }").eol().eol();
+    }
+  }
+
+  private static int chunks(int size, int chunkSize) {
+    return (size + chunkSize - 1) / chunkSize;
+  }
+
   /**
    * Return the distinct set of public classes that are dependency types.
    */
   private Set<String> distinctPublicClasses() {
     Set<String> publicClasses = new LinkedHashSet<>();
-    for (MetaData metaData : ordering.ordered()) {
+    for (MetaData metaData : ordering.reachable()) {
       String rawType = metaData.getType();
       if (!"void".equals(rawType)) {
-        String type = GenericType.parse(rawType).topType();
+        String type = context.genericType(rawType).topType();
         TypeElement element = context.element(type);
         if (element != null && element.getModifiers().contains(Modifier.PUBLIC)) {
           publicClasses.add(type);
@@ -129,26 +269,126 @@ class SimpleModuleWriter {
     writer.append("    this.builder = builder;").eol();
     writer.append("    // create beans in order based on constructor dependencies").eol();
     writer.append("    // i.e. \"provides\" followed by \"dependsOn\"").eol();
-    for (MetaData metaData : ordering.ordered()) {
-      writer.append("    build_%s();", metaData.getBuildName()).eol();
+    List<MetaData> ordered = ordering.reachable();
+    if (ordered.size() <= BUILD_CHUNK) {
+      for (MetaData metaData : ordered) {
+        writer.append("    build_%s();", metaData.getBuildName()).eol();
+      }
+      writer.append("  }").eol();
+      writer.eol();
+    } else {
+      writeBuildChunks(ordered);
+    }
+  }
+
+  /**
+   * Large modules call the build methods in order via chunk methods of bounded size.
+   */
+  private void writeBuildChunks(List<MetaData> ordered) {
+    int chunks = chunks(ordered.size(), BUILD_CHUNK);
+    for (int i = 0; i < chunks; i++) {
+      writer.append("    buildChunk%s();", i).eol();
     }
     writer.append("  }").eol();
     writer.eol();
+    for (int i = 0; i < chunks; i++) {
+      writer.append("  private void buildChunk%s() {", i).eol();
+      int end = Math.min(ordered.size(), (i + 1) * BUILD_CHUNK);
+      for (MetaData metaData : ordered.subList(i * BUILD_CHUNK, end)) {
+        writer.append("    build_%s();", metaData.getBuildName()).eol();
+      }
+      writer.append("  }").eol();
+      writer.eol();
+    }
   }
 
+  /**
+   * Write the build methods. Unreachable beans (tree shaking) still have their build method
+   * and meta data written to support partial compilation but are not called from build().
+   */
   private void writeBuildMethods() {
     for (MetaData metaData : ordering.ordered()) {
-      writer.append(metaData.buildMethod(ordering)).eol();
+      if (metaData.isInlined()) {
+        writer.append(metaData.buildMethodStart());
+        new SimpleBeanWriter(metaData.beanReader(), context).writeInline(writer, callbacks);
+        writer.append("  }").eol().eol();
+      } else {
+        writer.append(metaData.buildMethod(ordering)).eol();
+      }
+    }
+  }
+
+  /**
+   * Determine the simple beans that are built inline in the module (rather than via $DI).
+   * <p>
+   * Beans read in this compilation that are accessible from the module package are inlined
+   * when their imports do not clash with the other simple names used in the module.
+   */
+  private void initInlineBeans() {
+    Map<String, String> simpleNames = new HashMap<>();
+    simpleNames.put("Class", "java.lang.Class");
+    simpleNames.put("Override", "java.lang.Override");
+    for (String type : factoryImportTypes()) {
+      simpleNames.put(Util.shortName(type), type);
+    }
+    for (MetaData metaData : ordering.ordered()) {
+      if (!metaData.hasMethod()) {
+        addSimpleName(simpleNames, Util.shortName(metaData.getType()), metaData.getType());
+        addSimpleName(simpleNames, Util.shortName(metaData.getType()) + Constants.DI, metaData.getType() + Constants.DI);
+      }
+    }
+    int inlined = 0;
+    for (MetaData metaData : ordering.reachable()) {
+      BeanReader beanReader = metaData.beanReader();
+      if (!metaData.hasMethod() && beanReader != null && beanReader.isInlineable(modulePackage)) {
+        Set<String> imports = beanReader.inlineImportTypes();
+        if (noClash(simpleNames, imports)) {
+          for (String type : imports) {
+            simpleNames.put(Util.shortName(type), type);
+          }
+          inlineImports.addAll(imports);
+          metaData.setInlined();
+          inlined++;
+        }
+      }
     }
+    context.logDebug("inlined " + inlined + " of " + ordering.ordered().size() + " beans in " + fullName);
+  }
+
+  /**
+   * Add the simple name marking it as clashing (such that no bean using it is inlined) when it
+   * is already used for another type (e.g. a bean named Module).
+   */
+  private static void addSimpleName(Map<String, String> simpleNames, String simpleName, String type) {
+    String existing = simpleNames.putIfAbsent(simpleName, type);
+    if (existing != null && !existing.equals(type)) {
+      simpleNames.put(simpleName, CLASHING);
+    }
+  }
+
+  private static boolean noClash(Map<String, String> simpleNames, Set<String> imports) {
+    for (String type : imports) {
+      String existing = simpleNames.get(Util.shortName(type));
+      if (existing != null && !existing.equals(type)) {
+        return false;
+      }
+    }
+    return true;
   }
 
   private void writePackage() {
     writer.append("package %s;", modulePackage).eol().eol();
-    for (String type : factoryImportTypes()) {
+    Set<String> imported = factoryImportTypes();
+    for (String type : imported) {
       writer.append("import %s;", type).eol();
     }
     for (String type : scopeInfo.initModuleDependencies(ordering.importTypes())) {
-      if (Util.validImportType(type)) {
+      if (Util.validImportType(type) && imported.add(type)) {
+        writer.append("import %s;", type).eol();
+      }
+    }
+    for (String type : inlineImports) {
+      if (imported.add(type)) {
         writer.append("import %s;", type).eol();
       }
     }
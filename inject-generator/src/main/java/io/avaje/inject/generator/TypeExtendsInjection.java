@@ -137,9 +137,9 @@ class TypeExtendsInjection {
     int nameIndex = methodNameIndex(methodElement.getSimpleName().toString());
     List<AspectPair> aspectPairs = new AspectAnnotationReader(context, baseType, methodElement).read();
     if (!aspectPairs.isEmpty()) {
-      aspectMethods.add(new AspectMethod(nameIndex, aspectPairs, methodElement));
+      aspectMethods.add(new AspectMethod(context, nameIndex, aspectPairs, methodElement));
     } else if (!typeAspects.isEmpty()) {
-      aspectMethods.add(new AspectMethod(nameIndex, typeAspects, methodElement));
+      aspectMethods.add(new AspectMethod(context, nameIndex, typeAspects, methodElement));
     }
   }
 
@@ -151,7 +151,7 @@ class TypeExtendsReader {
   }
 
   private void readExtendedInterfaces(String type) {
-    GenericType genericType = GenericType.parse(type);
+    GenericType genericType = context.genericType(type);
     final TypeElement element = context.element(genericType.topType());
     if (element != null) {
       readInterfaces(element);
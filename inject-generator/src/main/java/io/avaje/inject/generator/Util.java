@@ -10,6 +10,12 @@ import javax.lang.model.type.TypeMirror;
 
 class Util {
 
+  /**
+   * Prefix of a soft dependency (from <code>@RequiresBean</code>). The providers in the module
+   * are built first but the dependency is not required.
+   */
+  static final String SOFT_PREFIX = "soft:";
+
   private static final String PROVIDER_PREFIX = "jakarta.inject.Provider<";
   private static final String OPTIONAL_PREFIX = "java.util.Optional<";
   private static final String NULLABLE = "Nullable";
@@ -19,6 +25,32 @@ class Util {
     return "void".equalsIgnoreCase(type);
   }
 
+  /**
+   * Return the boxed type for a primitive type (or the type itself when not primitive).
+   */
+  static String boxedType(String type) {
+    switch (type) {
+      case "boolean":
+        return "Boolean";
+      case "byte":
+        return "Byte";
+      case "char":
+        return "Character";
+      case "short":
+        return "Short";
+      case "int":
+        return "Integer";
+      case "long":
+        return "Long";
+      case "float":
+        return "Float";
+      case "double":
+        return "Double";
+      default:
+        return type;
+    }
+  }
+
   static boolean validImportType(String type) {
     return type.indexOf('.') > 0;
   }
@@ -134,6 +166,20 @@ class Util {
     return rawType.startsWith(PROVIDER_PREFIX);
   }
 
+  static boolean isSoftDependency(String dependency) {
+    return dependency.startsWith(SOFT_PREFIX);
+  }
+
+  /**
+   * Return the type of the dependency without the soft prefix or provider.
+   */
+  static String dependencyType(String dependency) {
+    if (isSoftDependency(dependency)) {
+      return dependency.substring(SOFT_PREFIX.length());
+    }
+    return unwrapProvider(dependency);
+  }
+
   private static String extractProviderType(String rawType) {
     return rawType.substring(PROVIDER_LENGTH, rawType.length() - 1);
   }
@@ -0,0 +1,31 @@
+package io.avaje.inject.generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AppendTest {
+
+  @Test
+  void append_format() {
+    assertThat(format("  build_%s();", "foo")).isEqualTo("  build_foo();");
+    assertThat(format("%s.%s(%s)", "a", "b", null)).isEqualTo("a.b(null)");
+    assertThat(format("100%% %s", 1)).isEqualTo("100% 1");
+    assertThat(format("no args")).isEqualTo("no args");
+    assertThat(format("%s", 42)).isEqualTo("42");
+  }
+
+  @Test
+  void append_format_otherSpecifiers() {
+    assertThat(format("%s is %d", "count", 42)).isEqualTo("count is 42");
+    assertThat(format("%s [%5s]", "a", "b")).isEqualTo("a [    b]");
+  }
+
+  private static String format(String format, Object... args) {
+    StringWriter writer = new StringWriter();
+    new Append(writer).append(format, args);
+    return writer.toString();
+  }
+}
@@ -0,0 +1,59 @@
+package io.avaje.inject.generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BeanConditionsTest {
+
+  @Test
+  void expression_property() {
+    assertThat(BeanConditions.expression(Collections.singletonList("property:feature.enabled")))
+      .isEqualTo("builder.property(\"feature.enabled\") != null");
+  }
+
+  @Test
+  void expression_propertyEqualTo() {
+    assertThat(BeanConditions.expression(Collections.singletonList("property:sender=smtp")))
+      .isEqualTo("\"smtp\".equals(builder.property(\"sender\"))");
+  }
+
+  @Test
+  void expression_propertyNotEqualTo() {
+    assertThat(BeanConditions.expression(Collections.singletonList("property:sender!=smtp")))
+      .isEqualTo("(builder.property(\"sender\") != null && !\"smtp\".equals(builder.property(\"sender\")))");
+  }
+
+  @Test
+  void expression_profile() {
+    assertThat(BeanConditions.expression(Collections.singletonList("profile:dev,test")))
+      .isEqualTo("builder.isProfileActive(\"dev\", \"test\")");
+  }
+
+  @Test
+  void expression_beans() {
+    assertThat(BeanConditions.expression(Arrays.asList("bean:org.bench.Repo", "missing:org.bench.Sender")))
+      .isEqualTo("builder.contains(org.bench.Repo.class) && !builder.contains(org.bench.Sender.class)");
+  }
+
+  @Test
+  void expression_quoted() {
+    assertThat(BeanConditions.expression(Collections.singletonList("property:a=\"b\\c\"")))
+      .isEqualTo("\"\\\"b\\\\c\\\"\".equals(builder.property(\"a\"))");
+  }
+
+  @Test
+  void expression_none() {
+    assertThat(BeanConditions.expression(Collections.emptyList())).isNull();
+  }
+
+  @Test
+  void staticExpression_excludesBeans() {
+    assertThat(BeanConditions.staticExpression(Arrays.asList("bean:org.bench.Repo", "property:feature", "profile:dev")))
+      .isEqualTo("builder.property(\"feature\") != null && builder.isProfileActive(\"dev\")");
+    assertThat(BeanConditions.staticExpression(Collections.singletonList("missing:org.bench.Sender"))).isNull();
+  }
+}
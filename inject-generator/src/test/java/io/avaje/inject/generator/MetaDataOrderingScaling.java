@@ -0,0 +1,65 @@
+package io.avaje.inject.generator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures the scaling of ordering a long chain of beans in reverse order (the worst case of
+ * looping the queue). This is not a unit test and is not run by the build, run the main method
+ * to print the timings.
+ */
+final class MetaDataOrderingScaling {
+
+  private static final int[] SIZES = {100, 1_000, 10_000, 50_000};
+  private static final int WARMUP = 5;
+  private static final int RUNS = 5;
+
+  private final ProcessingContext context = mock(ProcessingContext.class);
+  private final ScopeInfo scopeInfo = new ScopeInfo(context);
+
+  public static void main(String[] args) {
+    MetaDataOrderingScaling scaling = new MetaDataOrderingScaling();
+    for (int i = 0; i < WARMUP; i++) {
+      for (int size : SIZES) {
+        scaling.order(size);
+      }
+    }
+    for (int size : SIZES) {
+      long best = Long.MAX_VALUE;
+      for (int i = 0; i < RUNS; i++) {
+        best = Math.min(best, scaling.order(size));
+      }
+      System.out.printf("MetaDataOrdering %,d beans in %,dus%n", size, best / 1000);
+    }
+  }
+
+  /**
+   * Return the nanos taken to order the chain of the given size.
+   */
+  private long order(int size) {
+    List<MetaData> beans = new ArrayList<>(size);
+    for (int i = size - 1; i > 0; i--) {
+      beans.add(meta("B" + i, "B" + (i - 1)));
+    }
+    beans.add(meta("B0", null));
+
+    long start = System.nanoTime();
+    MetaDataOrdering ordering = new MetaDataOrdering(beans, context, scopeInfo);
+    int remaining = ordering.processQueue();
+    long nanos = System.nanoTime() - start;
+    if (remaining != 0) {
+      throw new IllegalStateException("Expected all beans ordered but " + remaining + " remain");
+    }
+    return nanos;
+  }
+
+  private static MetaData meta(String type, String dependsOn) {
+    MetaData metaData = new MetaData(type, null);
+    metaData.setDependsOn(dependsOn == null ? new ArrayList<>() : new ArrayList<>(Collections.singletonList(dependsOn)));
+    metaData.setProvides(new ArrayList<>());
+    return metaData;
+  }
+}
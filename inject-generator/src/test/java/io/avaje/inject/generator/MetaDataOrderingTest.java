@@ -0,0 +1,276 @@
+package io.avaje.inject.generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MetaDataOrderingTest {
+
+  private final ProcessingContext context = mock(ProcessingContext.class);
+  private final ScopeInfo scopeInfo = new ScopeInfo(context);
+
+  @Test
+  void dependsOn() {
+    List<MetaData> beans = new ArrayList<>();
+    beans.add(meta("C", list("B")));
+    beans.add(meta("B", list("A")));
+    beans.add(meta("D", list("jakarta.inject.Provider<C>")));
+    beans.add(meta("A", list()));
+
+    MetaDataOrdering ordering = new MetaDataOrdering(beans, context, scopeInfo);
+    assertThat(ordering.processQueue()).isEqualTo(0);
+    assertThat(types(ordering.ordered())).containsExactly("A", "B", "D", "C");
+  }
+
+  @Test
+  void dependsOn_interface() {
+    List<MetaData> beans = new ArrayList<>();
+    beans.add(meta("C", list("IFoo")));
+    beans.add(meta("A", list("B")));
+    beans.add(meta("B", list(), "IFoo"));
+    beans.add(meta("B2", list("A"), "IFoo"));
+
+    MetaDataOrdering ordering = new MetaDataOrdering(beans, context, scopeInfo);
+    assertThat(ordering.processQueue()).isEqualTo(0);
+    assertThat(types(ordering.ordered())).containsExactly("B", "A", "B2", "C");
+  }
+
+  @Test
+  void circular_remainsInQueue() {
+    List<MetaData> beans = new ArrayList<>();
+    beans.add(meta("A", list("B")));
+    beans.add(meta("B", list("A")));
+    beans.add(meta("C", list()));
+
+    MetaDataOrdering ordering = new MetaDataOrdering(beans, context, scopeInfo);
+    assertThat(ordering.processQueue()).isEqualTo(2);
+    assertThat(types(ordering.ordered())).containsExactly("C", "A", "B");
+  }
+
+  @Test
+  void treeShake_fromRoots() {
+    List<MetaData> beans = new ArrayList<>();
+    beans.add(meta("A", list()));
+    beans.add(meta("B", list("A")));
+    beans.add(meta("C", list("IFoo", "jakarta.inject.Provider<E>")));
+    beans.add(meta("D", list("B")));
+    beans.add(meta("E", list()));
+    beans.add(meta("F", list(), "IFoo"));
+    beans.add(meta("G", list("F")));
+
+    MetaDataOrdering ordering = new MetaDataOrdering(beans, context, scopeInfo);
+    assertThat(ordering.processQueue()).isEqualTo(0);
+    List<MetaData> unreachable = ordering.treeShake(list("C"));
+
+    assertThat(types(unreachable)).containsExactly("A", "B", "D", "G");
+    assertThat(types(ordering.reachable())).containsExactly("E", "F", "C");
+    assertThat(ordering.ordered()).hasSize(7);
+    assertThat(unreachable.get(0).isUnreachable()).isTrue();
+  }
+
+  @Test
+  void softDependency_providersFirst() {
+    List<MetaData> beans = new ArrayList<>();
+    beans.add(meta("Repo", list()));
+    beans.add(meta("NoopSender", list("soft:Sender"), "Sender"));
+    beans.add(meta("SmtpSender", list("Repo"), "Sender"));
+    beans.add(meta("Feature", list("soft:Missing")));
+
+    MetaDataOrdering ordering = new MetaDataOrdering(beans, context, scopeInfo);
+    assertThat(ordering.processQueue()).isEqualTo(0);
+    // NoopSender is ready after SmtpSender (behind it in the queue) so is ordered in the next loop
+    assertThat(types(ordering.ordered())).containsExactly("Repo", "SmtpSender", "Feature", "NoopSender");
+  }
+
+  @Test
+  void initGuards_conditionalOnly() {
+    List<MetaData> beans = guardedBeans();
+    MetaDataOrdering ordering = new MetaDataOrdering(beans, context, scopeInfo);
+    assertThat(ordering.processQueue()).isEqualTo(0);
+    ordering.initGuards();
+
+    assertThat(beans.get(0).guard()).isNull();
+    assertThat(beans.get(1).guard()).isEqualTo("builder.property(\"feature.x\") != null");
+    assertThat(beans.get(1).buildMethodStart()).contains("conditions={\"property:feature.x\"}",
+      "    if (!(builder.property(\"feature.x\") != null)) {\n      return;\n    }\n");
+  }
+
+  @Test
+  void initGuards_guardDependencies() {
+    when(context.guardDependencies()).thenReturn(true);
+    List<MetaData> beans = guardedBeans();
+    beans.add(meta("Other", list("Shared")));
+    MetaDataOrdering ordering = new MetaDataOrdering(beans, context, scopeInfo);
+    assertThat(ordering.processQueue()).isEqualTo(0);
+    ordering.initGuards();
+
+    // Helper is only used by the conditional Feature, Shared is also used by Other
+    assertThat(beans.get(0).guard()).isEqualTo("builder.property(\"feature.x\") != null");
+    assertThat(beans.get(1).guard()).isEqualTo("builder.property(\"feature.x\") != null");
+    assertThat(beans.get(2).guard()).isNull();
+    assertThat(beans.get(3).guard()).isNull();
+  }
+
+  private static List<MetaData> guardedBeans() {
+    List<MetaData> beans = new ArrayList<>();
+    beans.add(meta("Helper", list()));
+    MetaData feature = meta("Feature", list("Helper", "Shared"));
+    feature.setConditions(list("property:feature.x"));
+    beans.add(feature);
+    beans.add(meta("Shared", list()));
+    return beans;
+  }
+
+  /**
+   * Same order as the previous implementation that repeatedly looped over the queue.
+   */
+  @Test
+  void order_sameAsLoopingQueue() {
+    Random random = new Random(42);
+    for (int graph = 0; graph < 200; graph++) {
+      int size = 1 + random.nextInt(60);
+      List<MetaData> beans = randomBeans(random, size);
+      List<MetaData> copy = copy(beans);
+
+      MetaDataOrdering ordering = new MetaDataOrdering(beans, context, scopeInfo);
+      int remaining = ordering.processQueue();
+
+      LoopingQueue expected = new LoopingQueue(copy);
+      assertThat(types(ordering.ordered())).isEqualTo(expected.ordered);
+      assertThat(remaining).isEqualTo(expected.remaining);
+    }
+  }
+
+  /**
+   * Ordering a long chain of beans in reverse order (the worst case of looping the queue).
+   */
+  @Test
+  void reverseChain() {
+    int size = 10_000;
+    List<MetaData> beans = new ArrayList<>(size);
+    for (int i = size - 1; i > 0; i--) {
+      beans.add(meta("B" + i, list("B" + (i - 1))));
+    }
+    beans.add(meta("B0", list()));
+
+    MetaDataOrdering ordering = new MetaDataOrdering(beans, context, scopeInfo);
+    assertThat(ordering.processQueue()).isEqualTo(0);
+
+    List<MetaData> ordered = ordering.ordered();
+    assertThat(ordered).hasSize(size);
+    assertThat(ordered.get(0).getType()).isEqualTo("B0");
+    assertThat(ordered.get(size - 1).getType()).isEqualTo("B" + (size - 1));
+  }
+
+  private List<MetaData> randomBeans(Random random, int size) {
+    List<MetaData> beans = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      List<String> dependsOn = new ArrayList<>();
+      int dependencies = random.nextInt(4);
+      for (int j = 0; j < dependencies; j++) {
+        int target = random.nextInt(size + 2);
+        String type = target < size ? "B" + target : "I" + random.nextInt(3);
+        if (random.nextInt(10) == 0) {
+          type = "jakarta.inject.Provider<" + type + ">";
+        } else if (random.nextInt(40) == 0) {
+          type = "Missing";
+        }
+        dependsOn.add(type);
+      }
+      String[] provides = random.nextInt(3) == 0 ? new String[]{"I" + random.nextInt(3)} : new String[0];
+      beans.add(meta("B" + i, dependsOn, provides));
+    }
+    return beans;
+  }
+
+  private List<MetaData> copy(List<MetaData> beans) {
+    List<MetaData> copy = new ArrayList<>(beans.size());
+    for (MetaData bean : beans) {
+      MetaData metaData = new MetaData(bean.getType(), null);
+      metaData.setDependsOn(bean.getDependsOn());
+      metaData.setProvides(bean.getProvides());
+      copy.add(metaData);
+    }
+    return copy;
+  }
+
+  private static MetaData meta(String type, List<String> dependsOn, String... provides) {
+    MetaData metaData = new MetaData(type, null);
+    metaData.setDependsOn(dependsOn);
+    metaData.setProvides(list(provides));
+    return metaData;
+  }
+
+  private static List<String> list(String... values) {
+    return new ArrayList<>(Arrays.asList(values));
+  }
+
+  private static List<String> types(List<MetaData> beans) {
+    List<String> types = new ArrayList<>(beans.size());
+    for (MetaData bean : beans) {
+      types.add(bean.getType());
+    }
+    return types;
+  }
+
+  /**
+   * Reference implementation looping the queue until no more beans are wired.
+   */
+  private static final class LoopingQueue {
+
+    private final Map<String, List<MetaData>> providers = new HashMap<>();
+    private final Set<MetaData> wired = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final List<String> ordered = new ArrayList<>();
+    private final int remaining;
+
+    LoopingQueue(List<MetaData> beans) {
+      List<MetaData> queue = new ArrayList<>();
+      for (MetaData bean : beans) {
+        if (bean.noDepends()) {
+          ordered.add(bean.getType());
+          wired.add(bean);
+        } else {
+          queue.add(bean);
+        }
+        providers.computeIfAbsent(bean.getType(), s -> new ArrayList<>()).add(bean);
+        for (String provide : bean.getProvides()) {
+          providers.computeIfAbsent(provide, s -> new ArrayList<>()).add(bean);
+        }
+      }
+      int count;
+      do {
+        count = 0;
+        Iterator<MetaData> iterator = queue.iterator();
+        while (iterator.hasNext()) {
+          MetaData bean = iterator.next();
+          if (allWired(bean)) {
+            ordered.add(bean.getType());
+            wired.add(bean);
+            iterator.remove();
+            count++;
+          }
+        }
+      } while (count > 0);
+      remaining = queue.size();
+      for (MetaData bean : queue) {
+        ordered.add(bean.getType());
+      }
+    }
+
+    private boolean allWired(MetaData bean) {
+      for (String dependency : bean.getDependsOn()) {
+        if (!Util.isProvider(dependency)) {
+          List<MetaData> list = providers.get(dependency);
+          if (list == null || !wired.containsAll(list)) {
+            return false;
+          }
+        }
+      }
+      return true;
+    }
+  }
+}
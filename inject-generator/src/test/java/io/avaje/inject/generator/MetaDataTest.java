@@ -0,0 +1,43 @@
+package io.avaje.inject.generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class MetaDataTest {
+
+  private final ProcessingContext context = mock(ProcessingContext.class);
+
+  @Test
+  void addClassList_bean() {
+    Set<String> classes = new LinkedHashSet<>();
+    new MetaData("org.bench.Repo", null).addClassList(classes, context);
+    assertThat(classes).containsExactly("org.bench.Repo$DI", "org.bench.Repo");
+  }
+
+  @Test
+  void addClassList_inlined() {
+    MetaData metaData = new MetaData("org.bench.Repo", null);
+    metaData.setInlined();
+    Set<String> classes = new LinkedHashSet<>();
+    metaData.addClassList(classes, context);
+    assertThat(classes).containsExactly("org.bench.Repo");
+  }
+
+  @Test
+  void addClassList_factoryMethod() {
+    MetaData metaData = new MetaData("java.util.List<org.bench.Repo>", null);
+    metaData.setMethod("org.bench.Factory$DI.build_repos");
+    MetaData voidMethod = new MetaData("void", null);
+    voidMethod.setMethod("org.bench.Factory$DI.build_init");
+
+    Set<String> classes = new LinkedHashSet<>();
+    metaData.addClassList(classes, context);
+    voidMethod.addClassList(classes, context);
+    assertThat(classes).containsExactly("org.bench.Factory$DI", "java.util.List");
+  }
+}
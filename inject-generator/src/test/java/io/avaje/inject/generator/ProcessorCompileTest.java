@@ -0,0 +1,488 @@
+package io.avaje.inject.generator;
+
+import io.avaje.inject.BeanScope;
+import io.avaje.inject.spi.Module;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compile modules with the annotation processor asserting the shape of the generated code
+ * (and running it where the generated code is what is being tested).
+ * <p>
+ * Ordering, conditions, tree shaking and class lists are tested at the unit level in
+ * MetaDataOrderingTest, BeanConditionsTest and MetaDataTest.
+ */
+class ProcessorCompileTest {
+
+  private static final int BEANS = 500;
+
+  /**
+   * A full build and then an incremental build that only compiles one changed bean
+   * (the module is regenerated from the existing module meta data plus the changed bean).
+   */
+  @Test
+  void largeModule_fullThenIncremental() throws Exception {
+    try (TestCompiler compiler = new TestCompiler("avaje-inject-compile")) {
+      assertThat(compiler.beans(BEANS).compile()).isTrue();
+      assertThat(compiler.generatedFile("org/bench/Bean0$DI.java")).exists();
+      String fullModule = compiler.generated("org/bench/BenchModule.java");
+
+      // change one bean and only compile that source
+      File changed = compiler.bean(BEANS / 2, true);
+      Files.delete(compiler.generatedFile("org/bench/BenchModule.java"));
+      assertThat(compiler.compile(Collections.singletonList(changed))).isTrue();
+
+      String incrementalModule = compiler.generated("org/bench/BenchModule.java");
+      assertThat(countBuildMethods(incrementalModule)).isEqualTo(BEANS);
+      assertThat(countBuildMethods(fullModule)).isEqualTo(BEANS);
+    }
+  }
+
+  /**
+   * The module build() and classes() methods are split into chunks that are
+   * small enough to be JIT compiled (and well below the 64KB method limit).
+   */
+  @Test
+  void hugeModule_compilesAndBuilds() throws Exception {
+    int beans = 5000;
+    try (TestCompiler compiler = new TestCompiler("avaje-inject-huge")) {
+      assertThat(compiler.beans(beans).compile()).isTrue();
+      String module = compiler.generated("org/bench/BenchModule.java");
+      assertThat(module).contains("private void buildChunk2()", "private static void classesChunk5(Class<?>[] classes)");
+
+      Module benchModule = compiler.module("org.bench.BenchModule");
+      assertThat(benchModule.classes()).hasSize(beans);
+      try (BeanScope scope = BeanScope.newBuilder().withModules(benchModule).build()) {
+        assertThat(scope.get(compiler.loadClass("org.bench.Bean" + (beans - 1)))).isNotNull();
+      }
+    }
+  }
+
+  /**
+   * Simple beans are built inline in the module so their $DI classes are not loaded.
+   */
+  @Test
+  void inlineBeans_compilesAndBuilds() throws Exception {
+    try (TestCompiler compiler = new TestCompiler("avaje-inject-inline")) {
+      assertThat(compiler.beans(20).compile("-Aavaje.inject.inlineBeans")).isTrue();
+      String module = compiler.generated("org/bench/BenchModule.java");
+      assertThat(module).contains("Bean3 bean = new Bean3(builder.get(Bean1.class,\"!dependency\"));");
+      assertThat(module).doesNotContain("$DI.build(builder)");
+
+      try (BeanScope scope = BeanScope.newBuilder().withModules(compiler.module("org.bench.BenchModule")).build()) {
+        assertThat(scope.get(compiler.loadClass("org.bench.Bean19"))).isNotNull();
+      }
+    }
+  }
+
+  /**
+   * A bean with the same simple name as a type used by the module (Module) is not inlined.
+   */
+  @Test
+  void inlineBeans_beanNameClashesWithModuleImport() throws Exception {
+    try (TestCompiler compiler = new TestCompiler("avaje-inject-inlineclash")) {
+      compiler.source("Module", "package org.syn;\n@jakarta.inject.Singleton\npublic class Module {}\n");
+      compiler.source("Service", "package org.syn;\n@jakarta.inject.Singleton\n" +
+        "public class Service {\n  public Service(Module module) {}\n}\n");
+      assertThat(compiler.compile("-Aavaje.inject.inlineBeans")).isTrue();
+      assertThat(compiler.generated("org/syn/SynModule.java")).contains("Module$DI.build(builder);");
+    }
+  }
+
+  /**
+   * Lifecycle callbacks and field injection are wired without lambdas or method references.
+   */
+  @Test
+  void lambdaFree_compilesAndBuilds() throws Exception {
+    try (TestCompiler compiler = new TestCompiler("avaje-inject-lambdafree")) {
+      compiler.bean(0, false);
+      compiler.source("Lifecycle", "package org.bench;\n\n" +
+        "import io.avaje.inject.PostConstruct;\n" +
+        "import io.avaje.inject.PreDestroy;\n" +
+        "import jakarta.inject.Inject;\n" +
+        "import jakarta.inject.Singleton;\n\n" +
+        "@Singleton\n" +
+        "public class Lifecycle {\n" +
+        "  @Inject Bean0 bean0;\n" +
+        "  public String state = \"new\";\n" +
+        "  @PostConstruct\n" +
+        "  void init() {\n    state = bean0 == null ? \"noInjection\" : \"init\";\n  }\n" +
+        "  @PreDestroy\n" +
+        "  void close() {\n    state = \"closed\";\n  }\n" +
+        "}\n");
+      compiler.source("Pool", "package org.bench;\n\n" +
+        "@jakarta.inject.Singleton\n" +
+        "public class Pool {\n" +
+        "  public static boolean closed;\n" +
+        "  @io.avaje.inject.PreDestroy\n" +
+        "  void shutdown() throws InterruptedException {\n    closed = true;\n    throw new InterruptedException();\n  }\n" +
+        "}\n");
+      assertThat(compiler.compile("-Aavaje.inject.lambdaFree", "-Xlint:try", "-Werror")).isTrue();
+
+      String di = compiler.generated("org/bench/Lifecycle$DI.java");
+      assertThat(di).contains("builder.addPostConstruct(new $Callback(0, $bean));", "builder.addInjector(new $Callback(2, $bean));");
+      assertThat(di).doesNotContain("->", "::");
+
+      Class<?> type = compiler.loadClass("org.bench.Lifecycle");
+      Object lifecycle;
+      try (BeanScope scope = BeanScope.newBuilder().withModules(compiler.module("org.bench.BenchModule")).build()) {
+        lifecycle = scope.get(type);
+        assertThat(type.getField("state").get(lifecycle)).isEqualTo("init");
+      }
+      assertThat(type.getField("state").get(lifecycle)).isEqualTo("closed");
+      assertThat(compiler.loadClass("org.bench.Pool").getField("closed").get(null)).isEqualTo(true);
+      // the interrupt of the wrapped InterruptedException is restored (and cleared here)
+      assertThat(Thread.interrupted()).isTrue();
+    }
+  }
+
+  /**
+   * Beans that are not reachable from the roots keep their meta data but are not built.
+   */
+  @Test
+  void roots_treeShakesUnreachableBeans() throws Exception {
+    try (TestCompiler compiler = new TestCompiler("avaje-inject-roots")) {
+      // Bean12 -> Bean6 -> Bean3 -> Bean1 -> Bean0
+      assertThat(compiler.beans(20).compile("-Aavaje.inject.roots=org.bench.Bean12")).isTrue();
+
+      String module = compiler.generated("org/bench/BenchModule.java");
+      assertThat(countBuildMethods(module)).isEqualTo(20);
+      assertThat(module).contains("    build_bench_Bean6();\n", "    build_bench_Bean12();\n");
+      assertThat(module).doesNotContain("    build_bench_Bean2();\n", "      org.bench.Bean2.class,\n");
+    }
+  }
+
+  /**
+   * Conditional beans hold their conditions in the meta data and guard their build methods.
+   */
+  @Test
+  void conditionalBeans_guardedBuildMethods() throws Exception {
+    try (TestCompiler compiler = new TestCompiler("avaje-inject-conditions")) {
+      compiler.source("Helper", "package org.bench;\n@jakarta.inject.Singleton\npublic class Helper {}\n");
+      compiler.source("Feature", "package org.bench;\n" +
+        "@io.avaje.inject.RequiresProperty(\"feature.enabled\")\n@jakarta.inject.Singleton\n" +
+        "public class Feature {\n  public Feature(Helper helper) {}\n}\n");
+      compiler.source("Sender", "package org.bench;\npublic interface Sender {}\n");
+      compiler.source("NoopSender", "package org.bench;\n" +
+        "@io.avaje.inject.RequiresBean(missing = Sender.class)\n@jakarta.inject.Singleton\n" +
+        "public class NoopSender implements Sender {}\n");
+      assertThat(compiler.compile("-Aavaje.inject.guardDependencies")).isTrue();
+
+      String module = compiler.generated("org/bench/BenchModule.java");
+      assertThat(module).contains("conditions={\"property:feature.enabled\"}", "dependsOn={\"soft:org.bench.Sender\"}");
+      assertThat(module).contains("conditions={\"missing:org.bench.Sender\"}", "if (!(!builder.contains(org.bench.Sender.class))) {");
+      // the helper is only used by the conditional feature
+      assertThat(module).contains("protected void build_bench_Helper() {\n    if (!(builder.property(\"feature.enabled\") != null)) {");
+    }
+  }
+
+  /**
+   * With lazy aspects the Method and interceptor are obtained on the first invocation of the advised method.
+   */
+  @Test
+  void lazyAspects_interceptorCreatedOnFirstInvocation() throws Exception {
+    try (TestCompiler compiler = new TestCompiler("avaje-inject-lazyaspects")) {
+      aspect(compiler, "Traced", "  public int created;\n" +
+        "  public MethodInterceptor interceptor(java.lang.reflect.Method method, Traced traced) {\n" +
+        "    created++;\n" +
+        "    return invocation -> invocation.result(\"traced:\" + invocation.invoke());\n" +
+        "  }\n");
+      compiler.source("Greeter", "package org.bench;\n" +
+        "@jakarta.inject.Singleton\n" +
+        "public class Greeter {\n" +
+        "  @Traced\n  public String hello(String name) {\n    return \"hello \" + name;\n  }\n" +
+        "}\n");
+      assertThat(compiler.compile("-Aavaje.inject.lazyAspects")).isTrue();
+
+      String proxy = compiler.generated("org/bench/Greeter$Proxy.java");
+      assertThat(proxy).contains("private volatile Aspects$hello0 hello0$aspects;");
+      assertThat(proxy).doesNotContain("private Method hello0;");
+
+      try (BeanScope scope = BeanScope.newBuilder().withModules(compiler.module("org.bench.BenchModule")).build()) {
+        Class<?> aspectType = compiler.loadClass("org.bench.TracedAspect");
+        Object aspect = scope.get(aspectType);
+        Object greeter = scope.get(compiler.loadClass("org.bench.Greeter"));
+        assertThat(aspectType.getField("created").get(aspect)).isEqualTo(0);
+
+        java.lang.reflect.Method hello = greeter.getClass().getMethod("hello", String.class);
+        assertThat(hello.invoke(greeter, "a")).isEqualTo("traced:hello a");
+        assertThat(hello.invoke(greeter, "b")).isEqualTo("traced:hello b");
+        assertThat(aspectType.getField("created").get(aspect)).isEqualTo(1);
+      }
+    }
+  }
+
+  /**
+   * Proxied methods pass arguments unboxed (boxed when requested) and hold primitive results.
+   */
+  @Test
+  void aspects_primitiveArgumentsAndResults() throws Exception {
+    try (TestCompiler compiler = new TestCompiler("avaje-inject-aspecttarget")) {
+      aspect(compiler, "Doubled", "  public final java.util.List<Object> args = new java.util.ArrayList<>();\n" +
+        "  public MethodInterceptor interceptor(java.lang.reflect.Method method, Doubled doubled) {\n" +
+        "    return invocation -> {\n" +
+        "      args.addAll(java.util.Arrays.asList(invocation.arguments()));\n" +
+        "      Object result = invocation.invoke();\n" +
+        "      if (result instanceof Integer) {\n" +
+        "        invocation.result((Integer) result * 2);\n" +
+        "      }\n" +
+        "    };\n" +
+        "  }\n");
+      compiler.source("Calc", "package org.bench;\n" +
+        "@jakarta.inject.Singleton\n" +
+        "public class Calc {\n" +
+        "  @Doubled\n  public int add(int a, long b) {\n    return a + (int) b;\n  }\n" +
+        "  @Doubled\n  public <T> T echo(T value) {\n    return value;\n  }\n" +
+        "  @Doubled\n  public <T extends Comparable<T>> T max(java.util.List<T> list) {\n    return java.util.Collections.max(list);\n  }\n" +
+        "  @Doubled\n  public int sum(java.util.List<? extends Number> values) {\n" +
+        "    return values.stream().mapToInt(Number::intValue).sum();\n  }\n" +
+        "}\n");
+      assertThat(compiler.compile()).isTrue();
+
+      String proxy = compiler.generated("org/bench/Calc$Proxy.java");
+      assertThat(proxy).contains("private final class Invoke$add0 extends Invocation.Target<Integer> {", "return call.$result;");
+      assertThat(proxy).doesNotContain("Invoke$echo0");
+      assertThat(compiler.resource("META-INF/avaje-inject/org.bench.BenchModule.classlist"))
+        .contains("org/bench/Calc$Proxy\n", "org/bench/Calc$Proxy$Invoke$add0\n", "org/bench/Calc$Proxy$Invoke$sum0\n");
+
+      try (BeanScope scope = BeanScope.newBuilder().withModules(compiler.module("org.bench.BenchModule")).build()) {
+        Class<?> aspectType = compiler.loadClass("org.bench.DoubledAspect");
+        Object calc = scope.get(compiler.loadClass("org.bench.Calc"));
+        assertThat(calc.getClass().getMethod("add", int.class, long.class).invoke(calc, 1, 2L)).isEqualTo(6);
+        assertThat(calc.getClass().getMethod("echo", Object.class).invoke(calc, "x")).isEqualTo("x");
+        List<String> values = Arrays.asList("a", "c", "b");
+        assertThat(calc.getClass().getMethod("max", List.class).invoke(calc, values)).isEqualTo("c");
+        List<Integer> numbers = Arrays.asList(1, 2);
+        assertThat(calc.getClass().getMethod("sum", List.class).invoke(calc, numbers)).isEqualTo(6);
+        assertThat(aspectType.getField("args").get(scope.get(aspectType))).isEqualTo(Arrays.asList(1, 2L, "x", values, numbers));
+      }
+    }
+  }
+
+  /**
+   * An AsyncMethodInterceptor composes on the stage returned by the proxied method.
+   */
+  @Test
+  void asyncAspect_composesOnReturnedStage() throws Exception {
+    try (TestCompiler compiler = new TestCompiler("avaje-inject-asyncaspect")) {
+      aspect(compiler, "Completed", "  public final java.util.List<Object> completed = new java.util.ArrayList<>();\n" +
+        "  public MethodInterceptor interceptor(java.lang.reflect.Method method, Completed completed) {\n" +
+        "    return (AsyncMethodInterceptor) invocation -> invocation.invokeStage().whenComplete((r, e) -> this.completed.add(r));\n" +
+        "  }\n");
+      compiler.source("Fetcher", "package org.bench;\n" +
+        "import java.util.concurrent.CompletableFuture;\n" +
+        "@jakarta.inject.Singleton\n" +
+        "public class Fetcher {\n" +
+        "  public final CompletableFuture<String> pending = new CompletableFuture<>();\n" +
+        "  @Completed\n  public CompletableFuture<String> fetch(String key) {\n    return pending;\n  }\n" +
+        "}\n");
+      assertThat(compiler.compile()).isTrue();
+
+      try (BeanScope scope = BeanScope.newBuilder().withModules(compiler.module("org.bench.BenchModule")).build()) {
+        Class<?> aspectType = compiler.loadClass("org.bench.CompletedAspect");
+        List<?> completed = (List<?>) aspectType.getField("completed").get(scope.get(aspectType));
+        Object fetcher = scope.get(compiler.loadClass("org.bench.Fetcher"));
+        java.util.concurrent.CompletableFuture<?> future = (java.util.concurrent.CompletableFuture<?>) fetcher.getClass().getMethod("fetch", String.class).invoke(fetcher, "a");
+        assertThat(completed).isEmpty();
+
+        @SuppressWarnings("unchecked")
+        java.util.concurrent.CompletableFuture<String> pending = (java.util.concurrent.CompletableFuture<String>) fetcher.getClass().getField("pending").get(fetcher);
+        pending.complete("done");
+        assertThat(future.get()).isEqualTo("done");
+        assertThat(completed).containsExactly("done");
+      }
+    }
+  }
+
+  /**
+   * An InvocationException subtype thrown by an interceptor (rejecting a call) is thrown by the proxy
+   * as is, other unchecked exceptions are wrapped.
+   */
+  @Test
+  void aspects_rejectingInterceptorNotWrapped() throws Exception {
+    try (TestCompiler compiler = new TestCompiler("avaje-inject-rejected")) {
+      compiler.source("RejectedException", "package org.bench;\n" +
+        "public class RejectedException extends io.avaje.inject.aop.InvocationException {\n" +
+        "  public static final RejectedException INSTANCE = new RejectedException();\n" +
+        "  RejectedException() {\n    super(\"rejected\", null, false, false);\n  }\n" +
+        "}\n");
+      aspect(compiler, "Rejected", "  public MethodInterceptor interceptor(java.lang.reflect.Method method, Rejected rejected) {\n" +
+        "    return invocation -> {\n" +
+        "      if (method.getName().equals(\"reject\")) throw RejectedException.INSTANCE;\n" +
+        "      throw new IllegalStateException(\"failed\");\n" +
+        "    };\n" +
+        "  }\n");
+      compiler.source("Sender", "package org.bench;\n" +
+        "@jakarta.inject.Singleton\n" +
+        "public class Sender {\n" +
+        "  @Rejected\n  public String reject(String key) {\n    return key;\n  }\n" +
+        "  @Rejected\n  public String fail(String key) {\n    return key;\n  }\n" +
+        "}\n");
+      assertThat(compiler.compile()).isTrue();
+
+      try (BeanScope scope = BeanScope.newBuilder().withModules(compiler.module("org.bench.BenchModule")).build()) {
+        Object sender = scope.get(compiler.loadClass("org.bench.Sender"));
+        Object rejected = compiler.loadClass("org.bench.RejectedException").getField("INSTANCE").get(null);
+        assertThat(thrownBy(sender, "reject")).isSameAs(rejected);
+
+        Throwable failed = thrownBy(sender, "fail");
+        assertThat(failed).isInstanceOf(io.avaje.inject.aop.InvocationException.class);
+        assertThat(failed.getCause()).isInstanceOf(IllegalStateException.class);
+      }
+    }
+  }
+
+  /**
+   * The module writes native-image configuration for the beans accessed reflectively.
+   */
+  @Test
+  void moduleResources_nativeImage() throws Exception {
+    try (TestCompiler compiler = compileTracedModule("avaje-inject-nativeimage")) {
+      String nativeImage = "META-INF/native-image/org.bench/BenchModule/";
+      assertThat(compiler.resource(nativeImage + "native-image.properties"))
+        .isEqualTo("Args = --initialize-at-build-time=org.bench.BenchModule\n");
+      assertThat(compiler.resource(nativeImage + "reflect-config.json")).isEqualTo("[\n" +
+        "  {\n    \"name\": \"org.bench.Repo\"\n  },\n" +
+        "  {\n    \"name\": \"org.bench.Service\",\n    \"allDeclaredMethods\": true\n  }\n" +
+        "]\n");
+    }
+  }
+
+  /**
+   * The module writes the bean dependency graph as JSON and DOT.
+   */
+  @Test
+  void moduleResources_graph() throws Exception {
+    try (TestCompiler compiler = compileTracedModule("avaje-inject-graph")) {
+      String json = compiler.resource("META-INF/avaje-inject/org.bench.BenchModule-graph.json");
+      assertThat(json).contains("\"module\": \"org.bench.BenchModule\"", "\"longestChain\": [1, 2]");
+      assertThat(json).contains("{\"id\": 1, \"type\": \"org.bench.Repo\", \"depth\": 0, \"dependsOn\": []}");
+      assertThat(json).contains("{\"id\": 3, \"type\": \"org.bench.Service$Proxy\", \"depth\": 1, " +
+        "\"provides\": [\"org.bench.Service\"], \"aspects\": [\"org.bench.Traced\"], " +
+        "\"dependsOn\": [{\"type\": \"org.bench.TracedAspect\", \"beans\": [0]}, {\"type\": \"org.bench.Repo\", \"beans\": [1]}]}");
+
+      String dot = compiler.resource("META-INF/avaje-inject/org.bench.BenchModule-graph.dot");
+      assertThat(dot).startsWith("digraph \"org.bench.BenchModule\" {\n");
+      assertThat(dot).contains("  n1 [label=\"org.bench.Repo\", color=red];\n", "  n2 -> n1 [color=red];\n", "  n3 -> n0;\n");
+    }
+  }
+
+  /**
+   * Rebuilding a scope hands over unchanged beans and fires PreDestroy only for beans that are not handed over.
+   */
+  @Test
+  void rebuild_reusesUnchangedBeans() throws Exception {
+    try (TestCompiler compiler = new TestCompiler("avaje-inject-rebuild")) {
+      String preDestroy = "  @io.avaje.inject.PreDestroy\n  public void close() {\n    Closed.beans.add(this);\n  }\n}\n";
+      compiler.source("Closed", "package org.bench;\n" +
+        "public class Closed {\n  public static final java.util.List<Object> beans = new java.util.ArrayList<>();\n}\n");
+      compiler.source("Clock", "package org.bench;\npublic interface Clock {}\n");
+      compiler.source("SystemClock", "package org.bench;\n@jakarta.inject.Singleton\npublic class SystemClock implements Clock {\n" + preDestroy);
+      compiler.source("Store", "package org.bench;\n@jakarta.inject.Singleton\npublic class Store {\n" + preDestroy);
+      compiler.source("Sender", "package org.bench;\n@jakarta.inject.Singleton\n" +
+        "public class Sender {\n  public Sender(Clock clock, Store store) {}\n" + preDestroy);
+      assertThat(compiler.compile()).isTrue();
+
+      Module benchModule = compiler.module("org.bench.BenchModule");
+      @SuppressWarnings("unchecked")
+      List<Object> closed = (List<Object>) compiler.loadClass("org.bench.Closed").getField("beans").get(null);
+      Class<?> clockType = compiler.loadClass("org.bench.Clock");
+      Class<?> storeType = compiler.loadClass("org.bench.Store");
+      Class<?> senderType = compiler.loadClass("org.bench.Sender");
+
+      BeanScope first = BeanScope.newBuilder().withModules(benchModule).build();
+      Object clock = first.get(clockType);
+      Object store = first.get(storeType);
+      Object sender = first.get(senderType);
+
+      // nothing changed so all beans are handed over
+      BeanScope second = BeanScope.newBuilder().withModules(benchModule).rebuild(first);
+      assertThat(second.get(clockType)).isSameAs(clock);
+      assertThat(second.get(storeType)).isSameAs(store);
+      assertThat(second.get(senderType)).isSameAs(sender);
+      assertThat(closed).isEmpty();
+
+      // supplying the clock rebuilds SystemClock and Sender which depends on it
+      Object testClock = java.lang.reflect.Proxy.newProxyInstance(clockType.getClassLoader(), new Class<?>[]{clockType}, (p, m, a) -> null);
+      BeanScope third = rebuildWith(benchModule, clockType, testClock, second);
+      assertThat(third.get(clockType)).isSameAs(testClock);
+      assertThat(third.get(storeType)).isSameAs(store);
+      Object rebuiltSender = third.get(senderType);
+      assertThat(rebuiltSender).isNotSameAs(sender);
+      assertThat(closed).containsOnly(clock, sender);
+
+      Object rebuiltClock = third.get(compiler.loadClass("org.bench.SystemClock"));
+      assertThat(rebuiltClock).isNotSameAs(clock);
+      closed.clear();
+      third.close();
+      assertThat(closed).containsOnly(store, rebuiltSender, rebuiltClock);
+    }
+  }
+
+  /**
+   * Compile a small module with a Priority bean and a bean proxied by an aspect.
+   */
+  private static TestCompiler compileTracedModule(String prefix) throws Exception {
+    TestCompiler compiler = new TestCompiler(prefix);
+    aspect(compiler, "Traced", "  public MethodInterceptor interceptor(java.lang.reflect.Method method, Traced traced) {\n" +
+      "    return Invocation::invoke;\n" +
+      "  }\n");
+    compiler.source("Repo", "package org.bench;\n" +
+      "@jakarta.inject.Singleton\n@io.avaje.inject.Priority(1)\npublic class Repo {}\n");
+    compiler.source("Service", "package org.bench;\n" +
+      "@jakarta.inject.Singleton\n" +
+      "public class Service {\n  public Service(Repo repo) {}\n" +
+      "  @Traced\n  public String find(String key) {\n    return key;\n  }\n" +
+      "}\n");
+    assertThat(compiler.compile()).isTrue();
+    return compiler;
+  }
+
+  /**
+   * Add the aspect annotation and its AspectProvider (named annotation + "Aspect") with the given body.
+   */
+  private static void aspect(TestCompiler compiler, String annotation, String body) throws Exception {
+    compiler.source(annotation, "package org.bench;\n" +
+      "@io.avaje.inject.aop.Aspect(target = " + annotation + "Aspect.class)\n" +
+      "@java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME)\n" +
+      "public @interface " + annotation + " {}\n");
+    compiler.source(annotation + "Aspect", "package org.bench;\n" +
+      "import io.avaje.inject.aop.*;\n" +
+      "@jakarta.inject.Singleton\n" +
+      "public class " + annotation + "Aspect implements AspectProvider<" + annotation + "> {\n" +
+      body +
+      "}\n");
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> BeanScope rebuildWith(Module module, Class<T> type, Object bean, BeanScope previous) {
+    return BeanScope.newBuilder().withModules(module).withBean(type, (T) bean).rebuild(previous);
+  }
+
+  private static Throwable thrownBy(Object bean, String method) throws Exception {
+    try {
+      bean.getClass().getMethod(method, String.class).invoke(bean, "a");
+    } catch (java.lang.reflect.InvocationTargetException e) {
+      return e.getCause();
+    }
+    throw new AssertionError("expected " + method + " to throw");
+  }
+
+  private static int countBuildMethods(String module) {
+    int count = 0;
+    int pos = 0;
+    while ((pos = module.indexOf("protected void build_", pos)) != -1) {
+      count++;
+      pos++;
+    }
+    return count;
+  }
+}
@@ -0,0 +1,56 @@
+package io.avaje.inject.generator;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Collections;
+
+/**
+ * Measures a full compile of a synthetic module against an incremental compile of one
+ * changed bean (as Gradle does for an aggregating processor, regenerating the module from
+ * its existing meta data). This is not a unit test and is not run by the build, run the
+ * main method to print the timings.
+ */
+final class ProcessorCompileTiming {
+
+  private static final int[] SIZES = {100, 500, 2_000};
+  private static final int RUNS = 3;
+
+  public static void main(String[] args) throws Exception {
+    // warm up the compiler and processor
+    measure(SIZES[0]);
+    for (int size : SIZES) {
+      long full = Long.MAX_VALUE;
+      long incremental = Long.MAX_VALUE;
+      for (int i = 0; i < RUNS; i++) {
+        long[] nanos = measure(size);
+        full = Math.min(full, nanos[0]);
+        incremental = Math.min(incremental, nanos[1]);
+      }
+      System.out.printf("%,d beans full %,dms incremental %,dms%n", size, full / 1_000_000, incremental / 1_000_000);
+    }
+  }
+
+  /**
+   * Return the nanos of the full and then the incremental compile.
+   */
+  private static long[] measure(int size) throws Exception {
+    try (TestCompiler compiler = new TestCompiler("avaje-inject-timing")) {
+      compiler.beans(size);
+      long start = System.nanoTime();
+      check(compiler.compile());
+      long full = System.nanoTime() - start;
+
+      File changed = compiler.bean(size / 2, true);
+      Files.delete(compiler.generatedFile("org/bench/BenchModule.java"));
+      start = System.nanoTime();
+      check(compiler.compile(Collections.singletonList(changed)));
+      return new long[]{full, System.nanoTime() - start};
+    }
+  }
+
+  private static void check(boolean success) {
+    if (!success) {
+      throw new IllegalStateException("Compile failed");
+    }
+  }
+}
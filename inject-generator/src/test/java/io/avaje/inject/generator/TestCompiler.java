@@ -0,0 +1,157 @@
+package io.avaje.inject.generator;
+
+import io.avaje.inject.spi.Module;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compiles test sources with the annotation processor in a temporary directory and loads
+ * the compiled classes.
+ */
+final class TestCompiler implements AutoCloseable {
+
+  private final Path src;
+  private final Path classes;
+  private final Path generated;
+  private final List<File> sources = new ArrayList<>();
+  private URLClassLoader loader;
+
+  TestCompiler(String prefix) throws IOException {
+    Path dir = Files.createTempDirectory(prefix);
+    this.src = Files.createDirectories(dir.resolve("src"));
+    this.classes = Files.createDirectories(dir.resolve("classes"));
+    this.generated = Files.createDirectories(dir.resolve("generated"));
+  }
+
+  /**
+   * Add a source file with the given content (written to the org/bench directory).
+   */
+  File source(String name, String content) throws IOException {
+    Path file = Files.createDirectories(src.resolve("org/bench")).resolve(name + ".java");
+    Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    File source = file.toFile();
+    if (!sources.contains(source)) {
+      sources.add(source);
+    }
+    return source;
+  }
+
+  /**
+   * Add the beans Bean0 to Bean(count - 1) where each depends on the bean at half its index.
+   */
+  TestCompiler beans(int count) throws IOException {
+    for (int i = 0; i < count; i++) {
+      bean(i, false);
+    }
+    return this;
+  }
+
+  /**
+   * Add (or change) the bean with the given index.
+   */
+  File bean(int i, boolean changed) throws IOException {
+    StringBuilder sb = new StringBuilder();
+    sb.append("package org.bench;\n\n");
+    sb.append("import jakarta.inject.Singleton;\n\n");
+    sb.append("@Singleton\n");
+    sb.append("public class Bean").append(i).append(" {\n");
+    if (i > 0) {
+      int dependency = i / 2;
+      sb.append("  final Bean").append(dependency).append(" dependency;\n");
+      sb.append("  public Bean").append(i).append("(Bean").append(dependency).append(" dependency) {\n");
+      sb.append("    this.dependency = dependency;\n");
+      sb.append("  }\n");
+    }
+    if (changed) {
+      sb.append("  public String changed() {\n    return \"changed\";\n  }\n");
+    }
+    sb.append("}\n");
+    return source("Bean" + i, sb.toString());
+  }
+
+  /**
+   * Compile all the added sources returning true when successful.
+   */
+  boolean compile(String... options) throws IOException {
+    return compile(sources, options);
+  }
+
+  /**
+   * Compile the given sources (against the previously compiled classes) returning true when successful.
+   */
+  boolean compile(List<File> sources, String... options) throws IOException {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+      Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjectsFromFiles(sources);
+      String classPath = classes + File.pathSeparator + System.getProperty("java.class.path");
+      List<String> allOptions = new ArrayList<>(Arrays.asList("-d", classes.toString(), "-s", generated.toString(), "-cp", classPath));
+      allOptions.addAll(Arrays.asList(options));
+      JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null, allOptions, null, units);
+      task.setProcessors(Collections.singletonList(new Processor()));
+      return task.call();
+    }
+  }
+
+  /**
+   * Return the generated source file.
+   */
+  Path generatedFile(String path) {
+    return generated.resolve(path);
+  }
+
+  /**
+   * Return the content of the generated source (like <code>org/bench/BenchModule.java</code>).
+   */
+  String generated(String path) throws IOException {
+    return read(generated.resolve(path));
+  }
+
+  /**
+   * Return the content of a generated resource (like <code>META-INF/...</code>).
+   */
+  String resource(String path) throws IOException {
+    return read(classes.resolve(path));
+  }
+
+  private static String read(Path path) throws IOException {
+    return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Load a compiled class.
+   */
+  Class<?> loadClass(String name) throws IOException, ClassNotFoundException {
+    if (loader == null) {
+      loader = new URLClassLoader(new URL[]{classes.toUri().toURL()}, TestCompiler.class.getClassLoader());
+    }
+    return loader.loadClass(name);
+  }
+
+  /**
+   * Return a new instance of the compiled module.
+   */
+  Module module(String name) throws Exception {
+    return (Module) loadClass(name).getConstructor().newInstance();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (loader != null) {
+      loader.close();
+    }
+  }
+}
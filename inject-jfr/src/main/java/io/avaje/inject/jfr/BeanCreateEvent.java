@@ -0,0 +1,23 @@
+package io.avaje.inject.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Bean construction and registration.
+ */
+@Name("io.avaje.inject.BeanCreate")
+@Label("Bean Create")
+@Category({"avaje", "inject"})
+@Description("Construction of a bean")
+final class BeanCreateEvent extends Event {
+
+  @Label("Type")
+  String type;
+
+  @Label("Qualifier")
+  String name;
+}
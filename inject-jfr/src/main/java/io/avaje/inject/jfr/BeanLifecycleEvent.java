@@ -0,0 +1,31 @@
+package io.avaje.inject.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Bean PostConstruct, PreDestroy or field/method injection.
+ */
+@Name("io.avaje.inject.BeanLifecycle")
+@Label("Bean Lifecycle")
+@Category({"avaje", "inject"})
+@Description("PostConstruct, PreDestroy or field and method injection of a bean")
+final class BeanLifecycleEvent extends Event {
+
+  @Label("Type")
+  String type;
+
+  @Label("Qualifier")
+  String name;
+
+  @Label("Lifecycle")
+  String lifecycle;
+
+  @Label("Execution Time")
+  @Timespan
+  long executionTime;
+}
@@ -0,0 +1,23 @@
+package io.avaje.inject.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Intercepted method call.
+ */
+@Name("io.avaje.inject.Intercept")
+@Label("Intercepted Method")
+@Category({"avaje", "inject"})
+@Description("Aspect MethodInterceptor invocation including the intercepted method")
+final class InterceptEvent extends Event {
+
+  @Label("Method")
+  String method;
+
+  @Label("Interceptor")
+  String interceptor;
+}
@@ -0,0 +1,83 @@
+package io.avaje.inject.jfr;
+
+import io.avaje.inject.aop.AspectProvider;
+import io.avaje.inject.aop.Invocation;
+import io.avaje.inject.aop.MethodInterceptor;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+
+/**
+ * Wraps aspects such that each {@code MethodInterceptor.invoke} emits a
+ * {@code io.avaje.inject.Intercept} Java Flight Recorder event.
+ *
+ * <pre>{@code
+ *
+ *   @Singleton
+ *   public class TimedAspect implements AspectProvider<Timed> {
+ *     ...
+ *   }
+ *
+ *   @Factory
+ *   class AspectConfig {
+ *
+ *     @Bean
+ *     AspectProvider<Timed> timedAspect(TimedAspect aspect) {
+ *       return JfrAspects.recorded(aspect);
+ *     }
+ *   }
+ *
+ * }</pre>
+ */
+public final class JfrAspects {
+
+  private JfrAspects() {
+  }
+
+  /**
+   * Return the aspect provider with interceptors that emit JFR events.
+   */
+  public static <T extends Annotation> AspectProvider<T> recorded(AspectProvider<T> provider) {
+    return (method, annotation) -> recorded(method, provider.interceptor(method, annotation));
+  }
+
+  /**
+   * Return the method interceptor emitting JFR events for the given method.
+   */
+  public static MethodInterceptor recorded(Method method, MethodInterceptor interceptor) {
+    return new Recorded(method.getDeclaringClass().getName() + "." + method.getName(), interceptor);
+  }
+
+  private static final class Recorded implements MethodInterceptor {
+
+    private final String method;
+    private final String interceptorType;
+    private final MethodInterceptor delegate;
+
+    Recorded(String method, MethodInterceptor delegate) {
+      this.method = method;
+      this.interceptorType = delegate.getClass().getName();
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void invoke(Invocation invocation) throws Throwable {
+      InterceptEvent event = new InterceptEvent();
+      if (!event.isEnabled()) {
+        delegate.invoke(invocation);
+        return;
+      }
+      event.begin();
+      try {
+        delegate.invoke(invocation);
+      } finally {
+        event.end();
+        if (event.shouldCommit()) {
+          event.method = method;
+          event.interceptor = interceptorType;
+          event.commit();
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package io.avaje.inject.jfr;
+
+import io.avaje.inject.BeanScope;
+import io.avaje.inject.BeanScopeListener;
+import io.avaje.inject.spi.Module;
+
+import java.lang.reflect.Type;
+
+/**
+ * Emits Java Flight Recorder events for the building of a bean scope.
+ * <p>
+ * The events are in the {@code avaje / inject} category:
+ * <ul>
+ *   <li>{@code io.avaje.inject.ScopeBuild} - the bean scope build including PostConstruct</li>
+ *   <li>{@code io.avaje.inject.ModuleBuild} - a module building its beans</li>
+ *   <li>{@code io.avaje.inject.BeanCreate} - construction of a bean</li>
+ *   <li>{@code io.avaje.inject.BeanLifecycle} - PostConstruct, PreDestroy and field/method injection</li>
+ * </ul>
+ * <p>
+ * When the events are not enabled in the recording the event objects are not committed
+ * (and are typically eliminated by escape analysis).
+ *
+ * <pre>{@code
+ *
+ *   BeanScope scope = BeanScope.newBuilder()
+ *     .withListener(new JfrBeanScopeListener())
+ *     .build();
+ *
+ * }</pre>
+ */
+public final class JfrBeanScopeListener implements BeanScopeListener {
+
+  private ModuleBuildEvent moduleEvent;
+  private BeanCreateEvent beanEvent;
+
+  @Override
+  public void moduleStart(Module module) {
+    ModuleBuildEvent event = new ModuleBuildEvent();
+    if (event.isEnabled()) {
+      event.begin();
+      moduleEvent = event;
+    }
+  }
+
+  @Override
+  public void moduleEnd(Module module, long nanos) {
+    ModuleBuildEvent event = moduleEvent;
+    if (event != null) {
+      moduleEvent = null;
+      event.end();
+      if (event.shouldCommit()) {
+        event.module = module.getClass().getName();
+        event.commit();
+      }
+    }
+  }
+
+  @Override
+  public void beanStart(Type type, String name) {
+    BeanCreateEvent event = new BeanCreateEvent();
+    if (event.isEnabled()) {
+      event.begin();
+      beanEvent = event;
+    }
+  }
+
+  @Override
+  public void beanEnd(Type type, String name, long nanos) {
+    BeanCreateEvent event = beanEvent;
+    if (event != null) {
+      beanEvent = null;
+      event.end();
+      if (event.shouldCommit()) {
+        event.type = type.getTypeName();
+        event.name = name;
+        event.commit();
+      }
+    }
+  }
+
+  @Override
+  public void injector(Type type, String name, long nanos) {
+    lifecycle(type, name, "inject", nanos);
+  }
+
+  @Override
+  public void postConstruct(Type type, String name, long nanos) {
+    lifecycle(type, name, "postConstruct", nanos);
+  }
+
+  @Override
+  public void preDestroy(Type type, String name, long nanos) {
+    lifecycle(type, name, "preDestroy", nanos);
+  }
+
+  private void lifecycle(Type type, String name, String lifecycle, long nanos) {
+    BeanLifecycleEvent event = new BeanLifecycleEvent();
+    if (event.isEnabled()) {
+      event.type = type.getTypeName();
+      event.name = name;
+      event.lifecycle = lifecycle;
+      event.executionTime = nanos;
+      event.commit();
+    }
+  }
+
+  @Override
+  public void scopeBuilt(BeanScope scope, long nanos) {
+    ScopeBuildEvent event = new ScopeBuildEvent();
+    if (event.isEnabled()) {
+      event.beans = scope.all().size();
+      event.buildTime = nanos;
+      event.commit();
+    }
+  }
+}
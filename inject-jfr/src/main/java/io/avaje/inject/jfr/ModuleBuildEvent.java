@@ -0,0 +1,20 @@
+package io.avaje.inject.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Module building its beans.
+ */
+@Name("io.avaje.inject.ModuleBuild")
+@Label("Module Build")
+@Category({"avaje", "inject"})
+@Description("Module building its beans")
+final class ModuleBuildEvent extends Event {
+
+  @Label("Module")
+  String module;
+}
@@ -0,0 +1,25 @@
+package io.avaje.inject.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Bean scope has been built.
+ */
+@Name("io.avaje.inject.ScopeBuild")
+@Label("Bean Scope Build")
+@Category({"avaje", "inject"})
+@Description("Building of a bean scope including PostConstruct")
+final class ScopeBuildEvent extends Event {
+
+  @Label("Beans")
+  int beans;
+
+  @Label("Build Time")
+  @Timespan
+  long buildTime;
+}
@@ -0,0 +1,71 @@
+package io.avaje.inject.jfr;
+
+import io.avaje.inject.aop.Invocation;
+import io.avaje.inject.aop.MethodInterceptor;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JfrBeanScopeListenerTest {
+
+  @Test
+  void events() throws Throwable {
+    List<RecordedEvent> events = record(() -> {
+      JfrBeanScopeListener listener = new JfrBeanScopeListener();
+      listener.beanStart(String.class, "foo");
+      listener.beanEnd(String.class, "foo", 100);
+      listener.postConstruct(String.class, "foo", 200);
+    });
+
+    assertThat(events).hasSize(2);
+    RecordedEvent create = events.get(0);
+    assertThat(create.getEventType().getName()).isEqualTo("io.avaje.inject.BeanCreate");
+    assertThat(create.getString("type")).isEqualTo("java.lang.String");
+    assertThat(create.getString("name")).isEqualTo("foo");
+
+    RecordedEvent lifecycle = events.get(1);
+    assertThat(lifecycle.getEventType().getName()).isEqualTo("io.avaje.inject.BeanLifecycle");
+    assertThat(lifecycle.getString("lifecycle")).isEqualTo("postConstruct");
+    assertThat(lifecycle.getDuration("executionTime").toNanos()).isEqualTo(200);
+  }
+
+  @Test
+  void recordedInterceptor() throws Throwable {
+    MethodInterceptor interceptor = JfrAspects.recorded(Object.class.getMethod("toString"), Invocation::invoke);
+    List<RecordedEvent> events = record(() -> {
+      Invocation.Call<String> call = new Invocation.Call<>(() -> "hi");
+      interceptor.invoke(call);
+      assertThat(call.finalResult()).isEqualTo("hi");
+    });
+
+    assertThat(events).hasSize(1);
+    assertThat(events.get(0).getString("method")).isEqualTo("java.lang.Object.toString");
+  }
+
+  private List<RecordedEvent> record(Task task) throws Throwable {
+    Path file = Files.createTempFile("avaje-inject", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(BeanCreateEvent.class).withoutThreshold();
+      recording.enable(BeanLifecycleEvent.class).withoutThreshold();
+      recording.enable(InterceptEvent.class).withoutThreshold();
+      recording.start();
+      task.run();
+      recording.stop();
+      recording.dump(file);
+      return RecordingFile.readAllEvents(file);
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  interface Task {
+    void run() throws Throwable;
+  }
+}
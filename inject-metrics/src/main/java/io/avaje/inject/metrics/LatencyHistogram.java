@@ -0,0 +1,110 @@
+package io.avaje.inject.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Striped log-linear histogram of nanosecond values.
+ * <p>
+ * Each power of two range is split into {@code 2^SUB_BITS} linear buckets giving a relative error
+ * of at most 12.5%. Recording increments a bucket of the stripe for the current thread using
+ * atomic operations (no locks and no allocation). Stripes reduce contention between threads and
+ * are summed when taking a snapshot.
+ */
+final class LatencyHistogram {
+
+  private static final int SUB_BITS = 3;
+  private static final int SUB_COUNT = 1 << SUB_BITS;
+  static final int BUCKETS = (64 - SUB_BITS) * SUB_COUNT;
+
+  /**
+   * Per stripe the total and max are held after the buckets.
+   */
+  private static final int TOTAL = BUCKETS;
+  private static final int MAX = BUCKETS + 1;
+
+  private static final int MAX_STRIPES = 8;
+
+  private final AtomicLongArray[] stripes;
+  private final int mask;
+
+  LatencyHistogram() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  LatencyHistogram(int processors) {
+    int count = Math.min(MAX_STRIPES, Integer.highestOneBit(Math.max(1, processors)));
+    this.stripes = new AtomicLongArray[count];
+    for (int i = 0; i < count; i++) {
+      stripes[i] = new AtomicLongArray(BUCKETS + 2);
+    }
+    this.mask = count - 1;
+  }
+
+  /**
+   * Return the bucket index for the value.
+   */
+  static int index(long value) {
+    if (value < SUB_COUNT) {
+      return (int) Math.max(0, value);
+    }
+    int magnitude = 63 - Long.numberOfLeadingZeros(value);
+    int sub = (int) (value >>> (magnitude - SUB_BITS)) & (SUB_COUNT - 1);
+    return (magnitude - SUB_BITS + 1) * SUB_COUNT + sub;
+  }
+
+  /**
+   * Return the lowest value of the bucket.
+   */
+  static long lowerBound(int index) {
+    if (index < SUB_COUNT) {
+      return index;
+    }
+    int magnitude = index / SUB_COUNT + SUB_BITS - 1;
+    long sub = index & (SUB_COUNT - 1);
+    return (SUB_COUNT + sub) << (magnitude - SUB_BITS);
+  }
+
+  /**
+   * Return the highest value of the bucket.
+   */
+  static long upperBound(int index) {
+    if (index < SUB_COUNT) {
+      return index;
+    }
+    int magnitude = index / SUB_COUNT + SUB_BITS - 1;
+    return lowerBound(index) + (1L << (magnitude - SUB_BITS)) - 1;
+  }
+
+  /**
+   * Record the value (in nanos).
+   */
+  void record(long nanos) {
+    long value = Math.max(0, nanos);
+    AtomicLongArray stripe = stripes[(int) Thread.currentThread().getId() & mask];
+    stripe.getAndIncrement(index(value));
+    stripe.getAndAdd(TOTAL, value);
+    long max = stripe.get(MAX);
+    while (value > max && !stripe.compareAndSet(MAX, max, value)) {
+      max = stripe.get(MAX);
+    }
+  }
+
+  /**
+   * Return the summed counts of the stripes optionally resetting them.
+   * <p>
+   * Values recorded concurrently with a reset are included in this or the next snapshot.
+   */
+  TimerSnapshot snapshot(String name, boolean reset) {
+    long[] counts = new long[BUCKETS];
+    long total = 0;
+    long max = 0;
+    for (AtomicLongArray stripe : stripes) {
+      for (int i = 0; i < BUCKETS; i++) {
+        counts[i] += reset ? stripe.getAndSet(i, 0) : stripe.get(i);
+      }
+      total += reset ? stripe.getAndSet(TOTAL, 0) : stripe.get(TOTAL);
+      max = Math.max(max, reset ? stripe.getAndSet(MAX, 0) : stripe.get(MAX));
+    }
+    return new TimerSnapshot(name, counts, total, max);
+  }
+}
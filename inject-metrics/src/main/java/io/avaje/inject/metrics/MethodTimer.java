@@ -0,0 +1,45 @@
+package io.avaje.inject.metrics;
+
+/**
+ * Timer of a method recording into a latency histogram.
+ */
+public final class MethodTimer {
+
+  private final String name;
+  private final LatencyHistogram histogram;
+
+  MethodTimer(String name, LatencyHistogram histogram) {
+    this.name = name;
+    this.histogram = histogram;
+  }
+
+  /**
+   * Return the timer name.
+   */
+  public String name() {
+    return name;
+  }
+
+  /**
+   * Record the time in nanos.
+   */
+  public void record(long nanos) {
+    histogram.record(nanos);
+  }
+
+  /**
+   * Return a snapshot of the recorded times.
+   */
+  public TimerSnapshot snapshot() {
+    return histogram.snapshot(name, false);
+  }
+
+  /**
+   * Return a snapshot of the recorded times resetting the timer.
+   * <p>
+   * Use this to report the times of each interval (e.g. each minute).
+   */
+  public TimerSnapshot snapshotAndReset() {
+    return histogram.snapshot(name, true);
+  }
+}
@@ -0,0 +1,37 @@
+package io.avaje.inject.metrics;
+
+import io.avaje.inject.spi.Builder;
+import io.avaje.inject.spi.Module;
+
+/**
+ * Module providing the {@link TimedAspect}.
+ * <p>
+ * This is registered via service loading such that modules using {@link Timed} only need
+ * to specify {@code @InjectModule(requires = TimedAspect.class)}.
+ */
+public final class MetricsModule implements Module {
+
+  private static final Class<?>[] PROVIDES = {TimedAspect.class};
+
+  @Override
+  public Class<?>[] requires() {
+    return new Class<?>[0];
+  }
+
+  @Override
+  public Class<?>[] provides() {
+    return PROVIDES;
+  }
+
+  @Override
+  public Class<?>[] classes() {
+    return PROVIDES;
+  }
+
+  @Override
+  public void build(Builder builder) {
+    if (builder.isAddBeanFor(TimedAspect.class)) {
+      builder.register(new TimedAspect());
+    }
+  }
+}
@@ -0,0 +1,45 @@
+package io.avaje.inject.metrics;
+
+import io.avaje.inject.aop.Aspect;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Record the execution time of the method into a latency histogram.
+ * <p>
+ * When put on a type all the public methods of the type are timed. The recorded timers
+ * are obtained from {@link TimedAspect#timers()}.
+ * <p>
+ * For a method returning a {@code CompletionStage} the time is recorded when the
+ * stage completes.
+ *
+ * <pre>{@code
+ *
+ *   @Singleton
+ *   public class OrderService {
+ *
+ *     @Timed
+ *     public Order find(long id) {
+ *       ...
+ *     }
+ *   }
+ *
+ * }</pre>
+ * <p>
+ * The {@link TimedAspect} is provided by this library via its module such that the module
+ * using {@code @Timed} specifies it as an external dependency with
+ * {@code @InjectModule(requires = TimedAspect.class)}.
+ */
+@Aspect(target = TimedAspect.class)
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Timed {
+
+  /**
+   * The name of the timer. Defaults to the simple class name and method name.
+   */
+  String name() default "";
+}
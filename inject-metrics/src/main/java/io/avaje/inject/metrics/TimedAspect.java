@@ -0,0 +1,104 @@
+package io.avaje.inject.metrics;
+
+import io.avaje.inject.aop.AspectProvider;
+import io.avaje.inject.aop.AsyncMethodInterceptor;
+import io.avaje.inject.aop.Invocation;
+import io.avaje.inject.aop.MethodInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Aspect for {@link Timed} recording method execution times into latency histograms.
+ * <p>
+ * The timers are created when the proxy is created (one per method and name) such that
+ * recording the time of a call does not allocate.
+ *
+ * <pre>{@code
+ *
+ *   for (MethodTimer timer : timedAspect.timers()) {
+ *     TimerSnapshot snapshot = timer.snapshotAndReset();
+ *     log.info("{} count:{} p99:{}", snapshot.name(), snapshot.count(), snapshot.percentile(99));
+ *   }
+ *
+ * }</pre>
+ */
+public final class TimedAspect implements AspectProvider<Timed> {
+
+  private final Map<String, MethodTimer> timers = new ConcurrentHashMap<>();
+
+  @Override
+  public MethodInterceptor interceptor(Method method, Timed timed) {
+    MethodTimer timer = timer(name(method, timed));
+    if (CompletionStage.class.isAssignableFrom(method.getReturnType())) {
+      return new AsyncTimer(timer);
+    }
+    return new SyncTimer(timer);
+  }
+
+  private static String name(Method method, Timed timed) {
+    String name = timed == null ? "" : timed.name();
+    if (name.isEmpty()) {
+      return method.getDeclaringClass().getSimpleName() + "." + method.getName();
+    }
+    return name;
+  }
+
+  /**
+   * Return the timer for the given name creating it if needed.
+   */
+  public MethodTimer timer(String name) {
+    return timers.computeIfAbsent(name, n -> new MethodTimer(n, new LatencyHistogram()));
+  }
+
+  /**
+   * Return all the timers.
+   */
+  public List<MethodTimer> timers() {
+    return new ArrayList<>(timers.values());
+  }
+
+  private static final class SyncTimer implements MethodInterceptor {
+
+    private final MethodTimer timer;
+
+    SyncTimer(MethodTimer timer) {
+      this.timer = timer;
+    }
+
+    @Override
+    public void invoke(Invocation invocation) throws Throwable {
+      long start = System.nanoTime();
+      try {
+        invocation.proceed();
+      } finally {
+        timer.record(System.nanoTime() - start);
+      }
+    }
+  }
+
+  private static final class AsyncTimer implements AsyncMethodInterceptor {
+
+    private final MethodTimer timer;
+
+    AsyncTimer(MethodTimer timer) {
+      this.timer = timer;
+    }
+
+    @Override
+    public CompletionStage<?> invokeAsync(Invocation invocation) {
+      long start = System.nanoTime();
+      CompletionStage<?> stage = invocation.invokeStage();
+      if (stage == null) {
+        // the method returned null rather than a stage
+        timer.record(System.nanoTime() - start);
+        return null;
+      }
+      return stage.whenComplete((result, e) -> timer.record(System.nanoTime() - start));
+    }
+  }
+}
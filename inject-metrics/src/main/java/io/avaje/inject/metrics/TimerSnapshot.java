@@ -0,0 +1,98 @@
+package io.avaje.inject.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snapshot of a timer with the count, total, max and percentiles of the recorded times.
+ * <p>
+ * Percentiles are computed from the histogram buckets and are accurate to within
+ * 12.5% (and never more than the max).
+ */
+public final class TimerSnapshot {
+
+  private final String name;
+  private final long[] counts;
+  private final long count;
+  private final long total;
+  private final long max;
+
+  TimerSnapshot(String name, long[] counts, long total, long max) {
+    this.name = name;
+    this.counts = counts;
+    long count = 0;
+    for (long bucketCount : counts) {
+      count += bucketCount;
+    }
+    this.count = count;
+    this.total = total;
+    this.max = max;
+  }
+
+  /**
+   * Return the timer name.
+   */
+  public String name() {
+    return name;
+  }
+
+  /**
+   * Return the number of recorded times.
+   */
+  public long count() {
+    return count;
+  }
+
+  /**
+   * Return the total of the recorded times in nanos.
+   */
+  public long total() {
+    return total;
+  }
+
+  /**
+   * Return the mean in nanos (0 when nothing is recorded).
+   */
+  public long mean() {
+    return count == 0 ? 0 : total / count;
+  }
+
+  /**
+   * Return the max in nanos.
+   */
+  public long max() {
+    return max;
+  }
+
+  /**
+   * Return the value in nanos at the given percentile (0 to 100).
+   *
+   * @param percentile The percentile like 50, 99 or 99.9
+   */
+  public long percentile(double percentile) {
+    if (count == 0) {
+      return 0;
+    }
+    long rank = (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * count);
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= Math.max(1, rank)) {
+        return Math.min(max, LatencyHistogram.upperBound(i));
+      }
+    }
+    return max;
+  }
+
+  /**
+   * Return the value at the given percentile in the given time unit.
+   */
+  public long percentile(double percentile, TimeUnit unit) {
+    return unit.convert(percentile(percentile), TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public String toString() {
+    return name + " count:" + count + " mean:" + mean() + " p50:" + percentile(50)
+      + " p99:" + percentile(99) + " max:" + max;
+  }
+}
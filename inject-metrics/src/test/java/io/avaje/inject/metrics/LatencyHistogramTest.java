@@ -0,0 +1,73 @@
+package io.avaje.inject.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyHistogramTest {
+
+  @Test
+  void index_bounds() {
+    for (long value : new long[]{0, 1, 7, 8, 9, 15, 16, 17, 100, 1_000, 123_456, 1_000_000_000L, Long.MAX_VALUE}) {
+      int index = LatencyHistogram.index(value);
+      assertThat(index).isLessThan(LatencyHistogram.BUCKETS);
+      assertThat(LatencyHistogram.lowerBound(index) <= value).isTrue();
+      assertThat(LatencyHistogram.upperBound(index) >= value).isTrue();
+    }
+    assertThat(LatencyHistogram.index(7)).isEqualTo(7);
+    assertThat(LatencyHistogram.index(8)).isEqualTo(8);
+    assertThat(LatencyHistogram.index(16)).isEqualTo(16);
+    assertThat(LatencyHistogram.index(-5)).isEqualTo(0);
+  }
+
+  @Test
+  void snapshot_percentiles() {
+    LatencyHistogram histogram = new LatencyHistogram(4);
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(i * 1000L);
+    }
+    TimerSnapshot snapshot = histogram.snapshot("test", false);
+    assertThat(snapshot.count()).isEqualTo(1000L);
+    assertThat(snapshot.total()).isEqualTo(500_500_000L);
+    assertThat(snapshot.mean()).isEqualTo(500_500L);
+    assertThat(snapshot.max()).isEqualTo(1_000_000L);
+    assertWithin(snapshot.percentile(50), 500_000L);
+    assertWithin(snapshot.percentile(99), 990_000L);
+    assertThat(snapshot.percentile(100)).isEqualTo(1_000_000L);
+  }
+
+  @Test
+  void snapshot_reset() {
+    LatencyHistogram histogram = new LatencyHistogram(2);
+    histogram.record(10);
+    histogram.record(20);
+    assertThat(histogram.snapshot("test", true).count()).isEqualTo(2L);
+
+    TimerSnapshot empty = histogram.snapshot("test", false);
+    assertThat(empty.count()).isEqualTo(0L);
+    assertThat(empty.max()).isEqualTo(0L);
+    assertThat(empty.percentile(99)).isEqualTo(0L);
+  }
+
+  @Test
+  void record_concurrently() throws InterruptedException {
+    LatencyHistogram histogram = new LatencyHistogram(8);
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread(() -> {
+        for (int i = 0; i < 10_000; i++) {
+          histogram.record(i);
+        }
+      });
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertThat(histogram.snapshot("test", false).count()).isEqualTo(40_000L);
+  }
+
+  private static void assertWithin(long actual, long expected) {
+    assertThat(actual >= expected * 0.875 && actual <= expected * 1.125).isTrue();
+  }
+}
@@ -0,0 +1,74 @@
+package io.avaje.inject.metrics;
+
+import io.avaje.inject.aop.Invocation;
+import io.avaje.inject.aop.MethodInterceptor;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimedAspectTest {
+
+  private final TimedAspect aspect = new TimedAspect();
+  private final CompletableFuture<String> pending = new CompletableFuture<>();
+
+  @Timed
+  public String find() {
+    return "found";
+  }
+
+  @Timed(name = "custom")
+  public CompletableFuture<String> fetch() {
+    return pending;
+  }
+
+  @Timed(name = "none")
+  public CompletableFuture<String> fetchNone() {
+    return null;
+  }
+
+  @Test
+  void syncMethod() throws Throwable {
+    Method method = TimedAspectTest.class.getMethod("find");
+    MethodInterceptor interceptor = aspect.interceptor(method, method.getAnnotation(Timed.class));
+
+    Invocation.Build<String> call = new Invocation.Call<>(this::find).with(this, method);
+    interceptor.invoke(call);
+    interceptor.invoke(call);
+
+    assertThat(call.finalResult()).isEqualTo("found");
+    TimerSnapshot snapshot = aspect.timer("TimedAspectTest.find").snapshot();
+    assertThat(snapshot.count()).isEqualTo(2L);
+    assertThat(snapshot.max() > 0).isTrue();
+    assertThat(aspect.timers()).hasSize(1);
+  }
+
+  @Test
+  void asyncMethod_recordedOnCompletion() throws Throwable {
+    Method method = TimedAspectTest.class.getMethod("fetch");
+    MethodInterceptor interceptor = aspect.interceptor(method, method.getAnnotation(Timed.class));
+
+    Invocation.Build<CompletableFuture<String>> call = new Invocation.Call<>(this::fetch).with(this, method);
+    interceptor.invoke(call);
+    MethodTimer timer = aspect.timer("custom");
+    assertThat(timer.snapshot().count()).isEqualTo(0L);
+
+    pending.complete("done");
+    assertThat(call.finalResult().get()).isEqualTo("done");
+    assertThat(timer.snapshotAndReset().count()).isEqualTo(1L);
+    assertThat(timer.snapshot().count()).isEqualTo(0L);
+  }
+
+  @Test
+  void asyncMethod_nullStage_recorded() throws Throwable {
+    Method method = TimedAspectTest.class.getMethod("fetchNone");
+    MethodInterceptor interceptor = aspect.interceptor(method, method.getAnnotation(Timed.class));
+
+    Invocation.Build<CompletableFuture<String>> call = new Invocation.Call<>(this::fetchNone).with(this, method);
+    interceptor.invoke(call);
+    assertThat(call.finalResult()).isNull();
+    assertThat(aspect.timer("none").snapshot().count()).isEqualTo(1L);
+  }
+}
@@ -52,6 +52,78 @@ public interface BeanScopeBuilder {
    */
   BeanScopeBuilder withShutdownHook(boolean shutdownHook);
 
+  /**
+   * Eagerly load all the generated and wired classes of the modules before building (defaults to false).
+   * <p>
+   * The annotation processor writes a class list per module to
+   * {@code META-INF/avaje-inject/<module>.classlist}. This lists the generated module,
+   * {@code $DI} and {@code $Proxy} classes along with the bean classes in the order they
+   * are loaded. With preloading on all these classes are loaded before any bean is built.
+   * <p>
+   * This is intended for an AppCDS training run such that the resulting archive includes
+   * the whole dependency injection layer, including classes that are otherwise only loaded
+   * lazily (for example request scoped factories).
+   *
+   * <pre>{@code
+   *
+   *   // training run, typically enabled via a system property or environment variable
+   *   // java -XX:ArchiveClassesAtExit=app.jsa -jar app.jar
+   *
+   *   BeanScope scope = BeanScope.newBuilder()
+   *     .withPreloadClasses(true)
+   *     .build();
+   *
+   *   // subsequent runs use the archive
+   *   // java -XX:SharedArchiveFile=app.jsa -jar app.jar
+   *
+   * }</pre>
+   * <p>
+   * The class list files are in {@code -XX:SharedClassListFile} format so they can also be
+   * concatenated and used to dump a static archive.
+   *
+   * @param preloadClasses When true load all the generated and wired classes up front
+   * @return This BeanScopeBuilder
+   */
+  BeanScopeBuilder withPreloadClasses(boolean preloadClasses);
+
+  /**
+   * Add a listener of the bean wiring with timings for modules, bean construction,
+   * field/method injection, PostConstruct and PreDestroy.
+   * <p>
+   * There is no overhead when no listener is registered.
+   *
+   * <pre>{@code
+   *
+   *   // log the 10 slowest beans on startup
+   *   BeanScope scope = BeanScope.newBuilder()
+   *     .withListener(BeanScopeListener.slowestBeans(10))
+   *     .build();
+   *
+   * }</pre>
+   *
+   * @param listener The listener of the bean wiring
+   * @return This BeanScopeBuilder
+   */
+  BeanScopeBuilder withListener(BeanScopeListener listener);
+
+  /**
+   * Set the source of properties used by conditional beans ({@link RequiresProperty} and {@link Profile}).
+   * <p>
+   * When not set the system properties are used falling back to environment variables.
+   *
+   * <pre>{@code
+   *
+   *   BeanScope scope = BeanScope.newBuilder()
+   *     .withProperties(key -> properties.getProperty(key))
+   *     .build();
+   *
+   * }</pre>
+   *
+   * @param properties The source of properties
+   * @return This BeanScopeBuilder
+   */
+  BeanScopeBuilder withProperties(PropertySource properties);
+
   /**
    * Specify the modules to include in dependency injection.
    * <p>
@@ -194,6 +266,34 @@ public interface BeanScopeBuilder {
    */
   BeanScope build();
 
+  /**
+   * Build and return the bean scope reusing unchanged beans from the previous bean scope.
+   * <p>
+   * Intended for fast reload in development. The {@code @DependencyMeta} of the modules
+   * is compared with the modules of the previous scope. Beans that were added, removed or
+   * changed (including their classes being reloaded by a different class loader) are built
+   * along with all the beans that depend on them. All the other bean instances are moved
+   * into the new bean scope without running their PostConstruct methods again.
+   * <p>
+   * Once the new scope has been built the previous scope is closed firing PreDestroy only
+   * for the beans that are not moved. The PreDestroy methods of the moved beans are fired
+   * when the new scope is closed. When building the new scope fails the previous scope is
+   * left open.
+   *
+   * <pre>{@code
+   *
+   *   BeanScope scope = BeanScope.newBuilder().build();
+   *   ...
+   *   // after a change, reuse the unchanged beans
+   *   scope = BeanScope.newBuilder().rebuild(scope);
+   *
+   * }</pre>
+   *
+   * @param previous The bean scope to reuse unchanged beans from
+   * @return The new BeanScope
+   */
+  BeanScope rebuild(BeanScope previous);
+
   /**
    * Extends the building with testing specific support for mocks and spies.
    */
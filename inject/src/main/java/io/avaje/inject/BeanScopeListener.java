@@ -0,0 +1,84 @@
+package io.avaje.inject;
+
+import io.avaje.inject.spi.Module;
+import io.avaje.lang.Nullable;
+
+import java.lang.reflect.Type;
+
+/**
+ * Listener of the wiring of a bean scope with timings in nanoseconds.
+ * <p>
+ * Register via {@link BeanScopeBuilder#withListener(BeanScopeListener)}. When no listener
+ * is registered no timings are taken.
+ *
+ * <pre>{@code
+ *
+ *   BeanScope scope = BeanScope.newBuilder()
+ *     .withListener(BeanScopeListener.slowestBeans(10))
+ *     .build();
+ *
+ * }</pre>
+ */
+public interface BeanScopeListener {
+
+  /**
+   * Return a listener that logs the slowest beans (construction, injection and
+   * PostConstruct) when the bean scope has been built.
+   *
+   * @param count The number of slowest beans to report
+   */
+  static BeanScopeListener slowestBeans(int count) {
+    return new DSlowestBeans(count);
+  }
+
+  /**
+   * The module is about to build its beans.
+   */
+  default void moduleStart(Module module) {
+  }
+
+  /**
+   * The module has built its beans.
+   */
+  default void moduleEnd(Module module, long nanos) {
+  }
+
+  /**
+   * The bean is about to be constructed.
+   *
+   * @param type The bean type (or factory method return type)
+   * @param name The qualifier name
+   */
+  default void beanStart(Type type, @Nullable String name) {
+  }
+
+  /**
+   * The bean has been constructed and registered.
+   */
+  default void beanEnd(Type type, @Nullable String name, long nanos) {
+  }
+
+  /**
+   * Field and method injection has been executed for the bean.
+   */
+  default void injector(Type type, @Nullable String name, long nanos) {
+  }
+
+  /**
+   * The PostConstruct method of the bean has been executed.
+   */
+  default void postConstruct(Type type, @Nullable String name, long nanos) {
+  }
+
+  /**
+   * The PreDestroy method of the bean has been executed.
+   */
+  default void preDestroy(Type type, @Nullable String name, long nanos) {
+  }
+
+  /**
+   * The bean scope has been built (including PostConstruct methods).
+   */
+  default void scopeBuilt(BeanScope scope, long nanos) {
+  }
+}
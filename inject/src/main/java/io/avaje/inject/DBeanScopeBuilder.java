@@ -30,6 +30,9 @@ class DBeanScopeBuilder implements BeanScopeBuilder.ForTesting {
   private BeanScope parent;
   private boolean parentOverride;
   private boolean shutdownHook;
+  private boolean preloadClasses;
+  private BeanScopeListener listener;
+  private PropertySource properties = PropertySource.system();
 
   /**
    * Create a BeanScopeBuilder to ultimately load and return a new BeanScope.
@@ -48,6 +51,24 @@ class DBeanScopeBuilder implements BeanScopeBuilder.ForTesting {
     return this;
   }
 
+  @Override
+  public BeanScopeBuilder withPreloadClasses(boolean preloadClasses) {
+    this.preloadClasses = preloadClasses;
+    return this;
+  }
+
+  @Override
+  public BeanScopeBuilder withListener(BeanScopeListener listener) {
+    this.listener = this.listener == null ? listener : new DListeners(this.listener, listener);
+    return this;
+  }
+
+  @Override
+  public BeanScopeBuilder withProperties(PropertySource properties) {
+    this.properties = Objects.requireNonNull(properties);
+    return this;
+  }
+
   @Override
   public BeanScopeBuilder withModules(Module... modules) {
     this.includeModules.addAll(Arrays.asList(modules));
@@ -136,6 +157,16 @@ class DBeanScopeBuilder implements BeanScopeBuilder.ForTesting {
 
   @Override
   public BeanScope build() {
+    return build(null);
+  }
+
+  @Override
+  public BeanScope rebuild(BeanScope previous) {
+    return build(Objects.requireNonNull(previous));
+  }
+
+  private BeanScope build(@Nullable BeanScope previous) {
+    final long start = listener == null ? 0 : System.nanoTime();
     // sort factories by dependsOn
     FactoryOrder factoryOrder = new FactoryOrder(includeModules, !suppliedBeans.isEmpty());
     if (factoryOrder.isEmpty()) {
@@ -151,11 +182,36 @@ class DBeanScopeBuilder implements BeanScopeBuilder.ForTesting {
         " Refer to https://avaje.io/inject#gradle");
     }
     log.debug("building with modules {}", moduleNames);
-    Builder builder = Builder.newBuilder(suppliedBeans, enrichBeans, parent, parentOverride);
+    if (preloadClasses) {
+      preloadClasses(factoryOrder.factories());
+    }
+    Builder builder = Builder.newBuilder(suppliedBeans, enrichBeans, parent, parentOverride, factoryOrder.factories(), previous, listener, properties);
+    if (listener == null) {
+      for (Module factory : factoryOrder.factories()) {
+        factory.build(builder);
+      }
+      return builder.build(shutdownHook);
+    }
     for (Module factory : factoryOrder.factories()) {
+      listener.moduleStart(factory);
+      long moduleStart = System.nanoTime();
       factory.build(builder);
+      listener.moduleEnd(factory, System.nanoTime() - moduleStart);
+    }
+    BeanScope scope = builder.build(shutdownHook);
+    listener.scopeBuilt(scope, System.nanoTime() - start);
+    return scope;
+  }
+
+  /**
+   * Load all the generated and wired classes up front (training run for AppCDS).
+   */
+  private void preloadClasses(List<Module> modules) {
+    DClassList classList = new DClassList();
+    for (Module module : modules) {
+      classList.preload(module);
     }
-    return builder.build(shutdownHook);
+    log.debug("preloaded {} classes", classList.count());
   }
 
   /**
@@ -251,12 +307,7 @@ class DBeanScopeBuilder implements BeanScopeBuilder.ForTesting {
      * Process the queue pushing the factories in order to satisfy dependencies.
      */
     private void processQueue() {
-
-      int count;
-      do {
-        count = processQueuedFactories();
-      } while (count > 0);
-
+      orderQueue();
       if (suppliedBeans) {
         // just push everything left assuming supplied beans
         // will satisfy the required dependencies
@@ -282,37 +333,62 @@ class DBeanScopeBuilder implements BeanScopeBuilder.ForTesting {
     }
 
     /**
-     * Process the queued factories pushing them when all their (module) dependencies
-     * are satisfied.
+     * Push the queued factories when all their (module) dependencies are satisfied
+     * in linear time (Kahn's algorithm).
      * <p>
-     * This returns the number of factories added so once this returns 0 it is done.
+     * This gives the same order as repeatedly looping the queue pushing the factories
+     * that have their dependencies satisfied. A factory that becomes ready with a queue
+     * position after the factory just pushed is pushed in the current loop, otherwise
+     * it is deferred to the next loop. Unsatisfied factories remain in the queue.
      */
-    private int processQueuedFactories() {
-      int count = 0;
-      Iterator<FactoryState> it = queue.iterator();
-      while (it.hasNext()) {
-        FactoryState factory = it.next();
-        if (satisfiedDependencies(factory)) {
-          // push the factory onto the build order
-          it.remove();
-          push(factory);
-          count++;
+    private void orderQueue() {
+      final int size = queue.size();
+      final Map<FactoryState, Integer> position = new IdentityHashMap<>(size * 2);
+      for (int i = 0; i < size; i++) {
+        position.put(queue.get(i), i);
+      }
+      final int[] unsatisfied = new int[size];
+      final List<List<Integer>> dependents = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        dependents.add(new ArrayList<>(2));
+      }
+      PriorityQueue<Integer> ready = new PriorityQueue<>();
+      for (int i = 0; i < size; i++) {
+        for (Class<?> moduleOrFeature : queue.get(i).requires()) {
+          FactoryList factories = providesMap.get(moduleOrFeature.getTypeName());
+          if (factories == null) {
+            // never satisfied
+            unsatisfied[i]++;
+          } else {
+            for (FactoryState factory : factories.factories) {
+              Integer factoryPosition = position.get(factory);
+              if (factoryPosition != null) {
+                unsatisfied[i]++;
+                dependents.get(factoryPosition).add(i);
+              }
+            }
+          }
+        }
+        if (unsatisfied[i] == 0) {
+          ready.add(i);
         }
       }
-      return count;
-    }
-
-    /**
-     * Return true if the (module) dependencies are satisfied for this factory.
-     */
-    private boolean satisfiedDependencies(FactoryState factory) {
-      for (Class<?> moduleOrFeature : factory.requires()) {
-        FactoryList factories = providesMap.get(moduleOrFeature.getTypeName());
-        if (factories == null || !factories.allPushed()) {
-          return false;
+      PriorityQueue<Integer> nextLoop = new PriorityQueue<>();
+      while (!ready.isEmpty()) {
+        int current = ready.poll();
+        push(queue.get(current));
+        for (int dependent : dependents.get(current)) {
+          if (--unsatisfied[dependent] == 0) {
+            (dependent > current ? ready : nextLoop).add(dependent);
+          }
+        }
+        if (ready.isEmpty()) {
+          PriorityQueue<Integer> swap = ready;
+          ready = nextLoop;
+          nextLoop = swap;
         }
       }
-      return true;
+      queue.removeIf(FactoryState::isPushed);
     }
 
     boolean isEmpty() {
@@ -362,18 +438,6 @@ class DBeanScopeBuilder implements BeanScopeBuilder.ForTesting {
     void add(FactoryState factory) {
       factories.add(factory);
     }
-
-    /**
-     * Return true if all factories here have been pushed onto the build order.
-     */
-    boolean allPushed() {
-      for (FactoryState factory : factories) {
-        if (!factory.isPushed()) {
-          return false;
-        }
-      }
-      return true;
-    }
   }
 
 }
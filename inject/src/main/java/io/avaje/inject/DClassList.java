@@ -0,0 +1,73 @@
+package io.avaje.inject;
+
+import io.avaje.inject.spi.Module;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Eagerly loads the generated and wired classes of modules using the class list
+ * written by the annotation processor.
+ * <p>
+ * The class list is in the same format as the AppCDS {@code -XX:SharedClassListFile}
+ * (binary names with {@code /} separators, one per line) and is listed in the order
+ * the classes are loaded when building the module.
+ */
+final class DClassList {
+
+  private static final Logger log = LoggerFactory.getLogger("io.avaje.inject");
+
+  static final String RESOURCE = "META-INF/avaje-inject/%s.classlist";
+
+  private int count;
+
+  /**
+   * Load all the classes for the module returning the number of classes loaded.
+   */
+  int preload(Module module) {
+    final Class<?> moduleType = module.getClass();
+    final ClassLoader loader = moduleType.getClassLoader();
+    final String resource = String.format(RESOURCE, moduleType.getName());
+    try (InputStream is = loader.getResourceAsStream(resource)) {
+      if (is == null) {
+        log.debug("no class list {} found, preloading module classes only", resource);
+        count += module.classes().length;
+      } else {
+        preload(loader, is);
+      }
+    } catch (IOException e) {
+      log.warn("Error reading class list " + resource, e);
+    }
+    return count;
+  }
+
+  private void preload(ClassLoader loader, InputStream is) throws IOException {
+    BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
+    String line;
+    while ((line = reader.readLine()) != null) {
+      line = line.trim();
+      if (!line.isEmpty() && line.charAt(0) != '#') {
+        load(loader, line.replace('/', '.'));
+      }
+    }
+  }
+
+  private void load(ClassLoader loader, String className) {
+    try {
+      // load without running static initialisers, those run in normal build order
+      Class.forName(className, false, loader);
+      count++;
+    } catch (ClassNotFoundException | LinkageError e) {
+      log.debug("unable to preload class {} {}", className, e.toString());
+    }
+  }
+
+  int count() {
+    return count;
+  }
+}
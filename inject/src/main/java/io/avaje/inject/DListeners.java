@@ -0,0 +1,67 @@
+package io.avaje.inject;
+
+import io.avaje.inject.spi.Module;
+
+import java.lang.reflect.Type;
+
+/**
+ * Combines two listeners.
+ */
+final class DListeners implements BeanScopeListener {
+
+  private final BeanScopeListener first;
+  private final BeanScopeListener second;
+
+  DListeners(BeanScopeListener first, BeanScopeListener second) {
+    this.first = first;
+    this.second = second;
+  }
+
+  @Override
+  public void moduleStart(Module module) {
+    first.moduleStart(module);
+    second.moduleStart(module);
+  }
+
+  @Override
+  public void moduleEnd(Module module, long nanos) {
+    first.moduleEnd(module, nanos);
+    second.moduleEnd(module, nanos);
+  }
+
+  @Override
+  public void beanStart(Type type, String name) {
+    first.beanStart(type, name);
+    second.beanStart(type, name);
+  }
+
+  @Override
+  public void beanEnd(Type type, String name, long nanos) {
+    first.beanEnd(type, name, nanos);
+    second.beanEnd(type, name, nanos);
+  }
+
+  @Override
+  public void injector(Type type, String name, long nanos) {
+    first.injector(type, name, nanos);
+    second.injector(type, name, nanos);
+  }
+
+  @Override
+  public void postConstruct(Type type, String name, long nanos) {
+    first.postConstruct(type, name, nanos);
+    second.postConstruct(type, name, nanos);
+  }
+
+  @Override
+  public void preDestroy(Type type, String name, long nanos) {
+    first.preDestroy(type, name, nanos);
+    second.preDestroy(type, name, nanos);
+  }
+
+  @Override
+  public void scopeBuilt(BeanScope scope, long nanos) {
+    first.scopeBuilt(scope, nanos);
+    second.scopeBuilt(scope, nanos);
+  }
+}
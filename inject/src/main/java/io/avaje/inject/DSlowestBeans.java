@@ -0,0 +1,84 @@
+package io.avaje.inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Startup report of the slowest beans.
+ * <p>
+ * The time for a bean is the sum of its construction, field/method injection and PostConstruct.
+ */
+final class DSlowestBeans implements BeanScopeListener {
+
+  private static final Logger log = LoggerFactory.getLogger("io.avaje.inject");
+
+  private final int count;
+  private final Map<String, Timing> timings = new LinkedHashMap<>();
+
+  DSlowestBeans(int count) {
+    this.count = count;
+  }
+
+  @Override
+  public void beanEnd(Type type, String name, long nanos) {
+    add(type, name, nanos);
+  }
+
+  @Override
+  public void injector(Type type, String name, long nanos) {
+    add(type, name, nanos);
+  }
+
+  @Override
+  public void postConstruct(Type type, String name, long nanos) {
+    add(type, name, nanos);
+  }
+
+  private void add(Type type, String name, long nanos) {
+    String key = name == null ? type.getTypeName() : type.getTypeName() + ":" + name;
+    timings.computeIfAbsent(key, Timing::new).nanos += nanos;
+  }
+
+  @Override
+  public void scopeBuilt(BeanScope scope, long nanos) {
+    log.info("built bean scope in {}ms, slowest beans {}", nanos / 1_000_000, slowest());
+  }
+
+  /**
+   * Return the slowest beans in descending order.
+   */
+  List<Timing> slowest() {
+    List<Timing> list = new ArrayList<>(timings.values());
+    list.sort((o1, o2) -> Long.compare(o2.nanos, o1.nanos));
+    return list.size() > count ? list.subList(0, count) : list;
+  }
+
+  static final class Timing {
+
+    private final String bean;
+    private long nanos;
+
+    Timing(String bean) {
+      this.bean = bean;
+    }
+
+    String bean() {
+      return bean;
+    }
+
+    long nanos() {
+      return nanos;
+    }
+
+    @Override
+    public String toString() {
+      return bean + " " + (nanos / 1000) + "us";
+    }
+  }
+}
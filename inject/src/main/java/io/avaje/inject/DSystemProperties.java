@@ -0,0 +1,18 @@
+package io.avaje.inject;
+
+/**
+ * System properties falling back to environment variables.
+ */
+final class DSystemProperties implements PropertySource {
+
+  static final DSystemProperties INSTANCE = new DSystemProperties();
+
+  @Override
+  public String get(String key) {
+    String value = System.getProperty(key);
+    if (value != null) {
+      return value;
+    }
+    return System.getenv(key.replace('.', '_').toUpperCase());
+  }
+}
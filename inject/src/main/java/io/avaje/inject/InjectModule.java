@@ -33,6 +33,17 @@ package io.avaje.inject;
  *
  *
  * }</pre>
+ *
+ * <h3>Tree shaking unreachable beans</h3>
+ * <p>
+ * Use {@code roots} to only build the beans that are reachable from the given root types.
+ * Beans that are not (transitively) depended on by a root are left out of the module build.
+ *
+ * <pre>{@code
+ *
+ *   @InjectModule(roots = {OrderController.class, OrderListener.class})
+ *
+ * }</pre>
  */
 public @interface InjectModule {
 
@@ -60,6 +71,22 @@ public @interface InjectModule {
    */
   Class<?>[] requires() default {};
 
+  /**
+   * The root types of the module used to tree shake unreachable beans.
+   * <p>
+   * When specified only the beans that provide a root type and the beans that they
+   * (transitively) depend on are built. Other beans in the module are not built, these
+   * are reported by the annotation processor and marked as unreachable in the
+   * dependency graph.
+   * <p>
+   * Beans that are only looked up by type or interface via the BeanScope (rather than
+   * injected) should be included as roots.
+   * <p>
+   * Roots can also be specified for the default module via the annotation processor
+   * option <code>-Aavaje.inject.roots=org.example.Foo,org.example.Bar</code>.
+   */
+  Class<?>[] roots() default {};
+
   /**
    * Internal use only - identifies the custom scope annotation associated to this module.
    * <p>
@@ -0,0 +1,31 @@
+package io.avaje.inject;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Only build the bean when one of the given profiles is active.
+ * <p>
+ * The active profiles are the comma separated values of the <code>avaje.profiles</code>
+ * property from the {@link PropertySource} of the bean scope.
+ *
+ * <pre>{@code
+ *
+ * @Profile("test")
+ * @Singleton
+ * class InMemoryCustomerRepository implements CustomerRepository {
+ *   ...
+ * }
+ * }</pre>
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Profile {
+
+  /**
+   * The profiles of which at least one must be active.
+   */
+  String[] value();
+}
@@ -0,0 +1,42 @@
+package io.avaje.inject;
+
+import io.avaje.lang.Nullable;
+
+/**
+ * Source of properties used by conditional beans ({@link RequiresProperty} and {@link Profile}).
+ * <p>
+ * Register via {@link BeanScopeBuilder#withProperties(PropertySource)}. By default the system
+ * properties are used falling back to environment variables.
+ *
+ * <pre>{@code
+ *
+ *   BeanScope scope = BeanScope.newBuilder()
+ *     .withProperties(config::getNullable)
+ *     .build();
+ *
+ * }</pre>
+ */
+@FunctionalInterface
+public interface PropertySource {
+
+  /**
+   * The property holding the comma separated active profiles.
+   */
+  String PROFILES = "avaje.profiles";
+
+  /**
+   * Return the system properties falling back to environment variables.
+   * <p>
+   * Environment variables are looked up by the upper case property name with
+   * dots replaced by underscores (e.g. <code>EMAIL_PROVIDER</code> for <code>email.provider</code>).
+   */
+  static PropertySource system() {
+    return DSystemProperties.INSTANCE;
+  }
+
+  /**
+   * Return the property value or null if the property is not set.
+   */
+  @Nullable
+  String get(String key);
+}
@@ -0,0 +1,38 @@
+package io.avaje.inject;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Only build the bean when other beans are present (or missing) in the scope.
+ * <p>
+ * Beans in the same module of the given types are built before this bean. Beans of these
+ * types provided by other modules or the parent scope must be wired earlier (for example
+ * via <code>@InjectModule(requires)</code>).
+ *
+ * <pre>{@code
+ *
+ * // only build when there is no other EmailSender
+ * @RequiresBean(missing = EmailSender.class)
+ * @Singleton
+ * class NoopEmailSender implements EmailSender {
+ *   ...
+ * }
+ * }</pre>
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RequiresBean {
+
+  /**
+   * Beans of these types must be present.
+   */
+  Class<?>[] value() default {};
+
+  /**
+   * Beans of these types must not be present.
+   */
+  Class<?>[] missing() default {};
+}
@@ -0,0 +1,43 @@
+package io.avaje.inject;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Only build the bean when the property is set (and optionally has the given value).
+ * <p>
+ * The property is checked against the {@link PropertySource} of the bean scope, by default
+ * system properties and environment variables. When the condition is not met the bean is
+ * not constructed. Beans in the module that are only depended on by beans that are not
+ * built (via property and profile conditions) are also not constructed.
+ *
+ * <pre>{@code
+ *
+ * @RequiresProperty(value = "email.provider", equalTo = "smtp")
+ * @Singleton
+ * class SmtpEmailSender implements EmailSender {
+ *   ...
+ * }
+ * }</pre>
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RequiresProperty {
+
+  /**
+   * The property name.
+   */
+  String value();
+
+  /**
+   * When set the property value must equal this value.
+   */
+  String equalTo() default "";
+
+  /**
+   * When set the property must be set and not equal this value.
+   */
+  String notEqualTo() default "";
+}
@@ -0,0 +1,45 @@
+package io.avaje.inject.aop;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Method interceptor for methods returning a {@link CompletionStage} (like CompletableFuture)
+ * that composes on the returned stage rather than blocking on it.
+ * <p>
+ * The interceptor invokes the method via {@link Invocation#invokeStage()} and returns a stage
+ * composed on it. The returned stage is the result returned to the caller and as such should
+ * be of the type the method returns (e.g. the CompletableFuture returned by
+ * {@code CompletableFuture.whenComplete()} for a method returning CompletableFuture).
+ * <p>
+ * The invocation can be invoked again after this interceptor has returned, for example to retry
+ * when the stage completes exceptionally.
+ *
+ * <pre>{@code
+ *
+ *   public CompletionStage<?> invokeAsync(Invocation invocation) {
+ *     long start = System.nanoTime();
+ *     return invocation.invokeStage()
+ *       .whenComplete((result, e) -> timer.add(System.nanoTime() - start));
+ *   }
+ *
+ * }</pre>
+ */
+public interface AsyncMethodInterceptor extends MethodInterceptor {
+
+  /**
+   * Intercept the invocation returning the stage that is returned to the caller.
+   *
+   * @param invocation The invocation being intercepted
+   * @return The stage composed on the stage returned by the invocation
+   * @throws Throwable If the interception throws an exception
+   */
+  CompletionStage<?> invokeAsync(Invocation invocation) throws Throwable;
+
+  /**
+   * Set the stage returned by {@link #invokeAsync(Invocation)} as the result.
+   */
+  @Override
+  default void invoke(Invocation invocation) throws Throwable {
+    invocation.result(invokeAsync(invocation));
+  }
+}
@@ -1,5 +1,6 @@
 package io.avaje.inject.aop;
 
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Method;
 
 /**
@@ -24,7 +25,23 @@ public interface Fallback {
    * @throws NoSuchMethodException When no matching fallback method is found
    */
   static Fallback find(String name, Method method) throws NoSuchMethodException {
-    return FallbackFinder.find(name, method);
+    return FallbackFinder.find(name, method, MethodHandles.lookup());
+  }
+
+  /**
+   * Find and return the fallback using the given lookup to access the fallback method.
+   * <p>
+   * The fallback is invoked via a MethodHandle (rather than reflection) with a lookup from the
+   * class declaring the fallback method allowing it to be non-public.
+   *
+   * @param name   The name of the fallback method
+   * @param method The original method which we match to using argument types.
+   * @param lookup The lookup used to access the fallback method
+   * @return The fallback
+   * @throws NoSuchMethodException When no matching fallback method is found
+   */
+  static Fallback find(String name, Method method, MethodHandles.Lookup lookup) throws NoSuchMethodException {
+    return FallbackFinder.find(name, method, lookup);
   }
 
   /**
@@ -1,19 +1,29 @@
 package io.avaje.inject.aop;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Parameter;
 
+/**
+ * Finds the fallback method and adapts it to a MethodHandle taking the instance and arguments
+ * as an array such that invoking the fallback is not a reflective call.
+ */
 final class FallbackFinder {
 
-  static Fallback find(String name, Method method) throws NoSuchMethodException {
+  static Fallback find(String name, Method method, MethodHandles.Lookup lookup) throws NoSuchMethodException {
     Class<?> type = method.getDeclaringClass();
     Parameter[] parameters = method.getParameters();
+    Method fallbackMethod;
     try {
-      return new WithThrowable(type.getDeclaredMethod(name, paramTypesWithThrowable(parameters)));
+      fallbackMethod = type.getDeclaredMethod(name, paramTypesWithThrowable(parameters));
     } catch (NoSuchMethodException e) {
-      return new WithoutThrowable(type.getDeclaredMethod(name, paramTypes(parameters)));
+      fallbackMethod = type.getDeclaredMethod(name, paramTypes(parameters));
+      return new WithoutThrowable(withoutThrowable(handle(lookup, fallbackMethod), parameters.length));
     }
+    return new WithThrowable(withThrowable(handle(lookup, fallbackMethod), parameters.length));
   }
 
   private static Class<?>[] paramTypes(Parameter[] parameters) {
@@ -33,41 +43,86 @@ final class FallbackFinder {
     return paramTypes;
   }
 
-  static class WithThrowable implements Fallback {
+  /**
+   * Return the handle for the fallback method taking the instance as first parameter (also when static).
+   */
+  private static MethodHandle handle(MethodHandles.Lookup lookup, Method fallbackMethod) {
+    MethodHandle handle;
+    try {
+      handle = lookup.unreflect(fallbackMethod);
+    } catch (IllegalAccessException e) {
+      try {
+        fallbackMethod.setAccessible(true);
+        handle = lookup.unreflect(fallbackMethod);
+      } catch (IllegalAccessException | RuntimeException ex) {
+        throw new InvocationException("Unable to access fallback method " + fallbackMethod, ex);
+      }
+    }
+    if (Modifier.isStatic(fallbackMethod.getModifiers())) {
+      handle = MethodHandles.dropArguments(handle, 0, Object.class);
+    }
+    return handle;
+  }
+
+  /**
+   * Adapt to {@code (Object instance, Object[] args)Object}.
+   */
+  static MethodHandle withoutThrowable(MethodHandle handle, int paramCount) {
+    return handle
+      .asType(MethodType.genericMethodType(paramCount + 1))
+      .asSpreader(Object[].class, paramCount);
+  }
+
+  /**
+   * Adapt to {@code (Object instance, Object throwable, Object[] args)Object} such that
+   * the throwable is passed without copying the arguments into a new array.
+   */
+  static MethodHandle withThrowable(MethodHandle handle, int paramCount) {
+    MethodHandle generic = handle.asType(MethodType.genericMethodType(paramCount + 2));
+    int[] reorder = new int[paramCount + 2];
+    for (int i = 1; i <= paramCount; i++) {
+      reorder[i] = i + 1;
+    }
+    reorder[paramCount + 1] = 1;
+    return MethodHandles.permuteArguments(generic, MethodType.genericMethodType(paramCount + 2), reorder)
+      .asSpreader(Object[].class, paramCount);
+  }
+
+  static final class WithThrowable implements Fallback {
 
-    private final Method fallbackMethod;
+    private final MethodHandle handle;
 
-    WithThrowable(Method fallbackMethod) {
-      this.fallbackMethod = fallbackMethod;
+    WithThrowable(MethodHandle handle) {
+      this.handle = handle;
     }
 
     @Override
     public Object invoke(Invocation call, Throwable e) {
       try {
-        final Object result = fallbackMethod.invoke(call.instance(), call.arguments(e));
+        final Object result = (Object) handle.invokeExact(call.instance(), (Object) e, call.arguments());
         call.result(result);
         return result;
-      } catch (IllegalAccessException | InvocationTargetException ex) {
+      } catch (Throwable ex) {
         throw new InvocationException("Error invoking fallback method", ex);
       }
     }
   }
 
-  static class WithoutThrowable implements Fallback {
+  static final class WithoutThrowable implements Fallback {
 
-    private final Method fallbackMethod;
+    private final MethodHandle handle;
 
-    WithoutThrowable(Method fallbackMethod) {
-      this.fallbackMethod = fallbackMethod;
+    WithoutThrowable(MethodHandle handle) {
+      this.handle = handle;
     }
 
     @Override
     public Object invoke(Invocation call, Throwable e) {
       try {
-        final Object result = fallbackMethod.invoke(call.instance(), call.arguments());
+        final Object result = (Object) handle.invokeExact(call.instance(), call.arguments());
         call.result(result);
         return result;
-      } catch (IllegalAccessException | InvocationTargetException ex) {
+      } catch (Throwable ex) {
         throw new InvocationException("Error invoking fallback method", ex);
       }
     }
@@ -2,6 +2,9 @@ package io.avaje.inject.aop;
 
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
  * Method invocation using in {@link MethodInterceptor#invoke(Invocation)} for Aspects.
@@ -18,6 +21,34 @@ public interface Invocation {
    */
   Object invoke() throws Throwable;
 
+  /**
+   * Invoke the underlying method without returning the result.
+   * <p>
+   * Interceptors that do not use the result (like timing) can use this rather than
+   * {@link #invoke()} such that a primitive result is not boxed.
+   */
+  default void proceed() throws Throwable {
+    invoke();
+  }
+
+  /**
+   * Invoke the underlying method that returns a {@link CompletionStage} returning the stage.
+   * <p>
+   * An exception thrown synchronously is returned as a failed stage such that an
+   * {@link AsyncMethodInterceptor} composing on the stage sees all failures. This returns
+   * null when the method returns null (rather than a stage).
+   */
+  @SuppressWarnings("unchecked")
+  default CompletionStage<Object> invokeStage() {
+    try {
+      return (CompletionStage<Object>) invoke();
+    } catch (Throwable e) {
+      CompletableFuture<Object> failed = new CompletableFuture<>();
+      failed.completeExceptionally(e);
+      return failed;
+    }
+  }
+
   /**
    * Set the result that will be returned to the caller.
    * <p>
@@ -38,6 +69,16 @@ public interface Invocation {
    */
   Object[] arguments(Throwable e);
 
+  /**
+   * Return the argument at the given index.
+   * <p>
+   * Unlike {@link #arguments()} this does not box all the arguments into an array when the
+   * invocation holds them as fields (only a primitive argument is boxed).
+   */
+  default Object argument(int index) {
+    return arguments()[index];
+  }
+
   /**
    * Return the method being called for this invocation.
    */
@@ -50,8 +91,29 @@ public interface Invocation {
    */
   Object instance();
 
+  /**
+   * Return an invocation of the rest of the chain (the interceptors after the calling interceptor
+   * and the underlying method) with its own arguments and result.
+   * <p>
+   * The returned invocation can be invoked after the interceptor returns and concurrently with
+   * other detached invocations (e.g. to execute asynchronously or to hedge). Setting its result
+   * does not change the result of this invocation. This is expected to be called by the
+   * interceptor before it returns. The detached invocation can be invoked more than once (e.g. to
+   * retry) but not concurrently with itself.
+   * <p>
+   * Implementations that do not support detaching return this invocation.
+   */
+  default Invocation detach() {
+    return this;
+  }
+
   /**
    * Builds Invocation for both callable and runnable methods.
+   * <p>
+   * Subclasses must implement {@link #copy()} and {@link #invokeMethod()} (used to detach and
+   * to resume the chain). These are abstract so subclasses written against versions before
+   * 6.19 no longer compile and need to implement them. Prefer {@link Call}, {@link Run} or the
+   * generated {@link Target} subclasses rather than extending this directly.
    *
    * @param <T> The result type
    */
@@ -61,6 +123,16 @@ public interface Invocation {
     protected Object[] args;
     protected Object instance;
     protected T result;
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<Build> POSITION = AtomicIntegerFieldUpdater.newUpdater(Build.class, "position");
+
+    private MethodInterceptor[] chain;
+    private volatile int position;
+    private int base;
+    private int handoff;
+    private int proceeds;
+    private Thread owner;
+    private boolean detached;
 
     /**
      * Set the instance, method and arguments for the invocation.
@@ -72,6 +144,174 @@ public interface Invocation {
       return this;
     }
 
+    /**
+     * Set the interceptors to invoke in order with the outer-most interceptor first.
+     * <p>
+     * Each interceptor calling {@link #invoke()} proceeds to the next interceptor in the
+     * chain and the last one proceeds to the underlying method. This is the same as nesting
+     * the invocation via {@link #wrap(MethodInterceptor)} but the same invocation instance is
+     * used at every position of the chain such that no additional invocation is created.
+     * <p>
+     * The chain position is restored when an interceptor returns. An interceptor that invokes
+     * after it has returned (e.g. from an executor) or invokes from another thread proceeds via
+     * an invocation of the rest of the chain that does not use the shared position. This resumes
+     * after the inner-most interceptor that returned without proceeding (taken to be the one that
+     * handed the invocation off) or otherwise after the outer-most interceptor. Interceptors that
+     * need their own result should use {@link #detach()}. An {@link AsyncMethodInterceptor} is
+     * always given its own invocation of the rest of the chain.
+     *
+     * @param chain The interceptors (typically held per method by the proxy and shared)
+     */
+    public Build<T> chain(MethodInterceptor[] chain) {
+      this.chain = chain;
+      return this;
+    }
+
+    /**
+     * Proceed to the next interceptor of the chain returning false when there is none
+     * and the underlying method should be invoked.
+     */
+    protected boolean invokeNext() throws Throwable {
+      final MethodInterceptor[] chain = this.chain;
+      if (chain == null) {
+        return false;
+      }
+      final int current = position;
+      final Thread thread = Thread.currentThread();
+      if (owner == null || (detached && current == base)) {
+        // first invoke, or a detached invocation invoked again by its holder
+        owner = thread;
+        handoff = 0;
+      } else if (current == base || owner != thread) {
+        // invoked after the interceptor returned or from another thread
+        invokeFrom(lateStart(current));
+        return true;
+      }
+      proceeds++;
+      if (current == chain.length) {
+        return false;
+      }
+      final MethodInterceptor next = chain[current];
+      if (next instanceof AsyncMethodInterceptor) {
+        next.invoke(new Resume(current + 1));
+        return true;
+      }
+      if (handoff > current) {
+        handoff = 0;
+      }
+      final int before = proceeds;
+      POSITION.lazySet(this, current + 1);
+      try {
+        next.invoke(this);
+      } finally {
+        if (proceeds == before) {
+          // returned without proceeding, a later invoke resumes after it
+          handoff = current + 1;
+        }
+        POSITION.lazySet(this, current);
+      }
+      return true;
+    }
+
+    /**
+     * Return the chain position to resume from for an invoke after the interceptor returned
+     * or from another thread.
+     */
+    private int lateStart(int current) {
+      return Math.max(handoff, Math.max(current, base + 1));
+    }
+
+    /**
+     * Return a new invocation of the same method and arguments (without chain or result).
+     */
+    protected abstract Build<T> copy();
+
+    @Override
+    public Invocation detach() {
+      return detachFrom(position);
+    }
+
+    private Build<T> detachFrom(int from) {
+      final Build<T> copy = copy();
+      copy.instance = instance;
+      copy.method = method;
+      copy.args = args;
+      copy.chain = chain;
+      copy.base = from;
+      copy.position = from;
+      copy.detached = true;
+      return copy;
+    }
+
+    /**
+     * Invoke the underlying method (not the interceptors) setting and returning the result.
+     */
+    protected abstract Object invokeMethod() throws Throwable;
+
+    /**
+     * Invoke the chain from the given position with an invocation per position (rather than
+     * the shared position) such that it can be invoked after the interceptor returns.
+     */
+    private Object invokeFrom(int from) throws Throwable {
+      if (from == chain.length) {
+        return invokeMethod();
+      }
+      chain[from].invoke(new Resume(from + 1));
+      return finalResult();
+    }
+
+    /**
+     * Invocation of the rest of the chain from a given position.
+     */
+    private final class Resume implements Invocation {
+
+      private final int from;
+
+      Resume(int from) {
+        this.from = from;
+      }
+
+      @Override
+      public Object invoke() throws Throwable {
+        return invokeFrom(from);
+      }
+
+      @Override
+      public void result(Object result) {
+        Build.this.result(result);
+      }
+
+      @Override
+      public Object[] arguments() {
+        return Build.this.arguments();
+      }
+
+      @Override
+      public Object[] arguments(Throwable e) {
+        return Build.this.arguments(e);
+      }
+
+      @Override
+      public Object argument(int index) {
+        return Build.this.argument(index);
+      }
+
+      @Override
+      public Method method() {
+        return method;
+      }
+
+      @Override
+      public Object instance() {
+        return instance;
+      }
+
+      @Override
+      public Invocation detach() {
+        return detachFrom(from);
+      }
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public void result(Object result) {
@@ -87,11 +327,36 @@ public interface Invocation {
 
     @Override
     public Object[] arguments() {
+      if (args == null) {
+        args = boxArguments();
+      }
       return args;
     }
 
+    /**
+     * Return the arguments as an array (boxing primitives) when they are first requested.
+     * <p>
+     * This is used when the arguments are not supplied via {@link #with(Object, Method, Object...)}.
+     */
+    protected Object[] boxArguments() {
+      return null;
+    }
+
+    @Override
+    public Object argument(int index) {
+      return args != null ? args[index] : boxArgument(index);
+    }
+
+    /**
+     * Return the argument at the given index when the arguments have not been boxed into an array.
+     */
+    protected Object boxArgument(int index) {
+      return arguments()[index];
+    }
+
     @Override
     public Object[] arguments(Throwable e) {
+      final Object[] args = arguments();
       if (args == null || args.length == 0) {
         return new Object[]{e};
       } else {
@@ -138,10 +403,23 @@ public interface Invocation {
 
     @Override
     public Object invoke() throws Throwable {
+      if (!invokeNext()) {
+        delegate.invoke();
+      }
+      return null;
+    }
+
+    @Override
+    protected Object invokeMethod() throws Throwable {
       delegate.invoke();
       return null;
     }
 
+    @Override
+    protected Build<Void> copy() {
+      return new Invocation.Run(delegate);
+    }
+
     @Override
     public Build<Void> wrap(MethodInterceptor methodInterceptor) {
       return new Invocation.Run(() -> methodInterceptor.invoke(this))
@@ -166,15 +444,29 @@ public interface Invocation {
 
     @Override
     public Object invoke() throws Throwable {
-      result = delegate.invoke();
+      if (!invokeNext()) {
+        result = delegate.invoke();
+      }
       return result;
     }
 
+    @Override
+    protected Object invokeMethod() throws Throwable {
+      T value = delegate.invoke();
+      result = value;
+      return value;
+    }
+
     @Override
     public T finalResult() {
       return result;
     }
 
+    @Override
+    protected Build<T> copy() {
+      return new Invocation.Call<>(delegate);
+    }
+
     @Override
     public Build<T> wrap(MethodInterceptor methodInterceptor) {
       return new Invocation.Call<T>(() -> {
@@ -185,6 +477,69 @@ public interface Invocation {
     }
   }
 
+  /**
+   * Invocation that invokes the target method directly, typically generated per proxied method.
+   * <p>
+   * The arguments are held by the implementation (as primitives where applicable) and only boxed
+   * into an array when {@link #arguments()} is called. An implementation with a primitive return
+   * type holds the result in a primitive field overriding {@link #invoke()}, {@link #result(Object)}
+   * and {@link #finalResult()} such that the result is only boxed when it is requested as an Object.
+   *
+   * @param <T> The result type
+   */
+  abstract class Target<T> extends Build<T> {
+
+    /**
+     * Create with the instance, method and interceptor chain.
+     */
+    protected Target(Object instance, Method method, MethodInterceptor[] chain) {
+      this.instance = instance;
+      this.method = method;
+      chain(chain);
+    }
+
+    /**
+     * Invoke the target method setting the result.
+     */
+    protected abstract void invokeTarget() throws Throwable;
+
+    @Override
+    protected abstract Object[] boxArguments();
+
+    /**
+     * Return a new invocation holding the same arguments (used by {@link #detach()}).
+     */
+    @Override
+    protected abstract Target<T> copy();
+
+    @Override
+    public void proceed() throws Throwable {
+      if (!invokeNext()) {
+        invokeTarget();
+      }
+    }
+
+    @Override
+    public Object invoke() throws Throwable {
+      proceed();
+      return result;
+    }
+
+    @Override
+    protected Object invokeMethod() throws Throwable {
+      invokeTarget();
+      return finalResult();
+    }
+
+    @Override
+    public Build<T> wrap(MethodInterceptor methodInterceptor) {
+      return new Invocation.Call<T>(() -> {
+        methodInterceptor.invoke(this);
+        return finalResult();
+      }).with(instance, method, arguments());
+    }
+  }
+
   /**
    * Runnable with checked exceptions.
    */
@@ -5,6 +5,9 @@ package io.avaje.inject.aop;
  * <p>
  * When using aspects and {@link MethodInterceptor} any throwable that is undeclared on the
  * method is caught and re-throw as an InvocationException.
+ * <p>
+ * An InvocationException (including subtypes) thrown by an interceptor is re-thrown as is
+ * such that interceptors rejecting a call can extend this type and are not wrapped.
  */
 public class InvocationException extends RuntimeException {
 
@@ -22,4 +25,11 @@ public class InvocationException extends RuntimeException {
     super(message, cause);
   }
 
+  /**
+   * Create with a given message, cause and whether suppression or the stack trace is enabled.
+   */
+  protected InvocationException(String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace) {
+    super(message, cause, enableSuppression, writableStackTrace);
+  }
+
 }
@@ -1,6 +1,8 @@
 package io.avaje.inject.spi;
 
 import io.avaje.inject.BeanScope;
+import io.avaje.inject.BeanScopeListener;
+import io.avaje.inject.PropertySource;
 import jakarta.inject.Provider;
 
 import java.lang.reflect.Type;
@@ -31,6 +33,43 @@ public interface Builder {
     return new DBuilderExtn(parent, parentOverride, suppliedBeans, enrichBeans);
   }
 
+  /**
+   * Create the root level Builder for the given modules.
+   *
+   * @param suppliedBeans  The list of beans (typically test doubles) supplied when building the context.
+   * @param enrichBeans    The list of classes we want to have with mockito spy enhancement
+   * @param parent         The parent BeanScope
+   * @param parentOverride When false do not add beans that already exist on the parent
+   * @param modules        The modules in the order they are built
+   * @param previous       The previous BeanScope to reuse unchanged beans from (when rebuilding)
+   * @param listener       The optional listener of the bean wiring
+   * @param properties     The source of properties for conditional beans
+   */
+  @SuppressWarnings("rawtypes")
+  static Builder newBuilder(List<SuppliedBean> suppliedBeans, List<EnrichBean> enrichBeans, BeanScope parent, boolean parentOverride,
+                            List<Module> modules, BeanScope previous, BeanScopeListener listener, PropertySource properties) {
+    DBuilder builder = (DBuilder) newBuilder(suppliedBeans, enrichBeans, parent, parentOverride);
+    builder.listener(listener);
+    builder.properties(properties);
+    builder.modules(modules, previous, suppliedBeans);
+    return builder;
+  }
+
+  /**
+   * Return the property value used by a conditional bean (null when not set).
+   */
+  String property(String key);
+
+  /**
+   * Return true if any of the given profiles is active (used by a conditional bean).
+   */
+  boolean isProfileActive(String... profiles);
+
+  /**
+   * Return true if a bean of the given type has been registered (used by a conditional bean).
+   */
+  boolean contains(Type type);
+
   /**
    * Return true if the bean should be created and registered with the context.
    * <p/>
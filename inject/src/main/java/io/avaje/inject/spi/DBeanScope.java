@@ -24,14 +24,21 @@ class DBeanScope implements BeanScope {
   private final DBeanMap beans;
   private final ShutdownHook shutdownHook;
   private final BeanScope parent;
+  private final List<Module> modules;
+  private final Collection<DBuiltBean> built;
+  private final List<String> suppliedTypes;
   private boolean shutdown;
   private boolean closed;
 
-  DBeanScope(boolean withShutdownHook, List<AutoCloseable> preDestroy, List<Runnable> postConstruct, DBeanMap beans, BeanScope parent) {
+  DBeanScope(boolean withShutdownHook, List<AutoCloseable> preDestroy, List<Runnable> postConstruct, DBeanMap beans, BeanScope parent,
+             List<Module> modules, Collection<DBuiltBean> built, List<String> suppliedTypes) {
     this.preDestroy = preDestroy;
     this.postConstruct = postConstruct;
     this.beans = beans;
     this.parent = parent;
+    this.modules = modules;
+    this.built = built;
+    this.suppliedTypes = suppliedTypes;
     if (withShutdownHook) {
       this.shutdownHook = new ShutdownHook(this);
       Runtime.getRuntime().addShutdownHook(shutdownHook);
@@ -162,8 +169,36 @@ class DBeanScope implements BeanScope {
     return this;
   }
 
+  /**
+   * Return the modules this scope was built with.
+   */
+  List<Module> modules() {
+    return modules;
+  }
+
+  /**
+   * Return the beans registered by the module build methods.
+   */
+  Collection<DBuiltBean> built() {
+    return built;
+  }
+
+  /**
+   * Return the types of the beans supplied when building this scope.
+   */
+  List<String> suppliedTypes() {
+    return suppliedTypes;
+  }
+
   @Override
   public void close() {
+    closeForRebuild(Collections.emptySet());
+  }
+
+  /**
+   * Close firing preDestroy methods except for the beans handed over to a rebuilt scope.
+   */
+  void closeForRebuild(Set<AutoCloseable> handedOver) {
     lock.lock();
     try {
       if (shutdownHook != null && !shutdown) {
@@ -174,10 +209,12 @@ class DBeanScope implements BeanScope {
         closed = true;
         log.trace("firing preDestroy");
         for (AutoCloseable closeable : preDestroy) {
-          try {
-            closeable.close();
-          } catch (Exception e) {
-            log.error("Error during PreDestroy lifecycle method", e);
+          if (!handedOver.contains(closeable)) {
+            try {
+              closeable.close();
+            } catch (Exception e) {
+              log.error("Error during PreDestroy lifecycle method", e);
+            }
           }
         }
       }
@@ -223,6 +260,15 @@ class DBeanScope implements BeanScope {
     }
 
     int initPriority(Class<? extends Annotation> priorityAnnotation) {
+      if (priorityAnnotation == Priority.class) {
+        // no reflective method lookup for our own annotation (nothing to register for native-image)
+        Priority ann = bean.getClass().getDeclaredAnnotation(Priority.class);
+        if (ann != null) {
+          priorityDefined = true;
+          return ann.value();
+        }
+        return 5000;
+      }
       // Avoid adding hard dependency on javax.annotation-api by using reflection
       try {
         Annotation ann = bean.getClass().getDeclaredAnnotation(priorityAnnotation);
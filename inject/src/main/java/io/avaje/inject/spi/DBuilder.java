@@ -2,7 +2,11 @@ package io.avaje.inject.spi;
 
 import io.avaje.inject.BeanEntry;
 import io.avaje.inject.BeanScope;
+import io.avaje.inject.BeanScopeListener;
+import io.avaje.inject.PropertySource;
 import jakarta.inject.Provider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Type;
 import java.util.*;
@@ -12,6 +16,8 @@ import static io.avaje.inject.spi.DBeanScope.combine;
 
 class DBuilder implements Builder {
 
+  private static final Logger log = LoggerFactory.getLogger("io.avaje.inject");
+
   /**
    * List of Lifecycle methods.
    */
@@ -28,6 +34,11 @@ class DBuilder implements Builder {
    */
   protected final DBeanMap beanMap = new DBeanMap();
 
+  /**
+   * The beans registered by module build methods keyed by type and name (for rebuild).
+   */
+  private final Map<String, DBuiltBean> built = new LinkedHashMap<>();
+
   private final BeanScope parent;
   private final boolean parentOverride;
 
@@ -41,6 +52,53 @@ class DBuilder implements Builder {
    */
   private boolean runningPostConstruct;
 
+  /**
+   * The last registered bean that preDestroy methods are associated with.
+   */
+  private DBuiltBean lastBuilt;
+
+  private List<Module> modules = Collections.emptyList();
+
+  /**
+   * The types of the supplied beans (beans depending on these are rebuilt).
+   */
+  private List<String> suppliedTypes = Collections.emptyList();
+
+  /**
+   * The previous scope (closed once this scope is built) when rebuilding.
+   */
+  private DBeanScope previous;
+
+  /**
+   * Beans from a previous scope to reuse when rebuilding.
+   */
+  private DRebuild rebuild;
+
+  /**
+   * The preDestroy methods of the reused beans (not closed with the previous scope).
+   */
+  private final Set<AutoCloseable> handedOver = Collections.newSetFromMap(new IdentityHashMap<>());
+
+  /**
+   * Optional listener, when null no timings are taken.
+   */
+  private BeanScopeListener listener;
+
+  /**
+   * Start time of the bean being constructed (when listener is set).
+   */
+  private long beanStart;
+
+  /**
+   * Source of properties for conditional beans.
+   */
+  private PropertySource properties = PropertySource.system();
+
+  /**
+   * The active profiles (read on first use).
+   */
+  private Set<String> profiles;
+
   DBuilder(BeanScope parent, boolean parentOverride) {
     this.parent = parent;
     this.parentOverride = parentOverride;
@@ -51,11 +109,95 @@ class DBuilder implements Builder {
     return isAddBeanFor(null, types);
   }
 
+  /**
+   * Set the modules being built and the previous bean scope to reuse beans from.
+   */
+  @SuppressWarnings("rawtypes")
+  void modules(List<Module> modules, BeanScope previous, List<SuppliedBean> suppliedBeans) {
+    this.modules = modules;
+    this.suppliedTypes = DRebuild.suppliedTypes(suppliedBeans);
+    if (previous != null) {
+      if (!(previous instanceof DBeanScope)) {
+        throw new IllegalArgumentException("Unable to rebuild from " + previous);
+      }
+      this.previous = (DBeanScope) previous;
+      this.rebuild = new DRebuild(this.previous, modules, suppliedTypes);
+      log.debug("rebuild reusing {} beans", rebuild.reuseCount());
+    }
+  }
+
+  /**
+   * Set the listener of the bean wiring.
+   */
+  void listener(BeanScopeListener listener) {
+    this.listener = listener;
+  }
+
+  /**
+   * Set the source of properties for conditional beans.
+   */
+  void properties(PropertySource properties) {
+    this.properties = properties;
+  }
+
+  @Override
+  public String property(String key) {
+    return properties.get(key);
+  }
+
+  @Override
+  public boolean isProfileActive(String... profiles) {
+    if (this.profiles == null) {
+      this.profiles = new HashSet<>();
+      String active = properties.get(PropertySource.PROFILES);
+      if (active != null) {
+        for (String profile : active.split(",")) {
+          this.profiles.add(profile.trim());
+        }
+      }
+    }
+    for (String profile : profiles) {
+      if (this.profiles.contains(profile)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public boolean contains(Type type) {
+    if (!beanMap.all(type).isEmpty()) {
+      return true;
+    }
+    if (parent == null) {
+      return false;
+    }
+    try {
+      return parent.get(type, null) != null;
+    } catch (NoSuchElementException e) {
+      return false;
+    }
+  }
+
   @Override
-  public boolean isAddBeanFor(String name, Type... types) {
+  public final boolean isAddBeanFor(String name, Type... types) {
     next(name, types);
+    if (!isAddBean(name, types)) {
+      return false;
+    }
+    if (listener != null) {
+      listener.beanStart(injectTarget, name);
+      beanStart = System.nanoTime();
+    }
+    return true;
+  }
+
+  /**
+   * Return true if the bean should be created (not provided by parent, reused or supplied).
+   */
+  protected boolean isAddBean(String name, Type[] types) {
     if (parentOverride || parent == null) {
-      return true;
+      return !reuse(name, types);
     }
     for (Type type : types) {
       try {
@@ -65,6 +207,25 @@ class DBuilder implements Builder {
         // ignore
       }
     }
+    return !reuse(name, types);
+  }
+
+  /**
+   * Register the bean from the previous scope when rebuilding and the bean is unchanged.
+   */
+  private boolean reuse(String name, Type[] types) {
+    if (rebuild == null || types.length == 0) {
+      return false;
+    }
+    DBuiltBean reused = rebuild.reuse(DRebuild.key(types[0], name));
+    if (reused == null || beanMap.isSupplied(name, types)) {
+      return false;
+    }
+    beanMap.register(reused.flag(), reused.bean());
+    built.put(reused.key(), reused);
+    preDestroy.addAll(reused.preDestroy());
+    handedOver.addAll(reused.preDestroy());
+    lastBuilt = null;
     return true;
   }
 
@@ -124,8 +285,16 @@ class DBuilder implements Builder {
   }
 
   private <T> T register(int flag, T bean) {
-    bean = enrich(bean, beanMap.next());
+    DBeanMap.NextBean next = beanMap.next();
+    bean = enrich(bean, next);
     beanMap.register(flag, bean);
+    if (next.types.length > 0) {
+      lastBuilt = new DBuiltBean(DRebuild.key(next.types[0], next.name), bean, flag);
+      built.put(lastBuilt.key(), lastBuilt);
+      if (listener != null) {
+        listener.beanEnd(next.types[0], next.name, System.nanoTime() - beanStart);
+      }
+    }
     return bean;
   }
 
@@ -133,23 +302,63 @@ class DBuilder implements Builder {
   public <T> void withBean(Class<T> type, T bean) {
     next(null, type);
     beanMap.register(BeanEntry.SUPPLIED, bean);
+    lastBuilt = null;
   }
 
   @Override
   public void addPostConstruct(Runnable invoke) {
+    if (listener != null) {
+      invoke = timedPostConstruct(invoke, beanMap.next());
+    }
     postConstruct.add(invoke);
   }
 
   @Override
   public void addPreDestroy(AutoCloseable invoke) {
+    if (listener != null) {
+      invoke = timedPreDestroy(invoke, beanMap.next());
+    }
     preDestroy.add(invoke);
+    if (lastBuilt != null) {
+      lastBuilt.addPreDestroy(invoke);
+    }
   }
 
   @Override
   public void addInjector(Consumer<Builder> injector) {
+    if (listener != null) {
+      injector = timedInjector(injector, beanMap.next());
+    }
     injectors.add(injector);
   }
 
+  private Runnable timedPostConstruct(Runnable invoke, DBeanMap.NextBean next) {
+    final BeanScopeListener listener = this.listener;
+    return () -> {
+      long start = System.nanoTime();
+      invoke.run();
+      listener.postConstruct(next.types[0], next.name, System.nanoTime() - start);
+    };
+  }
+
+  private AutoCloseable timedPreDestroy(AutoCloseable invoke, DBeanMap.NextBean next) {
+    final BeanScopeListener listener = this.listener;
+    return () -> {
+      long start = System.nanoTime();
+      invoke.close();
+      listener.preDestroy(next.types[0], next.name, System.nanoTime() - start);
+    };
+  }
+
+  private Consumer<Builder> timedInjector(Consumer<Builder> injector, DBeanMap.NextBean next) {
+    final BeanScopeListener listener = this.listener;
+    return builder -> {
+      long start = System.nanoTime();
+      injector.accept(builder);
+      listener.injector(next.types[0], next.name, System.nanoTime() - start);
+    };
+  }
+
   @Override
   public <T> Optional<T> getOptional(Class<T> cls) {
     return getOptional(cls, null);
@@ -235,6 +444,11 @@ class DBuilder implements Builder {
 
   public BeanScope build(boolean withShutdownHook) {
     runInjectors();
-    return new DBeanScope(withShutdownHook, preDestroy, postConstruct, beanMap, parent).start();
+    DBeanScope scope = new DBeanScope(withShutdownHook, preDestroy, postConstruct, beanMap, parent, modules, built.values(), suppliedTypes).start();
+    if (previous != null) {
+      // only close the previous scope once this scope has been built successfully
+      previous.closeForRebuild(handedOver);
+    }
+    return scope;
   }
 }
@@ -32,8 +32,8 @@ class DBuilderExtn extends DBuilder {
   }
 
   @Override
-  public boolean isAddBeanFor(String qualifierName, Type... types) {
-    if (!super.isAddBeanFor(qualifierName, types)) {
+  protected boolean isAddBean(String qualifierName, Type[] types) {
+    if (!super.isAddBean(qualifierName, types)) {
       return false;
     }
     if (hasSuppliedBeans) {
@@ -0,0 +1,55 @@
+package io.avaje.inject.spi;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A bean registered by a module build method along with its preDestroy methods.
+ * <p>
+ * Used to hand over unchanged bean instances when rebuilding a bean scope.
+ */
+final class DBuiltBean {
+
+  private final String key;
+  private final Object bean;
+  private final int flag;
+  private List<AutoCloseable> preDestroy;
+
+  DBuiltBean(String key, Object bean, int flag) {
+    this.key = key;
+    this.bean = bean;
+    this.flag = flag;
+  }
+
+  @Override
+  public String toString() {
+    return key;
+  }
+
+  /**
+   * Return the key (type and qualifier name) of the bean.
+   */
+  String key() {
+    return key;
+  }
+
+  Object bean() {
+    return bean;
+  }
+
+  int flag() {
+    return flag;
+  }
+
+  void addPreDestroy(AutoCloseable closeable) {
+    if (preDestroy == null) {
+      preDestroy = new ArrayList<>(2);
+    }
+    preDestroy.add(closeable);
+  }
+
+  List<AutoCloseable> preDestroy() {
+    return preDestroy == null ? Collections.emptyList() : preDestroy;
+  }
+}
@@ -0,0 +1,260 @@
+package io.avaje.inject.spi;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.*;
+
+/**
+ * Determines the beans of a previous bean scope that can be reused when rebuilding.
+ * <p>
+ * The {@link DependencyMeta} of the previous and new modules is compared. Beans that
+ * are added, removed or have changed meta data (or classes when loaded by a different
+ * class loader) are rebuilt along with all the beans that transitively depend on them.
+ * Beans replaced by a supplied bean (supplied to either the previous or the new scope) are
+ * rebuilt along with their dependents. Conditional beans (property, profile and bean conditions)
+ * are always rebuilt along with their dependents as the conditions may evaluate differently.
+ * All other beans are handed over to the new bean scope.
+ */
+final class DRebuild {
+
+  private static final String SOFT_PREFIX = "soft:";
+
+  private static final String[] WRAPPERS = {
+    "jakarta.inject.Provider<", "javax.inject.Provider<", "java.util.List<", "java.util.Set<", "java.util.Optional<"
+  };
+
+  private final Map<String, DBuiltBean> reuse = new HashMap<>();
+
+  DRebuild(DBeanScope previous, List<Module> modules, List<String> suppliedTypes) {
+    Map<String, Meta> previousMeta = readMeta(previous.modules());
+    Map<String, Meta> meta = readMeta(modules);
+    List<String> supplied = new ArrayList<>(suppliedTypes);
+    supplied.addAll(previous.suppliedTypes());
+    Set<String> changed = changed(previousMeta, meta, supplied);
+    for (DBuiltBean bean : previous.built()) {
+      if (meta.containsKey(bean.key()) && !changed.contains(bean.key())) {
+        reuse.put(bean.key(), bean);
+      }
+    }
+  }
+
+  /**
+   * Return the key for the bean type and qualifier name.
+   */
+  static String key(String type, String name) {
+    return name == null || name.isEmpty() ? type : type + "|" + KeyUtil.lower(name);
+  }
+
+  /**
+   * Return the key for the bean type and qualifier name.
+   */
+  static String key(Type type, String name) {
+    return key(typeName(type), name);
+  }
+
+  /**
+   * Return the type name in the form used by DependencyMeta (nested classes like
+   * {@code Outer.Inner} rather than {@code Outer$Inner}).
+   */
+  static String typeName(Type type) {
+    if (type instanceof Class) {
+      String canonicalName = ((Class<?>) type).getCanonicalName();
+      return canonicalName == null ? type.getTypeName() : canonicalName;
+    }
+    if (type instanceof ParameterizedType) {
+      ParameterizedType parameterizedType = (ParameterizedType) type;
+      StringJoiner args = new StringJoiner(",", "<", ">");
+      for (Type arg : parameterizedType.getActualTypeArguments()) {
+        args.add(typeName(arg));
+      }
+      return typeName(parameterizedType.getRawType()) + args;
+    }
+    return type.getTypeName();
+  }
+
+  /**
+   * Return the previous bean to reuse for the given key or null if it needs to be built.
+   */
+  DBuiltBean reuse(String key) {
+    return reuse.get(key);
+  }
+
+  /**
+   * Return the number of beans that can be reused.
+   */
+  int reuseCount() {
+    return reuse.size();
+  }
+
+  /**
+   * Return the types of the supplied beans, beans depending on these are always rebuilt.
+   */
+  @SuppressWarnings("rawtypes")
+  static List<String> suppliedTypes(List<SuppliedBean> suppliedBeans) {
+    List<String> types = new ArrayList<>();
+    for (SuppliedBean suppliedBean : suppliedBeans) {
+      types.add(typeName(suppliedBean.type()));
+      for (Class<?> anInterface : suppliedBean.interfaces()) {
+        types.add(typeName(anInterface));
+      }
+    }
+    return types;
+  }
+
+  /**
+   * Return the keys of the beans that need to be built.
+   */
+  static Set<String> changed(Map<String, Meta> previousMeta, Map<String, Meta> meta, List<String> suppliedTypes) {
+    Set<String> changed = new HashSet<>();
+    Deque<String> changedTypes = new ArrayDeque<>(suppliedTypes);
+    for (Meta bean : meta.values()) {
+      Meta previous = previousMeta.get(bean.key);
+      if (previous == null || !previous.isSame(bean) || bean.conditional || bean.isSupplied(suppliedTypes)) {
+        changed.add(bean.key);
+        bean.addTypes(changedTypes);
+      }
+    }
+    for (Meta previous : previousMeta.values()) {
+      if (!meta.containsKey(previous.key)) {
+        // removed so beans that depend on it also need to be rebuilt
+        previous.addTypes(changedTypes);
+      }
+    }
+    Map<String, List<Meta>> dependents = new HashMap<>();
+    for (Meta bean : meta.values()) {
+      for (String dependsOn : bean.dependsOn) {
+        dependents.computeIfAbsent(dependencyType(dependsOn), s -> new ArrayList<>()).add(bean);
+      }
+    }
+    Set<String> visited = new HashSet<>();
+    while (!changedTypes.isEmpty()) {
+      String type = changedTypes.pop();
+      if (visited.add(type)) {
+        for (Meta dependent : dependents.getOrDefault(type, Collections.emptyList())) {
+          if (changed.add(dependent.key)) {
+            dependent.addTypes(changedTypes);
+          }
+        }
+      }
+    }
+    return changed;
+  }
+
+  /**
+   * Return the type of the dependency unwrapping Provider, List, Set and Optional.
+   */
+  static String dependencyType(String dependsOn) {
+    if (dependsOn.startsWith(SOFT_PREFIX)) {
+      // soft dependency of a conditional bean (RequiresBean)
+      return dependsOn.substring(SOFT_PREFIX.length());
+    }
+    for (String wrapper : WRAPPERS) {
+      if (dependsOn.startsWith(wrapper) && dependsOn.endsWith(">")) {
+        return dependsOn.substring(wrapper.length(), dependsOn.length() - 1);
+      }
+    }
+    return dependsOn;
+  }
+
+  private static String topType(String type) {
+    int pos = type.indexOf('<');
+    return pos == -1 ? type : type.substring(0, pos);
+  }
+
+  /**
+   * Read the DependencyMeta of the build methods of the modules.
+   */
+  static Map<String, Meta> readMeta(List<Module> modules) {
+    Map<String, Meta> map = new HashMap<>();
+    for (Module module : modules) {
+      ClassLoader loader = module.getClass().getClassLoader();
+      for (Method method : module.getClass().getDeclaredMethods()) {
+        DependencyMeta meta = method.getAnnotation(DependencyMeta.class);
+        if (meta != null) {
+          Meta bean = new Meta(meta, loader);
+          map.put(bean.key, bean);
+        }
+      }
+    }
+    return map;
+  }
+
+  /**
+   * DependencyMeta of a bean.
+   */
+  static final class Meta {
+
+    private final String key;
+    private final String signature;
+    private final List<String> types = new ArrayList<>();
+    private final List<String> dependsOn;
+    private final List<String> classNames = new ArrayList<>(2);
+    private final ClassLoader loader;
+    private final boolean conditional;
+
+    Meta(DependencyMeta meta, ClassLoader loader) {
+      this(meta.type(), meta.name(), meta.method(), meta.provides(), meta.dependsOn(), meta.conditions(), loader);
+    }
+
+    Meta(String type, String name, String method, String[] provides, String[] dependsOn, ClassLoader loader) {
+      this(type, name, method, provides, dependsOn, new String[0], loader);
+    }
+
+    Meta(String type, String name, String method, String[] provides, String[] dependsOn, String[] conditions, ClassLoader loader) {
+      this.key = DRebuild.key(type, name);
+      this.signature = key + ":" + method + ":" + Arrays.toString(provides) + ":" + Arrays.toString(dependsOn) + ":" + Arrays.toString(conditions);
+      this.dependsOn = Arrays.asList(dependsOn);
+      this.loader = loader;
+      this.conditional = conditions.length > 0;
+      this.types.add(type);
+      this.types.add(topType(type));
+      this.types.addAll(Arrays.asList(provides));
+      this.classNames.add(topType(type));
+      if (!method.isEmpty()) {
+        // the $DI class holding the factory method
+        this.classNames.add(method.substring(0, method.lastIndexOf('.')));
+      }
+    }
+
+    String key() {
+      return key;
+    }
+
+    void addTypes(Deque<String> changedTypes) {
+      changedTypes.addAll(types);
+    }
+
+    /**
+     * Return true if the bean is replaced by a supplied bean.
+     */
+    boolean isSupplied(List<String> suppliedTypes) {
+      for (String type : types) {
+        if (suppliedTypes.contains(type)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Return true if the meta data and classes are the same.
+     */
+    boolean isSame(Meta other) {
+      return signature.equals(other.signature) && (loader == other.loader || isSameClasses(other));
+    }
+
+    private boolean isSameClasses(Meta other) {
+      try {
+        for (String className : classNames) {
+          if (Class.forName(className, false, loader) != Class.forName(className, false, other.loader)) {
+            return false;
+          }
+        }
+        return true;
+      } catch (ClassNotFoundException | LinkageError e) {
+        return false;
+      }
+    }
+  }
+}
@@ -1,8 +1,16 @@
 package io.avaje.inject.spi;
 
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
 /**
  * Hold bean dependency meta data intended for internal use by code generation (Java annotation processing).
  */
+@Target(METHOD)
+@Retention(RUNTIME)
 public @interface DependencyMeta {
 
   /**
@@ -30,4 +38,9 @@ public @interface DependencyMeta {
    */
   String[] dependsOn() default {};
 
+  /**
+   * The conditions of the bean (from RequiresProperty, RequiresBean and Profile).
+   */
+  String[] conditions() default {};
+
 }
@@ -1,6 +1,7 @@
 module io.avaje.inject {
 
   exports io.avaje.inject;
+  exports io.avaje.inject.aop;
   exports io.avaje.inject.spi;
 
   requires transitive jakarta.inject;
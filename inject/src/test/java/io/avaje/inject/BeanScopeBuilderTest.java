@@ -85,6 +85,38 @@ public class BeanScopeBuilderTest {
     assertThat(names(factoryOrder.factories())).containsExactly("one", "three", "two");
   }
 
+  @Test
+  public void chain_reverseOrder() {
+
+    DBeanScopeBuilder.FactoryOrder factoryOrder = new DBeanScopeBuilder.FactoryOrder(Collections.emptySet(), true);
+    factoryOrder.add(bc("3", of(FeatureA.class), of(Mod4.class, MyFeature.class)));
+    factoryOrder.add(bc("2", of(Mod4.class), of(Mod3.class)));
+    factoryOrder.add(bc("1", of(Mod3.class), of(MyFeature.class)));
+    factoryOrder.add(bc("0", of(MyFeature.class), null));
+    factoryOrder.add(bc("4", null, of(FeatureA.class)));
+
+    factoryOrder.orderFactories();
+
+    assertThat(names(factoryOrder.factories())).containsExactly("0", "1", "2", "3", "4");
+  }
+
+  /**
+   * Ordering a chain of modules added in reverse order (the worst case of looping the queue).
+   */
+  @Test
+  public void reverseChain() {
+    Class<?>[] features = {Chain0.class, Chain1.class, Chain2.class, Chain3.class, Chain4.class, Chain5.class, Chain6.class, Chain7.class};
+    DBeanScopeBuilder.FactoryOrder factoryOrder = new DBeanScopeBuilder.FactoryOrder(Collections.emptySet(), false);
+    for (int i = features.length - 1; i > 0; i--) {
+      factoryOrder.add(bc(String.valueOf(i), of(features[i]), of(features[i - 1])));
+    }
+    factoryOrder.add(bc("0", of(features[0]), null));
+
+    factoryOrder.orderFactories();
+
+    assertThat(names(factoryOrder.factories())).containsExactly("0", "1", "2", "3", "4", "5", "6", "7");
+  }
+
   private List<String> names(List<Module> factories) {
     return factories.stream()
       .map(Module::toString)
@@ -145,4 +177,20 @@ public class BeanScopeBuilderTest {
   }
   class Mod4 {
   }
+  class Chain0 {
+  }
+  class Chain1 {
+  }
+  class Chain2 {
+  }
+  class Chain3 {
+  }
+  class Chain4 {
+  }
+  class Chain5 {
+  }
+  class Chain6 {
+  }
+  class Chain7 {
+  }
 }
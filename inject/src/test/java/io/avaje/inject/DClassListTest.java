@@ -0,0 +1,55 @@
+package io.avaje.inject;
+
+import io.avaje.inject.spi.Builder;
+import io.avaje.inject.spi.Module;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DClassListTest {
+
+  @Test
+  void preload() {
+    DClassList classList = new DClassList();
+    assertThat(classList.preload(new TModule())).isEqualTo(2);
+  }
+
+  @Test
+  void preload_noClassList_expect_moduleClasses() {
+    DClassList classList = new DClassList();
+    assertThat(classList.preload(new NoClassListModule())).isEqualTo(1);
+  }
+
+  static class Preloaded {
+  }
+
+  static class TModule implements Module {
+
+    @Override
+    public Class<?>[] requires() {
+      return new Class<?>[0];
+    }
+
+    @Override
+    public Class<?>[] provides() {
+      return new Class<?>[0];
+    }
+
+    @Override
+    public Class<?>[] classes() {
+      return new Class<?>[0];
+    }
+
+    @Override
+    public void build(Builder builder) {
+    }
+  }
+
+  static class NoClassListModule extends TModule {
+
+    @Override
+    public Class<?>[] classes() {
+      return new Class<?>[]{Preloaded.class};
+    }
+  }
+}
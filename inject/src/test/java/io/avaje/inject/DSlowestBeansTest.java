@@ -0,0 +1,33 @@
+package io.avaje.inject;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DSlowestBeansTest {
+
+  @Test
+  void slowest() {
+    DSlowestBeans report = new DSlowestBeans(2);
+    report.beanEnd(String.class, null, 10);
+    report.beanEnd(Integer.class, "one", 50);
+    report.beanEnd(Long.class, null, 30);
+    report.postConstruct(String.class, null, 100);
+    report.injector(Long.class, null, 5);
+
+    List<DSlowestBeans.Timing> slowest = report.slowest();
+    assertThat(slowest).hasSize(2);
+    assertThat(slowest.get(0).bean()).isEqualTo("java.lang.String");
+    assertThat(slowest.get(0).nanos()).isEqualTo(110);
+    assertThat(slowest.get(1).bean()).isEqualTo("java.lang.Integer:one");
+  }
+
+  @Test
+  void slowest_when_lessThanCount() {
+    DSlowestBeans report = new DSlowestBeans(5);
+    report.beanEnd(String.class, null, 10);
+    assertThat(report.slowest()).hasSize(1);
+  }
+}
@@ -0,0 +1,105 @@
+package io.avaje.inject.aop;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvocationAsyncTest {
+
+  private final List<String> trace = new ArrayList<>();
+  private final Method fetchMethod;
+  private CompletableFuture<String> pending;
+  private int failures;
+
+  InvocationAsyncTest() {
+    try {
+      fetchMethod = InvocationAsyncTest.class.getDeclaredMethod("fetch", String.class);
+    } catch (NoSuchMethodException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  CompletableFuture<String> fetch(String key) {
+    trace.add("fetch");
+    if (failures-- > 0) {
+      throw new IllegalStateException("fail");
+    }
+    pending = new CompletableFuture<>();
+    return pending;
+  }
+
+  @Test
+  void asyncInterceptor_composesOnStage() throws Throwable {
+    Invocation.Build<CompletableFuture<String>> call = new Invocation.Call<>(() -> fetch("a"))
+      .with(this, fetchMethod, "a")
+      .chain(new MethodInterceptor[]{new AsyncTimer(), new SyncTrace()});
+
+    call.invoke();
+    CompletableFuture<String> future = call.finalResult();
+    assertThat(trace).containsExactly("b-Sync", "fetch", "a-Sync");
+    assertThat(future.isDone()).isFalse();
+
+    pending.complete("hello");
+    assertThat(future.get()).isEqualTo("hello");
+    assertThat(trace).containsExactly("b-Sync", "fetch", "a-Sync", "timed hello");
+  }
+
+  @Test
+  void asyncInterceptor_reinvokedAfterReturning() throws Throwable {
+    failures = 1;
+    Invocation.Build<CompletableFuture<String>> call = new Invocation.Call<>(() -> fetch("a"))
+      .with(this, fetchMethod, "a")
+      .chain(new MethodInterceptor[]{new SyncTrace(), new AsyncRetry(), new SyncTrace()});
+
+    call.invoke();
+    CompletableFuture<String> future = call.finalResult();
+    pending.complete("hello");
+
+    assertThat(future.get()).isEqualTo("hello");
+    // the first fetch throws (through the inner interceptor) and is retried
+    assertThat(trace).containsExactly("b-Sync", "b-Sync", "fetch", "b-Sync", "fetch", "a-Sync", "a-Sync");
+  }
+
+  @Test
+  void invokeStage_synchronousExceptionAsFailedStage() {
+    failures = 1;
+    Invocation.Build<CompletableFuture<String>> call = new Invocation.Call<>(() -> fetch("a"))
+      .with(this, fetchMethod, "a");
+
+    assertThat(call.invokeStage().toCompletableFuture().isCompletedExceptionally()).isTrue();
+  }
+
+  class AsyncTimer implements AsyncMethodInterceptor {
+
+    @Override
+    public CompletionStage<?> invokeAsync(Invocation invocation) {
+      return invocation.invokeStage().whenComplete((result, e) -> trace.add("timed " + result));
+    }
+  }
+
+  static class AsyncRetry implements AsyncMethodInterceptor {
+
+    @Override
+    public CompletionStage<?> invokeAsync(Invocation invocation) {
+      return invocation.invokeStage()
+        .handle((result, e) -> e == null ? CompletableFuture.completedFuture(result) : invocation.invokeStage())
+        .thenCompose(stage -> stage);
+    }
+  }
+
+  class SyncTrace implements MethodInterceptor {
+
+    @Override
+    public void invoke(Invocation invocation) throws Throwable {
+      trace.add("b-Sync");
+      invocation.invoke();
+      trace.add("a-Sync");
+    }
+  }
+}
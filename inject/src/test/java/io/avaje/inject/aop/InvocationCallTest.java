@@ -6,6 +6,9 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -79,6 +82,96 @@ class InvocationCallTest {
     assertThat(args).containsExactly(myArg, myArg, myArg);
   }
 
+  @Test
+  void chain() throws Throwable {
+    Invocation.Build<String> call = new Invocation.Call<>(() -> this.doStuff(myArg))
+      .with(this, doStuffMethod, myArg)
+      .chain(new MethodInterceptor[]{new Inter2(), new Inter1(), new Inter0()});
+
+    assertThat(call.invoke()).isEqualTo("hello");
+
+    assertThat(trace).containsExactly("b-Inter2", "b-Inter1", "b-Inter0", "doStuff", "a-Inter0", "a-Inter1", "a-Inter2");
+    assertThat(call.finalResult()).isEqualTo("hello");
+    assertThat(usedArg).isSameAs(myArg);
+    assertThat(methods).containsExactly(doStuffMethod, doStuffMethod, doStuffMethod);
+    assertThat(results).containsExactly("hello", "hello", "hello");
+    assertThat(args).containsExactly(myArg, myArg, myArg);
+  }
+
+  @Test
+  void chain_resultReplacedByInterceptor() throws Throwable {
+    MethodInterceptor replace = invocation -> invocation.result("replaced-" + invocation.invoke());
+    Invocation.Build<String> call = new Invocation.Call<>(() -> this.doStuff(myArg))
+      .with(this, doStuffMethod, myArg)
+      .chain(new MethodInterceptor[]{new Inter1(), replace, new Inter0()});
+
+    call.invoke();
+
+    assertThat(trace).containsExactly("b-Inter1", "b-Inter0", "doStuff", "a-Inter0", "a-Inter1");
+    assertThat(results).containsExactly("hello", "replaced-hello");
+    assertThat(call.finalResult()).isEqualTo("replaced-hello");
+  }
+
+  @Test
+  void chain_invokedFromAnotherThreadAfterReturn() throws Throwable {
+    CountDownLatch returned = new CountDownLatch(1);
+    CompletableFuture<Object> later = new CompletableFuture<>();
+    MethodInterceptor handOff = invocation -> new Thread(() -> {
+      try {
+        returned.await();
+        later.complete(invocation.invoke());
+      } catch (Throwable e) {
+        later.completeExceptionally(e);
+      }
+    }).start();
+    Invocation.Build<String> call = new Invocation.Call<>(() -> this.doStuff(myArg))
+      .with(this, doStuffMethod, myArg)
+      .chain(new MethodInterceptor[]{new Inter1(), handOff, new Inter0()});
+
+    call.invoke();
+    assertThat(trace).containsExactly("b-Inter1", "a-Inter1");
+    returned.countDown();
+
+    assertThat(later.get(5, TimeUnit.SECONDS)).isEqualTo("hello");
+    assertThat(trace).containsExactly("b-Inter1", "a-Inter1", "b-Inter0", "doStuff", "a-Inter0");
+  }
+
+  @Test
+  void chain_invokedAfterReturn() throws Throwable {
+    List<Invocation> handedOff = new ArrayList<>();
+    Invocation.Build<String> call = new Invocation.Call<>(() -> this.doStuff(myArg))
+      .with(this, doStuffMethod, myArg)
+      .chain(new MethodInterceptor[]{handedOff::add, new Inter0()});
+
+    call.invoke();
+    assertThat(trace).isEmpty();
+
+    assertThat(handedOff.get(0).invoke()).isEqualTo("hello");
+    assertThat(trace).containsExactly("b-Inter0", "doStuff", "a-Inter0");
+  }
+
+  @Test
+  void chain_detach() throws Throwable {
+    List<Invocation> detached = new ArrayList<>();
+    MethodInterceptor detach = invocation -> {
+      detached.add(invocation.detach());
+      invocation.result("original");
+    };
+    Invocation.Build<String> call = new Invocation.Call<>(() -> this.doStuff(myArg))
+      .with(this, doStuffMethod, myArg)
+      .chain(new MethodInterceptor[]{new Inter1(), detach, new Inter0()});
+
+    call.invoke();
+    Invocation first = detached.get(0);
+    assertThat(first.invoke()).isEqualTo("hello");
+    first.result("replaced");
+    assertThat(first.invoke()).isEqualTo("hello");
+
+    assertThat(call.finalResult()).isEqualTo("original");
+    assertThat(first.arguments()).containsExactly(myArg);
+    assertThat(trace).containsExactly("b-Inter1", "a-Inter1", "b-Inter0", "doStuff", "a-Inter0", "b-Inter0", "doStuff", "a-Inter0");
+  }
+
   class Inter0 implements MethodInterceptor {
 
     @Override
@@ -66,6 +66,48 @@ class InvocationFallbackTest {
     assertThat(call.finalResult()).isEqualTo("fallback-hello");
   }
 
+  String fallbackWithThrowable(Object arg, Throwable e) {
+    fallbackArg = arg;
+    trace.add("fallbackWithThrowable " + e.getMessage());
+    return "fallback-throwable";
+  }
+
+  String fallbackThrows(Object arg) {
+    throw new IllegalStateException("fallback failed");
+  }
+
+  @Test
+  void invokeWithFallback_withThrowable_viaLookup() throws Throwable {
+    throwOnDoStuff = true;
+
+    Invocation.Build<String> call = new Invocation.Call<>(() -> this.doStuff(myArg))
+      .with(this, doStuffMethod, myArg);
+
+    Fallback fallback = Fallback.find("fallbackWithThrowable", doStuffMethod, lookup);
+    new MyInterceptor(fallback).invoke(call);
+
+    assertThat(trace).containsExactly("doStuff", "fallbackWithThrowable nope");
+    assertThat(fallbackArg).isSameAs(myArg);
+    assertThat(call.finalResult()).isEqualTo("fallback-throwable");
+    assertThat(call.arguments()).containsExactly(myArg);
+  }
+
+  @Test
+  void invokeWithFallback_fallbackThrows() throws Throwable {
+    throwOnDoStuff = true;
+
+    Invocation.Build<String> call = new Invocation.Call<>(() -> this.doStuff(myArg))
+      .with(this, doStuffMethod, myArg);
+
+    Fallback fallback = Fallback.find("fallbackThrows", doStuffMethod);
+    try {
+      new MyInterceptor(fallback).invoke(call);
+      throw new AssertionError("expected InvocationException");
+    } catch (InvocationException e) {
+      assertThat(e.getCause()).isInstanceOf(IllegalStateException.class);
+    }
+  }
+
   @Test
   void invokeWithNoFallback() throws Throwable {
     throwOnDoStuff = false;
@@ -74,6 +74,35 @@ class InvocationRunTest {
     assertThat(args).containsExactly(myArg, myArg, myArg);
   }
 
+  @Test
+  void chain() throws Throwable {
+    Invocation.Build<Void> call = new Invocation.Run(() -> this.doStuff(myArg))
+      .with(this, doStuffMethod, myArg)
+      .chain(new MethodInterceptor[]{new Inter2(), new Inter1(), new Inter0()});
+
+    call.invoke();
+
+    assertThat(trace).containsExactly("b-Inter2", "b-Inter1", "b-Inter0", "doStuff", "a-Inter0", "a-Inter1", "a-Inter2");
+    assertThat(usedArg).isSameAs(myArg);
+    assertThat(methods).containsExactly(doStuffMethod, doStuffMethod, doStuffMethod);
+    assertThat(args).containsExactly(myArg, myArg, myArg);
+  }
+
+  @Test
+  void chain_interceptorInvokesTwice() throws Throwable {
+    MethodInterceptor retry = invocation -> {
+      invocation.invoke();
+      invocation.invoke();
+    };
+    Invocation.Build<Void> call = new Invocation.Run(() -> this.doStuff(myArg))
+      .with(this, doStuffMethod, myArg)
+      .chain(new MethodInterceptor[]{retry, new Inter0()});
+
+    call.invoke();
+
+    assertThat(trace).containsExactly("b-Inter0", "doStuff", "a-Inter0", "b-Inter0", "doStuff", "a-Inter0");
+  }
+
   class Inter0 implements MethodInterceptor {
 
     @Override
@@ -0,0 +1,166 @@
+package io.avaje.inject.aop;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvocationTargetTest {
+
+  private final List<String> trace = new ArrayList<>();
+  private final Method addMethod;
+  private int boxed;
+
+  InvocationTargetTest() {
+    try {
+      addMethod = InvocationTargetTest.class.getDeclaredMethod("add", int.class, int.class);
+    } catch (NoSuchMethodException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  int add(int a, int b) {
+    trace.add("add");
+    return a + b;
+  }
+
+  @Test
+  void proceed_argumentsNotBoxed() throws Throwable {
+    AddInvocation call = new AddInvocation(new MethodInterceptor[]{new Timer(), new Timer()}, 1, 2);
+    call.proceed();
+
+    assertThat(call.result).isEqualTo(3);
+    assertThat(trace).containsExactly("b-Timer", "b-Timer", "add", "a-Timer", "a-Timer");
+    assertThat(boxed).isEqualTo(0);
+  }
+
+  @Test
+  void arguments_boxedOnce() throws Throwable {
+    MethodInterceptor readArgs = invocation -> {
+      assertThat(invocation.arguments()).containsExactly(1, 2);
+      assertThat(invocation.arguments(new RuntimeException())).hasSize(3);
+      invocation.invoke();
+    };
+    AddInvocation call = new AddInvocation(new MethodInterceptor[]{readArgs}, 1, 2);
+    call.proceed();
+
+    assertThat(call.finalResult()).isEqualTo(3);
+    assertThat(boxed).isEqualTo(1);
+  }
+
+  @Test
+  void argument_notBoxedIntoArray() throws Throwable {
+    MethodInterceptor readArg = invocation -> {
+      assertThat(invocation.argument(1)).isEqualTo(2);
+      invocation.invoke();
+    };
+    AddInvocation call = new AddInvocation(new MethodInterceptor[]{readArg, new Timer()}, 1, 2);
+    call.proceed();
+
+    assertThat(call.finalResult()).isEqualTo(3);
+    assertThat(boxed).isEqualTo(0);
+  }
+
+  @Test
+  void result_replaced() throws Throwable {
+    MethodInterceptor doubled = invocation -> invocation.result((Integer) invocation.invoke() * 2);
+    AddInvocation call = new AddInvocation(new MethodInterceptor[]{doubled}, 1, 2);
+    call.proceed();
+
+    assertThat(call.result).isEqualTo(6);
+  }
+
+  @Test
+  void wrap() throws Throwable {
+    AddInvocation call = new AddInvocation(new MethodInterceptor[0], 1, 2);
+    new Timer().invoke(call.wrap(new Timer()));
+
+    assertThat(trace).containsExactly("b-Timer", "b-Timer", "add", "a-Timer", "a-Timer");
+    assertThat(call.result).isEqualTo(3);
+  }
+
+  @Test
+  void detach_ownResult() throws Throwable {
+    List<Invocation> detached = new ArrayList<>();
+    MethodInterceptor detach = invocation -> {
+      detached.add(invocation.detach());
+      invocation.result(0);
+    };
+    AddInvocation call = new AddInvocation(new MethodInterceptor[]{detach, new Timer()}, 1, 2);
+    call.proceed();
+
+    assertThat(detached.get(0).invoke()).isEqualTo(3);
+    assertThat(call.result).isEqualTo(0);
+    assertThat(trace).containsExactly("b-Timer", "add", "a-Timer");
+  }
+
+  /**
+   * Like a generated proxy invocation with primitive arguments and result.
+   */
+  final class AddInvocation extends Invocation.Target<Integer> {
+
+    private final int a;
+    private final int b;
+    private int result;
+
+    AddInvocation(MethodInterceptor[] chain, int a, int b) {
+      super(InvocationTargetTest.this, addMethod, chain);
+      this.a = a;
+      this.b = b;
+    }
+
+    @Override
+    protected void invokeTarget() {
+      result = add(a, b);
+    }
+
+    @Override
+    protected AddInvocation copy() {
+      return new AddInvocation(null, a, b);
+    }
+
+    @Override
+    protected Object[] boxArguments() {
+      boxed++;
+      return new Object[]{a, b};
+    }
+
+    @Override
+    protected Object boxArgument(int index) {
+      switch (index) {
+        case 0: return a;
+        case 1: return b;
+        default: return super.boxArgument(index);
+      }
+    }
+
+    @Override
+    public Object invoke() throws Throwable {
+      proceed();
+      return result;
+    }
+
+    @Override
+    public void result(Object result) {
+      this.result = (Integer) result;
+    }
+
+    @Override
+    public Integer finalResult() {
+      return result;
+    }
+  }
+
+  class Timer implements MethodInterceptor {
+
+    @Override
+    public void invoke(Invocation invocation) throws Throwable {
+      trace.add("b-Timer");
+      invocation.proceed();
+      trace.add("a-Timer");
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package io.avaje.inject.spi;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DBuilderTest {
+
+  private final Map<String, String> properties = new HashMap<>();
+  private final DBuilder builder = new DBuilder(null, false);
+
+  DBuilderTest() {
+    builder.properties(properties::get);
+  }
+
+  @Test
+  void property() {
+    properties.put("a", "1");
+    assertThat(builder.property("a")).isEqualTo("1");
+    assertThat(builder.property("b")).isNull();
+  }
+
+  @Test
+  void isProfileActive() {
+    properties.put("avaje.profiles", "dev, test");
+    assertThat(builder.isProfileActive("test")).isTrue();
+    assertThat(builder.isProfileActive("prod", "dev")).isTrue();
+    assertThat(builder.isProfileActive("prod")).isFalse();
+  }
+
+  @Test
+  void isProfileActive_when_noProfiles() {
+    assertThat(builder.isProfileActive("dev")).isFalse();
+  }
+
+  @Test
+  void contains() {
+    assertThat(builder.contains(CharSequence.class)).isFalse();
+    builder.isAddBeanFor(String.class, CharSequence.class);
+    builder.register("hello");
+    assertThat(builder.contains(CharSequence.class)).isTrue();
+    assertThat(builder.contains(String.class)).isTrue();
+    assertThat(builder.contains(Integer.class)).isFalse();
+  }
+}
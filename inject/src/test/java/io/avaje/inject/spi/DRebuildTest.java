@@ -0,0 +1,234 @@
+package io.avaje.inject.spi;
+
+import io.avaje.inject.BeanScope;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DRebuildTest {
+
+  private final ClassLoader loader = DRebuildTest.class.getClassLoader();
+
+  @Test
+  void key() {
+    assertThat(DRebuild.key("org.A", null)).isEqualTo("org.A");
+    assertThat(DRebuild.key("org.A", "")).isEqualTo("org.A");
+    assertThat(DRebuild.key("org.A", "Blue")).isEqualTo("org.A|blue");
+  }
+
+  @Test
+  void dependencyType() {
+    assertThat(DRebuild.dependencyType("org.A")).isEqualTo("org.A");
+    assertThat(DRebuild.dependencyType("jakarta.inject.Provider<org.A>")).isEqualTo("org.A");
+    assertThat(DRebuild.dependencyType("java.util.List<org.A>")).isEqualTo("org.A");
+    assertThat(DRebuild.dependencyType("org.Repo<org.A>")).isEqualTo("org.Repo<org.A>");
+    assertThat(DRebuild.dependencyType("soft:org.A")).isEqualTo("org.A");
+  }
+
+  @Test
+  void key_type() {
+    assertThat(DRebuild.key(Store.class, null)).isEqualTo("io.avaje.inject.spi.DRebuildTest.Store");
+    assertThat(DRebuild.key(Store.class, "Blue")).isEqualTo("io.avaje.inject.spi.DRebuildTest.Store|blue");
+  }
+
+  @Test
+  void rebuild_reusesNestedBeans() {
+    TestModule module = new TestModule();
+    BeanScope first = BeanScope.newBuilder().withModules(module).build();
+    Store store = first.get(Store.class);
+    Sender sender = first.get(Sender.class);
+
+    BeanScope second = BeanScope.newBuilder().withModules(module).rebuild(first);
+    assertThat(second.get(Store.class)).isSameAs(store);
+    assertThat(second.get(Sender.class)).isSameAs(sender);
+    assertThat(module.closed).isEmpty();
+
+    second.close();
+    assertThat(module.closed).containsOnly(store, sender);
+  }
+
+  @Test
+  void rebuild_whenBuildFails_expect_previousScopeOpen() {
+    TestModule module = new TestModule();
+    BeanScope first = BeanScope.newBuilder().withModules(module).build();
+    Store store = first.get(Store.class);
+    Sender sender = first.get(Sender.class);
+
+    module.fail = true;
+    try {
+      BeanScope.newBuilder().withModules(module).rebuild(first);
+      throw new AssertionError("expected IllegalStateException");
+    } catch (IllegalStateException e) {
+      assertThat(e.getMessage()).isEqualTo("failed");
+    }
+    assertThat(module.closed).isEmpty();
+    assertThat(first.get(Sender.class)).isSameAs(sender);
+
+    first.close();
+    assertThat(module.closed).containsOnly(store, sender);
+  }
+
+  @Test
+  void rebuild_whenPreviousSupplied_expect_dependentsRebuilt() {
+    TestModule module = new TestModule();
+    Clock testClock = new Clock() {};
+    BeanScope first = BeanScope.newBuilder().withModules(module).withBean(Clock.class, testClock).build();
+    Store store = first.get(Store.class);
+    Sender sender = first.get(Sender.class);
+    assertThat(sender.clock).isSameAs(testClock);
+
+    BeanScope second = BeanScope.newBuilder().withModules(module).rebuild(first);
+    assertThat(second.get(Store.class)).isSameAs(store);
+    Sender rebuilt = second.get(Sender.class);
+    assertThat(rebuilt).isNotSameAs(sender);
+    assertThat(rebuilt.clock).isInstanceOf(SystemClock.class);
+    assertThat(module.closed).contains(sender);
+    second.close();
+  }
+
+  @Test
+  void changed_when_unchanged() {
+    Set<String> changed = DRebuild.changed(graph(), graph(), emptyList());
+    assertThat(changed).isEmpty();
+  }
+
+  @Test
+  void changed_when_metaChanged_expect_transitiveDependents() {
+    Map<String, DRebuild.Meta> next = graph();
+    put(next, meta("org.B", new String[]{"org.IfaceB"}, "org.A", "org.X"));
+
+    Set<String> changed = DRebuild.changed(graph(), next, emptyList());
+    assertThat(changed).containsOnly("org.B", "org.C", "org.D");
+  }
+
+  @Test
+  void changed_when_removed_expect_dependents() {
+    Map<String, DRebuild.Meta> next = graph();
+    next.remove("org.A");
+
+    Set<String> changed = DRebuild.changed(graph(), next, emptyList());
+    assertThat(changed).containsOnly("org.B", "org.C", "org.D");
+  }
+
+  @Test
+  void changed_when_supplied_expect_replacedAndDependents() {
+    Set<String> changed = DRebuild.changed(graph(), graph(), singletonList("org.IfaceB"));
+    assertThat(changed).containsOnly("org.B", "org.C", "org.D");
+  }
+
+  @Test
+  void changed_when_conditional_expect_conditionalAndDependents() {
+    Map<String, DRebuild.Meta> next = graph();
+    put(next, new DRebuild.Meta("org.B", "", "", new String[]{"org.IfaceB"}, new String[]{"org.A"}, new String[]{"property:sender=smtp"}, loader));
+    Map<String, DRebuild.Meta> previous = graph();
+    put(previous, new DRebuild.Meta("org.B", "", "", new String[]{"org.IfaceB"}, new String[]{"org.A"}, new String[]{"property:sender=smtp"}, loader));
+
+    Set<String> changed = DRebuild.changed(previous, next, emptyList());
+    assertThat(changed).containsOnly("org.B", "org.C", "org.D");
+  }
+
+  /**
+   * A, B depends on A, C depends on IfaceB (provided by B), D depends on Provider of C, E.
+   */
+  private Map<String, DRebuild.Meta> graph() {
+    Map<String, DRebuild.Meta> map = new HashMap<>();
+    put(map, meta("org.A", new String[0]));
+    put(map, meta("org.B", new String[]{"org.IfaceB"}, "org.A"));
+    put(map, meta("org.C", new String[0], "org.IfaceB"));
+    put(map, meta("org.D", new String[0], "jakarta.inject.Provider<org.C>"));
+    put(map, meta("org.E", new String[0]));
+    return map;
+  }
+
+  private void put(Map<String, DRebuild.Meta> map, DRebuild.Meta meta) {
+    map.put(meta.key(), meta);
+  }
+
+  private DRebuild.Meta meta(String type, String[] provides, String... dependsOn) {
+    return new DRebuild.Meta(type, "", "", provides, dependsOn, loader);
+  }
+
+  interface Clock {
+  }
+
+  static class SystemClock implements Clock {
+  }
+
+  static class Store {
+  }
+
+  static class Sender {
+    final Clock clock;
+
+    Sender(Clock clock) {
+      this.clock = clock;
+    }
+  }
+
+  /**
+   * Module built like a generated module with nested bean classes.
+   */
+  static class TestModule implements Module {
+
+    final List<Object> closed = new ArrayList<>();
+    boolean fail;
+    private Builder builder;
+
+    @Override
+    public Class<?>[] provides() {
+      return new Class<?>[0];
+    }
+
+    @Override
+    public Class<?>[] requires() {
+      return new Class<?>[0];
+    }
+
+    @Override
+    public Class<?>[] classes() {
+      return new Class<?>[0];
+    }
+
+    @Override
+    public void build(Builder builder) {
+      this.builder = builder;
+      buildClock();
+      buildStore();
+      buildSender();
+    }
+
+    @DependencyMeta(type = "io.avaje.inject.spi.DRebuildTest.SystemClock", provides = {"io.avaje.inject.spi.DRebuildTest.Clock"})
+    void buildClock() {
+      if (builder.isAddBeanFor(SystemClock.class, Clock.class)) {
+        builder.register(new SystemClock());
+      }
+    }
+
+    @DependencyMeta(type = "io.avaje.inject.spi.DRebuildTest.Store")
+    void buildStore() {
+      if (builder.isAddBeanFor(Store.class)) {
+        Store $bean = builder.register(new Store());
+        builder.addPreDestroy(() -> closed.add($bean));
+      }
+    }
+
+    @DependencyMeta(type = "io.avaje.inject.spi.DRebuildTest.Sender", dependsOn = {"io.avaje.inject.spi.DRebuildTest.Clock"})
+    void buildSender() {
+      if (fail) {
+        throw new IllegalStateException("failed");
+      }
+      if (builder.isAddBeanFor(Sender.class)) {
+        Sender $bean = builder.register(new Sender(builder.get(Clock.class, "!clock")));
+        builder.addPreDestroy(() -> closed.add($bean));
+      }
+    }
+  }
+}